@@ -0,0 +1,139 @@
+package com.timeline.bench;
+
+import com.timeline.config.Database;
+import com.timeline.config.ThreadMode;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.Random;
+
+public class BenchDatabase {
+    public static final int FIRST_YEAR = 1900;
+    public static final int LAST_YEAR = 2025;
+    public static final String[] CATEGORIES = {"history", "science", "tech", "culture", "current"};
+    public static final String[] WORDS = {
+            "apollo", "treaty", "launch", "summit", "discovery", "election", "storm", "bridge", "festival", "satellite",
+            "museum", "rover", "vaccine", "railway", "eclipse", "olympics", "merger", "protest", "reactor", "telescope",
+            "harbor", "charter", "archive", "comet", "engine", "orchestra", "volcano", "canal", "network", "reform"
+    };
+    private static final int BATCH = 10_000;
+    private static final long SEED = 42L;
+
+    public static Database open(int facts) {
+        return open(facts, ThreadMode.PLATFORM);
+    }
+
+    public static Database open(int facts, ThreadMode threadMode) {
+        File dir = new File(System.getProperty("bench.data.dir", "target/bench-data"));
+        if (!dir.exists()) dir.mkdirs();
+        File file = new File(dir, "facts-" + facts + ".db");
+        String url = "jdbc:sqlite:" + file.getPath();
+        Database db = new Database(url, threadMode);
+        db.init();
+        try (Connection conn = db.getWriteDataSource().getConnection()) {
+            long existing = count(conn);
+            if (existing != facts) {
+                try (Statement st = conn.createStatement()) { st.executeUpdate("DELETE FROM facts"); }
+                generate(conn, facts);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return db;
+    }
+
+    public static int randomYear(Random rnd) {
+        return FIRST_YEAR + rnd.nextInt(LAST_YEAR - FIRST_YEAR + 1);
+    }
+
+    public static YearMonth randomMonth(Random rnd) {
+        return YearMonth.of(randomYear(rnd), 1 + rnd.nextInt(12));
+    }
+
+    public static LocalDate randomDay(Random rnd) {
+        YearMonth ym = randomMonth(rnd);
+        return ym.atDay(1 + rnd.nextInt(ym.lengthOfMonth()));
+    }
+
+    private static long count(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery("SELECT COUNT(1) FROM facts")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    // Writes a database at schema version 1 (text dates only), as it looked before integer columns were added.
+    public static File legacy(int facts) {
+        File dir = new File(System.getProperty("bench.data.dir", "target/bench-data"));
+        if (!dir.exists()) dir.mkdirs();
+        File file = new File(dir, "legacy-" + facts + ".db");
+        if (file.exists()) return file;
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + file.getPath())) {
+            Database.migrate(conn, 1);
+            generate(conn, facts);
+        } catch (SQLException e) {
+            file.delete();
+            throw new RuntimeException(e);
+        }
+        return file;
+    }
+
+    private static void generate(Connection conn, int facts) throws SQLException {
+        boolean integerColumns = hasColumn(conn, "event_day");
+        Random rnd = new Random(SEED);
+        long firstDay = LocalDate.of(FIRST_YEAR, 1, 1).toEpochDay();
+        long days = LocalDate.of(LAST_YEAR, 12, 31).toEpochDay() - firstDay + 1;
+        String created = OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).toString();
+        long createdMs = OffsetDateTime.parse(created).toInstant().toEpochMilli();
+        String sql = integerColumns
+                ? "INSERT INTO facts(event_date, title, summary, category, source_url, created_at, event_day, created_ms) VALUES(?,?,?,?,?,?,?,?)"
+                : "INSERT INTO facts(event_date, title, summary, category, source_url, created_at) VALUES(?,?,?,?,?,?)";
+        boolean auto = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (int i = 0; i < facts; i++) {
+                LocalDate date = LocalDate.ofEpochDay(firstDay + (long) (rnd.nextDouble() * days));
+                String a = WORDS[rnd.nextInt(WORDS.length)];
+                String b = WORDS[rnd.nextInt(WORDS.length)];
+                ps.setString(1, date.toString());
+                ps.setString(2, capitalize(a) + " " + b + " " + i);
+                ps.setString(3, "Generated " + a + " and " + b + " fact number " + i + " for benchmarking.");
+                ps.setString(4, CATEGORIES[rnd.nextInt(CATEGORIES.length)]);
+                ps.setString(5, "https://example.com/facts/" + i);
+                ps.setString(6, created);
+                if (integerColumns) {
+                    ps.setLong(7, date.toEpochDay());
+                    ps.setLong(8, createdMs);
+                }
+                ps.addBatch();
+                if ((i + 1) % BATCH == 0) {
+                    ps.executeBatch();
+                    conn.commit();
+                }
+            }
+            ps.executeBatch();
+            conn.commit();
+        } finally {
+            conn.setAutoCommit(auto);
+        }
+        try (Statement st = conn.createStatement()) { st.execute("ANALYZE"); }
+    }
+
+    private static boolean hasColumn(Connection conn, String column) throws SQLException {
+        try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery("SELECT 1 FROM pragma_table_info('facts') WHERE name='" + column + "'")) {
+            return rs.next();
+        }
+    }
+
+    private static String capitalize(String s) {
+        return Character.toUpperCase(s.charAt(0)) + s.substring(1);
+    }
+}
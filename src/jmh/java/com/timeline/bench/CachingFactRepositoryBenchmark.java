@@ -0,0 +1,67 @@
+package com.timeline.bench;
+
+import com.timeline.config.Database;
+import com.timeline.model.Fact;
+import com.timeline.repository.CachingFactRepository;
+import com.timeline.repository.FactRepository;
+import com.timeline.repository.SqliteFactRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CachingFactRepositoryBenchmark {
+    private static final int MISS_MONTHS = 1024;
+
+    @Param({"10000", "1000000", "10000000"})
+    public int facts;
+
+    private Database database;
+    private FactRepository repo;
+    private YearMonth hot;
+    private YearMonth[] cold;
+    private final AtomicInteger next = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        database = BenchDatabase.open(facts);
+        repo = new CachingFactRepository(new SqliteFactRepository(database));
+        hot = YearMonth.of(2000, 1);
+        repo.getByMonth(hot);
+        cold = new YearMonth[MISS_MONTHS];
+        YearMonth ym = YearMonth.of(BenchDatabase.FIRST_YEAR, 1);
+        for (int i = 0; i < MISS_MONTHS; i++) {
+            cold[i] = ym;
+            ym = ym.plusMonths(1);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public List<Fact> monthHit() {
+        return repo.getByMonth(hot);
+    }
+
+    @Benchmark
+    public List<Fact> monthMiss() {
+        return repo.getByMonth(cold[Math.floorMod(next.getAndIncrement(), MISS_MONTHS)]);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public List<Fact> monthHitContended() {
+        return repo.getByMonth(hot);
+    }
+}
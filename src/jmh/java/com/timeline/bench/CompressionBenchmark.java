@@ -0,0 +1,64 @@
+package com.timeline.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.timeline.config.Database;
+import com.timeline.http.compress.Compression;
+import com.timeline.http.compress.ContentEncoder;
+import com.timeline.repository.SqliteFactRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Compressing one month of facts from the 1M dataset as JSON with each coding, against a fresh GZIPOutputStream per body.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompressionBenchmark {
+    private static final int BODIES = 64;
+
+    @Param({"gzip", "deflate", "zstd"})
+    public String coding;
+
+    private byte[][] bodies;
+    private ContentEncoder encoder;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Database database = BenchDatabase.open(1_000_000);
+        try {
+            SqliteFactRepository repo = new SqliteFactRepository(database);
+            ObjectMapper om = new ObjectMapper().registerModule(new JavaTimeModule()).disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+            bodies = new byte[BODIES][];
+            ThreadLocalRandom rnd = ThreadLocalRandom.current();
+            for (int i = 0; i < BODIES; i++) bodies[i] = om.writeValueAsBytes(repo.getByMonth(BenchDatabase.randomMonth(rnd)));
+        } finally {
+            database.close();
+        }
+        encoder = Compression.defaults().negotiate(coding);
+        if (encoder == null) throw new IllegalStateException(coding + " is not available");
+    }
+
+    @Benchmark
+    public byte[] pooled() throws IOException {
+        return encoder.encode(bodies[ThreadLocalRandom.current().nextInt(BODIES)]);
+    }
+
+    @Benchmark
+    public byte[] newGzipStream() throws IOException {
+        byte[] raw = bodies[ThreadLocalRandom.current().nextInt(BODIES)];
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(raw.length / 4 + 64);
+        try (GZIPOutputStream gos = new GZIPOutputStream(bos)) {
+            gos.write(raw);
+        }
+        return bos.toByteArray();
+    }
+}
@@ -0,0 +1,60 @@
+package com.timeline.bench;
+
+import com.timeline.cache.ConcurrentCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConcurrentCacheBenchmark {
+    private static final int KEYS = 1024;
+
+    @Param({"512"})
+    public int capacity;
+
+    private ConcurrentCache<String, String> cache;
+    private String[] keys;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        cache = new ConcurrentCache<>(capacity, 5 * 60_000);
+        keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = "m:" + i;
+            if (i < capacity) cache.put(keys[i], "v" + i);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String getSingleThread() {
+        return cache.get(keys[ThreadLocalRandom.current().nextInt(capacity)]);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public String getContended() {
+        return cache.get(keys[ThreadLocalRandom.current().nextInt(capacity)]);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(14)
+    public String mixedRead() {
+        return cache.get(keys[ThreadLocalRandom.current().nextInt(KEYS)]);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(2)
+    public void mixedWrite() {
+        int i = ThreadLocalRandom.current().nextInt(KEYS);
+        cache.put(keys[i], "v" + i);
+    }
+}
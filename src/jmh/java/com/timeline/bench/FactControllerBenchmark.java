@@ -0,0 +1,105 @@
+package com.timeline.bench;
+
+import com.timeline.api.FactController;
+import com.timeline.config.AppConfig;
+import com.timeline.config.Database;
+import com.timeline.http.GzipJson;
+import com.timeline.http.Json;
+import com.timeline.http.ResponseCache;
+import com.timeline.repository.CachingFactRepository;
+import com.timeline.repository.SqliteFactRepository;
+import io.javalin.Javalin;
+import io.javalin.json.JavalinJackson;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.YearMonth;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FactControllerBenchmark {
+    @Param({"10000", "1000000", "10000000"})
+    public int facts;
+
+    @Param({"identity", "gzip", "zstd"})
+    public String encoding;
+
+    private Database database;
+    private Javalin app;
+    private HttpClient client;
+    private String base;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        database = BenchDatabase.open(facts);
+        app = Javalin.create(config -> {
+            config.showJavalinBanner = false;
+            config.jsonMapper(new JavalinJackson(Json.mapper()));
+        });
+        CachingFactRepository repo = new CachingFactRepository(new SqliteFactRepository(database));
+        ResponseCache responseCache = new ResponseCache(1024, 5 * 60_000);
+        repo.addListener(responseCache);
+        new FactController(repo, responseCache, repo.versions(), null, null, AppConfig.defaults(), GzipJson.defaults()).register(app);
+        app.start(0);
+        base = "http://localhost:" + app.port();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        app.stop();
+        database.close();
+    }
+
+    @Benchmark
+    public byte[] month() throws Exception {
+        YearMonth ym = BenchDatabase.randomMonth(ThreadLocalRandom.current());
+        return get("/api/facts?year=" + ym.getYear() + "&month=" + ym.getMonthValue());
+    }
+
+    @Benchmark
+    public byte[] day() throws Exception {
+        return get("/api/facts/on?date=" + BenchDatabase.randomDay(ThreadLocalRandom.current()));
+    }
+
+    @Benchmark
+    public byte[] random() throws Exception {
+        YearMonth ym = BenchDatabase.randomMonth(ThreadLocalRandom.current());
+        return get("/api/facts/random?year=" + ym.getYear() + "&month=" + ym.getMonthValue());
+    }
+
+    @Benchmark
+    public byte[] search() throws Exception {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        String q = BenchDatabase.WORDS[rnd.nextInt(BenchDatabase.WORDS.length)];
+        return get("/api/facts/search?q=" + q + "&size=20");
+    }
+
+    @Benchmark
+    public byte[] byId() throws Exception {
+        return get("/api/facts/" + (1 + ThreadLocalRandom.current().nextInt(facts)));
+    }
+
+    @Benchmark
+    public long exportYear() throws Exception {
+        String path = "/api/facts/export?year=" + BenchDatabase.randomYear(ThreadLocalRandom.current());
+        HttpRequest req = HttpRequest.newBuilder(URI.create(base + path)).header("Accept-Encoding", encoding).GET().build();
+        try (var in = client.send(req, HttpResponse.BodyHandlers.ofInputStream()).body()) {
+            return in.transferTo(java.io.OutputStream.nullOutputStream());
+        }
+    }
+
+    private byte[] get(String path) throws Exception {
+        HttpRequest req = HttpRequest.newBuilder(URI.create(base + path)).header("Accept-Encoding", encoding).GET().build();
+        return client.send(req, HttpResponse.BodyHandlers.ofByteArray()).body();
+    }
+}
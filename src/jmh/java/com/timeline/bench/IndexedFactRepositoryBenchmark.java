@@ -0,0 +1,53 @@
+package com.timeline.bench;
+
+import com.timeline.config.Database;
+import com.timeline.model.Fact;
+import com.timeline.repository.FactRepository;
+import com.timeline.repository.IndexedFactRepository;
+import com.timeline.repository.SqliteFactRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx8g"})
+public class IndexedFactRepositoryBenchmark {
+    @Param({"10000", "1000000", "10000000"})
+    public int facts;
+
+    private Database database;
+    private FactRepository repo;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        database = BenchDatabase.open(facts);
+        repo = IndexedFactRepository.load(new SqliteFactRepository(database));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public List<Fact> getByMonth() {
+        return repo.getByMonth(BenchDatabase.randomMonth(ThreadLocalRandom.current()));
+    }
+
+    @Benchmark
+    public List<Fact> getByDate() {
+        return repo.getByDate(BenchDatabase.randomDay(ThreadLocalRandom.current()));
+    }
+
+    @Benchmark
+    public Optional<Fact> getRandom() {
+        return repo.getRandom(BenchDatabase.randomMonth(ThreadLocalRandom.current()));
+    }
+}
@@ -0,0 +1,125 @@
+package com.timeline.bench;
+
+import com.timeline.api.FactController;
+import com.timeline.config.Database;
+import com.timeline.config.ThreadMode;
+import com.timeline.http.Json;
+import com.timeline.http.ServerThreads;
+import com.timeline.repository.CachingFactRepository;
+import com.timeline.repository.SqliteFactRepository;
+import io.javalin.Javalin;
+import io.javalin.json.JavalinJackson;
+import org.eclipse.jetty.server.Server;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Closed-loop HTTP load against search (uncached, one read connection per request) in both thread modes.
+// Run: mvn -Pbench -DskipTests test-compile exec:exec -Dbench.main=com.timeline.bench.LoadTest -Djmh.args="1000000 50,400,2000 10"
+public class LoadTest {
+    public static void main(String[] args) throws Exception {
+        int facts = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int[] levels = Arrays.stream((args.length > 1 ? args[1] : "50,400,2000").split(",")).mapToInt(Integer::parseInt).toArray();
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        BenchDatabase.open(facts).close();
+        System.out.printf("%-9s %8s %10s %9s %9s %9s %9s %8s %9s%n", "mode", "clients", "req/s", "p50 ms", "p99 ms", "max ms", "errors", "peak", "threads");
+        for (ThreadMode mode : ThreadMode.values()) {
+            Database database = BenchDatabase.open(facts, mode);
+            AtomicInteger inFlight = new AtomicInteger();
+            AtomicInteger peak = new AtomicInteger();
+            Javalin app = Javalin.create(config -> {
+                config.showJavalinBanner = false;
+                config.jsonMapper(new JavalinJackson(Json.mapper()));
+                config.jetty.server(() -> new Server(ServerThreads.create(mode, 250)));
+            });
+            app.before(ctx -> peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max));
+            app.after(ctx -> inFlight.decrementAndGet());
+            new FactController(new CachingFactRepository(new SqliteFactRepository(database))).register(app);
+            app.start(0);
+            String base = "http://localhost:" + app.port();
+            try {
+                run(base, 50, 3);
+                for (int clients : levels) {
+                    peak.set(0);
+                    Result r = run(base, clients, seconds);
+                    System.out.printf("%-9s %8d %10.0f %9.2f %9.2f %9.2f %9d %8d %9d%n", mode.name().toLowerCase(), clients, r.count / (double) seconds,
+                            r.percentile(0.50), r.percentile(0.99), r.percentile(1.0), r.errors, peak.get(), Thread.activeCount());
+                }
+            } finally {
+                app.stop();
+                database.close();
+            }
+        }
+    }
+
+    private static Result run(String base, int clients, int seconds) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<long[]> samples = new ArrayList<>();
+        AtomicLong errors = new AtomicLong();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                long[] latencies = new long[1 << 16];
+                int[] n = new int[1];
+                samples.add(latencies);
+                executor.submit(() -> {
+                    ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        String category = BenchDatabase.CATEGORIES[rnd.nextInt(BenchDatabase.CATEGORIES.length)];
+                        HttpRequest req = HttpRequest.newBuilder(URI.create(base + "/api/facts/search?year=" + BenchDatabase.randomYear(rnd) + "&category=" + category + "&size=20"))
+                                .timeout(Duration.ofSeconds(60)).build();
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<byte[]> res = client.send(req, HttpResponse.BodyHandlers.ofByteArray());
+                            if (res.statusCode() != 200) errors.incrementAndGet();
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        if (n[0] < latencies.length) latencies[n[0]++] = System.nanoTime() - start;
+                    }
+                    latencies[latencies.length - 1] = n[0];
+                    return null;
+                });
+            }
+        }
+        client.shutdownNow();
+        return Result.of(samples, errors.get());
+    }
+
+    private record Result(long[] sorted, long count, long errors) {
+        static Result of(List<long[]> samples, long errors) {
+            int total = 0;
+            for (long[] s : samples) total += (int) s[s.length - 1];
+            long[] all = new long[total];
+            int at = 0;
+            for (long[] s : samples) {
+                int n = (int) s[s.length - 1];
+                System.arraycopy(s, 0, all, at, n);
+                at += n;
+            }
+            Arrays.sort(all);
+            return new Result(all, total, errors);
+        }
+
+        double percentile(double p) {
+            if (sorted.length == 0) return 0;
+            int idx = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+            return sorted[Math.max(0, idx)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.timeline.bench;
+
+import com.timeline.config.Database;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class MigrationBenchmark {
+    @Param({"100000", "1000000"})
+    public int facts;
+
+    private File legacy;
+    private File copy;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        legacy = BenchDatabase.legacy(facts);
+        copy = new File(legacy.getParentFile(), "migrating-" + facts + ".db");
+    }
+
+    @Setup(Level.Invocation)
+    public void copyLegacy() throws IOException {
+        Files.copy(legacy.toPath(), copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        Files.deleteIfExists(new File(copy.getPath() + "-wal").toPath());
+        Files.deleteIfExists(new File(copy.getPath() + "-shm").toPath());
+    }
+
+    @Benchmark
+    public int migrateToLatest() {
+        Database db = new Database("jdbc:sqlite:" + copy.getPath());
+        db.init();
+        try {
+            return db.schemaVersion();
+        } finally {
+            db.close();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.timeline.bench;
+
+import com.timeline.config.Database;
+import com.timeline.model.Fact;
+import com.timeline.repository.FactRepository;
+import com.timeline.repository.SqliteFactRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MixedLoadBenchmark {
+    private Database database;
+    private FactRepository repo;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        File dir = new File(System.getProperty("bench.data.dir", "target/bench-data"));
+        if (!dir.exists()) dir.mkdirs();
+        for (String suffix : new String[]{"", "-wal", "-shm"}) new File(dir, "mixed.db" + suffix).delete();
+        database = new Database("jdbc:sqlite:" + new File(dir, "mixed.db").getPath());
+        database.init();
+        repo = new SqliteFactRepository(database);
+        List<Fact> seed = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) seed.add(fact(ThreadLocalRandom.current()));
+        repo.addAll(seed);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(4)
+    public List<Fact> read() {
+        return repo.getByDate(BenchDatabase.randomDay(ThreadLocalRandom.current()));
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(4)
+    public Fact write() {
+        return repo.add(fact(ThreadLocalRandom.current()));
+    }
+
+    private static Fact fact(ThreadLocalRandom rnd) {
+        Fact f = new Fact();
+        LocalDate date = BenchDatabase.randomDay(rnd);
+        f.setEventDate(date);
+        f.setTitle("Mixed " + rnd.nextLong());
+        f.setSummary("Mixed load fact for " + date);
+        f.setCategory(BenchDatabase.CATEGORIES[rnd.nextInt(BenchDatabase.CATEGORIES.length)]);
+        return f;
+    }
+}
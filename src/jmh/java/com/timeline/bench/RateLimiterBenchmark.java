@@ -0,0 +1,79 @@
+package com.timeline.bench;
+
+import com.timeline.rate.RateLimiter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateLimiterBenchmark {
+    private static final int CLIENTS = 10_000;
+
+    @Param({"gcra", "window"})
+    public String impl;
+
+    private Limiter limiter;
+    private String[] clients;
+
+    interface Limiter {
+        boolean allow(String client);
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // limits high enough that every call takes the admit path
+        limiter = impl.equals("gcra") ? new RateLimiter(Integer.MAX_VALUE, 60_000)::allow : new FixedWindow(Integer.MAX_VALUE, 60_000)::allow;
+        clients = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) clients[i] = "10." + (i >> 16 & 255) + "." + (i >> 8 & 255) + "." + (i & 255);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean manyClients() {
+        return limiter.allow(clients[ThreadLocalRandom.current().nextInt(CLIENTS)]);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean manyClientsContended() {
+        return limiter.allow(clients[ThreadLocalRandom.current().nextInt(CLIENTS)]);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean oneHotClientContended() {
+        return limiter.allow(clients[0]);
+    }
+
+    // the limiter this replaced: one ConcurrentHashMap entry per client, never removed
+    static final class FixedWindow {
+        private final ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<>();
+        private final int limit;
+        private final long windowMillis;
+
+        FixedWindow(int limit, long windowMillis) {
+            this.limit = limit;
+            this.windowMillis = windowMillis;
+        }
+
+        boolean allow(String key) {
+            long now = System.currentTimeMillis();
+            Window w = windows.compute(key, (k, existing) -> existing == null || now - existing.start >= windowMillis ? new Window(now) : existing);
+            return w.count.incrementAndGet() <= limit;
+        }
+
+        private record Window(long start, AtomicInteger count) {
+            Window(long start) {
+                this(start, new AtomicInteger());
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.timeline.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.timeline.config.Database;
+import com.timeline.http.Json;
+import com.timeline.model.Fact;
+import com.timeline.repository.SqliteFactRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Month bodies and single facts from the 1M dataset, through a plain reflective ObjectMapper and through Json.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+    private static final int MONTHS = 64;
+
+    private List<Fact>[] months;
+    private Fact[] facts;
+    private ObjectMapper plain;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        Database database = BenchDatabase.open(1_000_000);
+        try {
+            SqliteFactRepository repo = new SqliteFactRepository(database);
+            months = new List[MONTHS];
+            facts = new Fact[MONTHS];
+            ThreadLocalRandom rnd = ThreadLocalRandom.current();
+            for (int i = 0; i < MONTHS; i++) {
+                months[i] = repo.getByMonth(BenchDatabase.randomMonth(rnd));
+                facts[i] = months[i].get(rnd.nextInt(months[i].size()));
+            }
+        } finally {
+            database.close();
+        }
+        plain = new ObjectMapper().registerModule(new JavaTimeModule()).disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    @Benchmark
+    public byte[] monthPlain() throws IOException {
+        return plain.writeValueAsBytes(months[ThreadLocalRandom.current().nextInt(MONTHS)]);
+    }
+
+    @Benchmark
+    public byte[] monthJson() throws IOException {
+        return Json.bytes(months[ThreadLocalRandom.current().nextInt(MONTHS)]);
+    }
+
+    @Benchmark
+    public byte[] factPlain() throws IOException {
+        return plain.writeValueAsBytes(facts[ThreadLocalRandom.current().nextInt(MONTHS)]);
+    }
+
+    @Benchmark
+    public byte[] factJson() throws IOException {
+        return Json.bytes(facts[ThreadLocalRandom.current().nextInt(MONTHS)]);
+    }
+}
@@ -0,0 +1,107 @@
+package com.timeline.bench;
+
+import com.timeline.config.Database;
+import com.timeline.model.Fact;
+import com.timeline.repository.FactRepository;
+import com.timeline.repository.SearchCursor;
+import com.timeline.repository.SqliteFactRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SqliteFactRepositoryBenchmark {
+    @Param({"10000", "1000000", "10000000"})
+    public int facts;
+
+    private Database database;
+    private FactRepository repo;
+    private SearchCursor deepCursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        database = BenchDatabase.open(facts);
+        repo = new SqliteFactRepository(database);
+        Fact before = repo.search(null, null, null, null, Math.min(facts - 20, 100_000) - 1, 1, "event_date", true).get(0);
+        deepCursor = SearchCursor.after(before, "event_date", true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public List<Fact> getByMonth() {
+        return repo.getByMonth(BenchDatabase.randomMonth(ThreadLocalRandom.current()));
+    }
+
+    @Benchmark
+    public List<Fact> getByDate() {
+        return repo.getByDate(BenchDatabase.randomDay(ThreadLocalRandom.current()));
+    }
+
+    @Benchmark
+    public Optional<Fact> getRandom() {
+        return repo.getRandom(BenchDatabase.randomMonth(ThreadLocalRandom.current()));
+    }
+
+    @Benchmark
+    public List<Fact> getRandomTen() {
+        return repo.getRandom(BenchDatabase.randomMonth(ThreadLocalRandom.current()), 10);
+    }
+
+    @Benchmark
+    public List<Fact> searchByCategoryAndYear() {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        String category = BenchDatabase.CATEGORIES[rnd.nextInt(BenchDatabase.CATEGORIES.length)];
+        return repo.search(BenchDatabase.randomYear(rnd), null, category, null, 0, 20, "event_date", true);
+    }
+
+    @Benchmark
+    public List<Fact> searchText() {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        String q = BenchDatabase.WORDS[rnd.nextInt(BenchDatabase.WORDS.length)];
+        return repo.search(null, null, null, q, 0, 20, "event_date", true);
+    }
+
+    // 30 words x 126 years overflows the 512-entry result cache, so most calls run the FTS query
+    @Benchmark
+    public List<Fact> searchTextByYear() {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        String q = BenchDatabase.WORDS[rnd.nextInt(BenchDatabase.WORDS.length)];
+        return repo.search(BenchDatabase.randomYear(rnd), null, null, q, 0, 20, "event_date", true);
+    }
+
+    @Benchmark
+    public List<Fact> searchRelevance() {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        String q = BenchDatabase.WORDS[rnd.nextInt(BenchDatabase.WORDS.length)];
+        return repo.search(null, null, null, q, 0, 20, "relevance", true);
+    }
+
+    @Benchmark
+    public List<Fact> searchPrefixByYear() {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        String q = BenchDatabase.WORDS[rnd.nextInt(BenchDatabase.WORDS.length)].substring(0, 3) + "*";
+        return repo.search(BenchDatabase.randomYear(rnd), null, null, q, 0, 20, "event_date", true);
+    }
+
+    @Benchmark
+    public List<Fact> searchDeepPage() {
+        return repo.search(null, null, null, null, Math.min(facts - 20, 100_000), 20, "event_date", true);
+    }
+
+    @Benchmark
+    public List<Fact> searchDeepCursor() {
+        return repo.searchAfter(null, null, null, null, deepCursor, 20, "event_date", true);
+    }
+}
@@ -0,0 +1,74 @@
+package com.timeline.bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Cold start of the shaded jar in a new JVM: boot, StartupCheck answering every read route, exit.
+// Build first with mvn -Pcds package -DskipTests; archive=cds runs with the archive that profile writes.
+// db=fresh seeds an empty file each time, db=seeded boots on one whose seed hash already matches.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 8)
+@Fork(1)
+public class StartupBenchmark {
+    @Param({"none", "cds"})
+    public String archive;
+
+    @Param({"fresh", "seeded"})
+    public String db;
+
+    private File jar;
+    private File jsa;
+    private File file;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        File target = new File(System.getProperty("bench.target.dir", "target"));
+        jar = new File(target, System.getProperty("bench.jar", "taf-timeline-0.1.0.jar"));
+        jsa = new File(target, "timeline.jsa");
+        if (!jar.isFile()) throw new IllegalStateException(jar + " is missing; run mvn -Pcds package -DskipTests");
+        if (archive.equals("cds") && !jsa.isFile()) throw new IllegalStateException(jsa + " is missing; run mvn -Pcds package -DskipTests");
+        File dir = new File(target, "bench-data");
+        if (!dir.exists()) dir.mkdirs();
+        file = new File(dir, "startup-" + db + ".db");
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() throws IOException, InterruptedException {
+        if (db.equals("fresh")) {
+            for (String suffix : new String[]{"", "-wal", "-shm"}) Files.deleteIfExists(new File(file.getPath() + suffix).toPath());
+        } else if (!file.exists()) {
+            launch();
+        }
+    }
+
+    @Benchmark
+    public int boot() throws IOException, InterruptedException {
+        return launch();
+    }
+
+    private int launch() throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        if (archive.equals("cds")) command.add("-XX:SharedArchiveFile=" + jsa.getPath());
+        command.add("-jar");
+        command.add(jar.getPath());
+        ProcessBuilder pb = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD);
+        pb.environment().put("TIMELINE_EXIT_AFTER_START", "true");
+        pb.environment().put("PORT", "0");
+        pb.environment().put("DB_URL", "jdbc:sqlite:" + file.getPath());
+        int exit = pb.start().waitFor();
+        if (exit != 0) throw new IllegalStateException("startup check exited with " + exit);
+        return exit;
+    }
+}
@@ -0,0 +1,51 @@
+package com.timeline.bench;
+
+import com.timeline.config.Database;
+import com.timeline.repository.SqliteFactRepository;
+import com.timeline.search.SuggestIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class SuggestIndexBenchmark {
+    @Param({"10000", "1000000"})
+    public int facts;
+
+    private Database database;
+    private SuggestIndex index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        database = BenchDatabase.open(facts);
+        long start = System.nanoTime();
+        index = SuggestIndex.load(new SqliteFactRepository(database));
+        System.out.printf("%nloaded %d titles in %d ms%n", index.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public List<String> suggestTwoLetters() {
+        String w = BenchDatabase.WORDS[ThreadLocalRandom.current().nextInt(BenchDatabase.WORDS.length)];
+        return index.suggest(w.substring(0, 2), 10);
+    }
+
+    @Benchmark
+    public List<String> suggestTwoWords() {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        String a = BenchDatabase.WORDS[rnd.nextInt(BenchDatabase.WORDS.length)];
+        String b = BenchDatabase.WORDS[rnd.nextInt(BenchDatabase.WORDS.length)];
+        return index.suggest(a + " " + b.substring(0, 3), 10);
+    }
+}
@@ -1,52 +1,168 @@
 package com.timeline;
 
+import com.timeline.api.AdminController;
 import com.timeline.api.FactController;
 import com.timeline.api.GlobalExceptionHandler;
+import com.timeline.config.AppConfig;
 import com.timeline.config.Database;
+import com.timeline.config.DbExecutor;
+import com.timeline.config.ThreadMode;
+import com.timeline.bootstrap.CacheWarmer;
 import com.timeline.bootstrap.Seeder;
+import com.timeline.bootstrap.StartupCheck;
+import com.timeline.http.GzipJson;
+import com.timeline.http.Json;
+import com.timeline.http.ResponseCache;
+import com.timeline.http.ServerThreads;
+import com.timeline.http.compress.Compression;
+import com.timeline.http.compress.ContentEncoder;
+import com.timeline.metrics.FlightRecordings;
+import com.timeline.metrics.HttpEvents;
+import com.timeline.metrics.HttpMetrics;
+import com.timeline.metrics.MetricsRegistry;
+import com.timeline.rate.RateLimiter;
 import com.timeline.model.Fact;
 import com.timeline.repository.FactRepository;
+import com.timeline.repository.IndexedFactRepository;
+import com.timeline.repository.InstrumentedFactRepository;
 import com.timeline.repository.SqliteFactRepository;
 import com.timeline.repository.CachingFactRepository;
+import com.timeline.search.SuggestIndex;
 import io.javalin.Javalin;
 import io.javalin.json.JavalinJackson;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.eclipse.jetty.server.Server;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import java.time.LocalDate;
 
 public class App {
-    public static final int DEFAULT_PORT = 8080;
+    private static final Logger LOG = LoggerFactory.getLogger(App.class);
 
     public static void main(String[] args) {
-        String dbUrl = com.timeline.util.EnvUtil.getEnvString("DB_URL", "jdbc:sqlite:var/db/timeline.db");
-        Database database = new Database(dbUrl);
+        AppConfig config = AppConfig.fromEnv();
+        Javalin app = start(config);
+        if (config.server().exitAfterStart()) {
+            // Jetty's threads are not daemons, so a failed check must still stop and exit or the build hangs
+            int status = 1;
+            try {
+                StartupCheck.run(app.port());
+                status = 0;
+            } catch (RuntimeException e) {
+                LOG.error("startup check failed", e);
+            } finally {
+                try {
+                    app.stop();
+                } finally {
+                    System.exit(status);
+                }
+            }
+        }
+    }
+
+    public static Javalin start(AppConfig config) {
+        ThreadMode threadMode = config.server().threadMode();
+        Database database = new Database(config.db(), threadMode);
         database.init();
-        FactRepository repo = new CachingFactRepository(new SqliteFactRepository(database));
-        Seeder.seedIfEmpty(repo);
-        ObjectMapper om = new ObjectMapper();
-        om.registerModule(new JavaTimeModule());
-        om.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-        Javalin app = Javalin.create(config -> {
-            config.showJavalinBanner = false;
-            config.jsonMapper(new JavalinJackson(om));
+        MetricsRegistry metrics = config.features().metrics() ? new MetricsRegistry() : null;
+        SqliteFactRepository sqlite = new SqliteFactRepository(database);
+        Seeder.seed(database, sqlite);
+        FactRepository source = config.features().index() ? IndexedFactRepository.load(sqlite) : sqlite;
+        if (metrics != null) source = new InstrumentedFactRepository(source, metrics);
+        CachingFactRepository repo = new CachingFactRepository(source);
+        ResponseCache responseCache = new ResponseCache(1024, 5 * 60_000);
+        repo.addListener(responseCache);
+        CacheWarmer warmer = new CacheWarmer(database, repo, config.warmup());
+        warmer.restore();
+        warmer.warmInBackground();
+        warmer.saveEvery();
+        SuggestIndex suggestions = null;
+        if (config.features().suggest()) {
+            suggestions = SuggestIndex.load(repo);
+            repo.addListener(suggestions);
+        }
+        DbExecutor executor = null;
+        if (config.features().async()) {
+            AppConfig.Db db = config.db();
+            executor = new DbExecutor(
+                    db.executorThreads() > 0 ? db.executorThreads() : database.readPoolSize(),
+                    db.executorQueue(),
+                    db.executorRetryAfterSeconds());
+        }
+        GzipJson json = new GzipJson(Compression.from(config.http()));
+        RateLimiter rateLimiter = new RateLimiter(config.rateLimit());
+        Javalin app = Javalin.create(javalin -> {
+            javalin.showJavalinBanner = false;
+            javalin.jetty.server(() -> new Server(ServerThreads.create(threadMode, config.server().jettyMaxThreads())));
+            javalin.jsonMapper(new JavalinJackson(Json.mapper()));
         });
-        GlobalExceptionHandler.register(app);
-        new FactController(repo).register(app);
-        app.get("/health", ctx -> com.timeline.http.GzipJson.write(ctx, 200, new Status("ok")));
+        HttpEvents.register(app);
+        if (metrics != null) {
+            HttpMetrics.register(app, metrics);
+            bind(metrics, database, repo, responseCache, rateLimiter, json, executor);
+        }
+        GlobalExceptionHandler.register(app, config, rateLimiter, json);
+        new FactController(repo, responseCache, repo.versions(), suggestions, executor, config, json).register(app);
+        FlightRecordings recordings = new FlightRecordings(config.jfr());
+        try {
+            if (config.jfr().startOnBoot()) recordings.start();
+        } catch (Exception e) {
+            throw new IllegalStateException("JFR_START: cannot start flight recording with settings " + config.jfr().settings(), e);
+        }
+        String adminToken = config.server().adminToken();
+        if (adminToken != null && !adminToken.isBlank()) new AdminController(adminToken, database.slowQueries(), recordings, json).register(app);
+        app.get("/health", ctx -> json.write(ctx, 200, new Status("ok")));
         app.get("/ready", ctx -> {
+            if (!warmer.ready()) {
+                json.write(ctx, 503, new Status("warming"));
+                return;
+            }
             try (java.sql.Connection c = database.getDataSource().getConnection(); java.sql.Statement s = c.createStatement()) {
-                try (java.sql.ResultSet r = s.executeQuery("SELECT 1")) { com.timeline.http.GzipJson.write(ctx, 200, new Status("ready")); }
+                try (java.sql.ResultSet r = s.executeQuery("SELECT 1")) { json.write(ctx, 200, new Status("ready")); }
             } catch (Exception e) {
-                com.timeline.http.GzipJson.write(ctx, 503, new Status("not-ready"));
+                json.write(ctx, 503, new Status("not-ready"));
             }
         });
-        app.events(event -> event.serverStopped(() -> database.close()));
-        int port = com.timeline.util.EnvUtil.getEnvInt("PORT", DEFAULT_PORT);
-        app.start(port);
+        DbExecutor dbExecutor = executor;
+        // SIGTERM only runs shutdown hooks; neither Javalin nor Jetty (stopAtShutdown is off) registers one
+        Thread shutdownHook = new Thread(app::stop, "shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+        app.events(event -> event.serverStopped(() -> {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException shuttingDown) {
+                // stopped by the hook itself
+            }
+            if (dbExecutor != null) dbExecutor.close();
+            warmer.save();
+            database.close();
+        }));
+        app.start(config.server().port());
+        return app;
     }
 
     public record Status(String status) {}
 
+    private static void bind(MetricsRegistry metrics, Database database, CachingFactRepository repo, ResponseCache responseCache,
+                             RateLimiter rateLimiter, GzipJson json, DbExecutor executor) {
+        metrics.pool("read", database.readPool());
+        metrics.pool("write", database.writePool());
+        metrics.gauge("timeline_db_gate_waiting", "Virtual threads waiting at the read connection gate", null, database::gateWaiting);
+        metrics.cache("month", repo::monthCacheStats);
+        metrics.cache("day", repo::dayCacheStats);
+        metrics.cache("response", responseCache::stats);
+        metrics.counter("timeline_db_slow_queries_total", "Statements slower than SLOW_QUERY_MS", null, database.slowQueries()::slowStatements);
+        metrics.counter("timeline_rate_limited_total", "Requests refused by the rate limiter", null, rateLimiter::rejected);
+        for (ContentEncoder e : json.compression().encoders()) {
+            String labels = "coding=\"" + e.name() + "\"";
+            metrics.counter("timeline_http_compressed_responses_total", "Buffered JSON bodies sent compressed", labels, () -> json.compressedBodies(e.name()));
+            metrics.counter("timeline_http_compression_input_bytes_total", "JSON bytes before compression", labels, () -> json.bytesBeforeCompression(e.name()));
+            metrics.counter("timeline_http_compression_output_bytes_total", "Bytes sent after compression", labels, () -> json.bytesAfterCompression(e.name()));
+        }
+        if (executor != null) {
+            metrics.gauge("timeline_db_executor_queued", "Tasks waiting for a database executor thread", null, executor::queued);
+            metrics.gauge("timeline_db_executor_active", "Database executor threads running a task", null, executor::active);
+        }
+    }
+
     private static void seed(FactRepository repo) {}
 }
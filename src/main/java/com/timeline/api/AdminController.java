@@ -0,0 +1,64 @@
+package com.timeline.api;
+
+import com.timeline.api.dto.SlowQueryReport;
+import com.timeline.config.SlowQueryLog;
+import com.timeline.http.GzipJson;
+import com.timeline.metrics.FlightRecordings;
+import io.javalin.Javalin;
+import io.javalin.http.ConflictResponse;
+import io.javalin.http.Context;
+import io.javalin.http.UnauthorizedResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+// Operator routes under /admin. Every request must carry the token as "Authorization: Bearer <token>".
+public class AdminController {
+    private final byte[] token;
+    private final SlowQueryLog slowQueries;
+    private final FlightRecordings recordings;
+    private final GzipJson json;
+
+    public AdminController(String token, SlowQueryLog slowQueries, FlightRecordings recordings) {
+        this(token, slowQueries, recordings, GzipJson.defaults());
+    }
+
+    public AdminController(String token, SlowQueryLog slowQueries, FlightRecordings recordings, GzipJson json) {
+        if (token == null || token.isBlank()) throw new IllegalArgumentException("admin token is required");
+        this.token = token.getBytes(StandardCharsets.UTF_8);
+        this.slowQueries = slowQueries;
+        this.recordings = recordings;
+        this.json = json;
+    }
+
+    public void register(Javalin app) {
+        app.before("/admin/*", this::authorize);
+        app.get("/admin/slow-queries", ctx -> json.write(ctx, 200, new SlowQueryReport(slowQueries.slowStatements(), slowQueries.top())));
+        app.delete("/admin/slow-queries", ctx -> {
+            slowQueries.clear();
+            ctx.status(204);
+        });
+        app.get("/admin/jfr", ctx -> json.write(ctx, 200, recordings.status()));
+        app.post("/admin/jfr/start", ctx -> json.write(ctx, 200, recordings.start()));
+        app.post("/admin/jfr/dump", ctx -> {
+            requireRecording();
+            json.write(ctx, 200, recordings.dump());
+        });
+        app.post("/admin/jfr/stop", ctx -> {
+            requireRecording();
+            json.write(ctx, 200, recordings.stop());
+        });
+    }
+
+    private void requireRecording() {
+        if (!recordings.running()) throw new ConflictResponse("No flight recording is running");
+    }
+
+    private void authorize(Context ctx) {
+        String header = ctx.header("Authorization");
+        byte[] presented = header != null && header.startsWith("Bearer ")
+                ? header.substring(7).trim().getBytes(StandardCharsets.UTF_8)
+                : new byte[0];
+        if (!MessageDigest.isEqual(token, presented)) throw new UnauthorizedResponse("Admin token required");
+    }
+}
@@ -1,25 +1,74 @@
 package com.timeline.api;
 
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.timeline.api.dto.BulkEvent;
 import com.timeline.api.dto.FactRequest;
 import com.timeline.api.error.ValidationException;
+import com.timeline.config.AppConfig;
+import com.timeline.config.DbExecutor;
+import com.timeline.http.CachedResponse;
+import com.timeline.http.Conditional;
+import com.timeline.http.GzipJson;
+import com.timeline.http.ResponseCache;
+import com.timeline.ingest.BulkImporter;
+import com.timeline.ingest.CsvFactReader;
+import com.timeline.ingest.FactRecordReader;
+import com.timeline.ingest.ImportListener;
+import com.timeline.ingest.ImportProgress;
+import com.timeline.ingest.NdjsonFactReader;
 import com.timeline.model.Fact;
 import com.timeline.service.FactService;
+import com.timeline.repository.CachingFactRepository;
 import com.timeline.repository.FactRepository;
+import com.timeline.repository.FactVersions;
+import com.timeline.repository.SearchCursor;
+import com.timeline.search.SuggestIndex;
 import io.javalin.Javalin;
 import io.javalin.http.BadRequestResponse;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
 import io.javalin.http.NotFoundResponse;
+import io.javalin.http.ServiceUnavailableResponse;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 public class FactController {
     private final FactRepository repo;
     private final FactService service;
+    private final ResponseCache responseCache;
+    private final FactVersions versions;
+    private final SuggestIndex suggestions;
+    private final CachingFactRepository caching;
+    private final DbExecutor executor;
+    private final int bulkChunkSize;
+    private final GzipJson json;
 
+    // Built-in settings and no response cache, suggestions or executor; App wires everything through the
+    // constructor below.
     public FactController(FactRepository repo) {
+        this(repo, null, repo instanceof CachingFactRepository c ? c.versions() : null, null, null, AppConfig.defaults(), GzipJson.defaults());
+    }
+
+    // With an executor, routes that touch the database run on it via ctx.future; cache hits are still answered inline.
+    public FactController(FactRepository repo, ResponseCache responseCache, FactVersions versions, SuggestIndex suggestions, DbExecutor executor,
+                          AppConfig config, GzipJson json) {
         this.repo = repo;
-        this.service = new FactService(repo);
+        this.service = new FactService(repo, config.facts());
+        this.responseCache = responseCache;
+        this.versions = versions;
+        this.suggestions = suggestions;
+        this.caching = repo instanceof CachingFactRepository c ? c : null;
+        this.executor = executor;
+        this.bulkChunkSize = config.db().bulkChunkSize();
+        this.json = json;
     }
 
     public void register(Javalin app) {
@@ -31,8 +80,22 @@ public class FactController {
             int month = parseInt(monthStr, "month");
             if (month < 1 || month > 12) throw new BadRequestResponse("month must be 1-12");
             YearMonth ym = YearMonth.of(year, month);
-            List<Fact> list = service.month(ym);
-            com.timeline.http.GzipJson.write(ctx, 200, list);
+            String etag = versions != null ? versions.monthEtag(ym) : null;
+            long lastModified = versions != null ? versions.monthLastModified(ym) : 0;
+            if (etag != null && Conditional.notModified(ctx, etag, lastModified)) return;
+            String key = ResponseCache.key("/api/facts", Map.of("year", year, "month", month));
+            if (writeCached(ctx, key, caching != null ? caching.cachedMonth(ym) : null, etag, lastModified)) return;
+            blocking(ctx, c -> {
+                if (responseCache == null && etag == null) {
+                    json.write(c, 200, service.month(ym));
+                    return;
+                }
+                CachedResponse cached = responseCache != null
+                        ? responseCache.get(key, () -> GzipJson.encode(service.month(ym)), ResponseCache.monthTag(ym))
+                        : GzipJson.encode(service.month(ym));
+                if (etag != null) json.write(c, 200, cached, etag, lastModified);
+                else json.write(c, 200, cached);
+            });
         });
 
         app.get("/api/facts/on", ctx -> {
@@ -44,7 +107,23 @@ public class FactController {
             } catch (Exception e) {
                 throw new BadRequestResponse("date must be YYYY-MM-DD");
             }
-            com.timeline.http.GzipJson.write(ctx, 200, service.day(date));
+            LocalDate day = date;
+            String etag = versions != null ? versions.dayEtag(day) : null;
+            long lastModified = versions != null ? versions.dayLastModified(day) : 0;
+            if (etag != null && Conditional.notModified(ctx, etag, lastModified)) return;
+            String key = ResponseCache.key("/api/facts/on", Map.of("date", day));
+            if (writeCached(ctx, key, caching != null ? caching.cachedDay(day) : null, etag, lastModified)) return;
+            blocking(ctx, c -> {
+                if (responseCache == null && etag == null) {
+                    json.write(c, 200, service.day(day));
+                    return;
+                }
+                CachedResponse cached = responseCache != null
+                        ? responseCache.get(key, () -> GzipJson.encode(service.day(day)), ResponseCache.dayTag(day), ResponseCache.monthTag(YearMonth.from(day)))
+                        : GzipJson.encode(service.day(day));
+                if (etag != null) json.write(c, 200, cached, etag, lastModified);
+                else json.write(c, 200, cached);
+            });
         });
 
         app.get("/api/facts/random", ctx -> {
@@ -55,8 +134,15 @@ public class FactController {
             int month = parseInt(monthStr, "month");
             if (month < 1 || month > 12) throw new BadRequestResponse("month must be 1-12");
             YearMonth ym = YearMonth.of(year, month);
-            Fact f = repo.getRandom(ym).orElseThrow(() -> new NotFoundResponse("not found"));
-            com.timeline.http.GzipJson.write(ctx, 200, f);
+            if (ctx.queryParam("count") != null) {
+                int count = Math.min(com.timeline.util.AppConstants.MAX_PAGE_SIZE, Math.max(1, parseInt(ctx.queryParam("count"), "count")));
+                blocking(ctx, c -> json.write(c, 200, repo.getRandom(ym, count)));
+                return;
+            }
+            blocking(ctx, c -> {
+                Fact f = repo.getRandom(ym).orElseThrow(() -> new NotFoundResponse("not found"));
+                json.write(c, 200, f);
+            });
         });
 
         app.get("/api/facts/search", ctx -> {
@@ -75,14 +161,65 @@ public class FactController {
                 sortField = parts[0];
                 if (parts.length > 1) asc = !parts[1].equalsIgnoreCase("desc");
             }
+            String cursor = ctx.queryParam("cursor");
+            if (cursor != null) {
+                SearchCursor after = null;
+                if (!cursor.isBlank()) {
+                    try {
+                        after = SearchCursor.decode(cursor);
+                    } catch (IllegalArgumentException e) {
+                        throw new BadRequestResponse("invalid cursor");
+                    }
+                    if (!after.sortField().equals(SearchCursor.sortColumn(sortField)) || after.asc() != asc) {
+                        throw new BadRequestResponse("cursor does not match sort");
+                    }
+                }
+                SearchCursor from = after;
+                String field = sortField;
+                boolean ascending = asc;
+                blocking(ctx, c -> json.write(c, 200, service.searchPage(year, month, category, q, from, size, field, ascending)));
+                return;
+            }
             int offset = page * size;
-            com.timeline.http.GzipJson.write(ctx, 200, service.search(year, month, category, q, offset, size, sortField, asc));
+            String field = sortField;
+            boolean ascending = asc;
+            blocking(ctx, c -> json.write(c, 200, service.search(year, month, category, q, offset, size, field, ascending)));
+        });
+
+        app.get("/api/facts/suggest", ctx -> {
+            if (suggestions == null) throw new NotFoundResponse("suggestions are disabled");
+            String q = ctx.queryParam("q");
+            if (q == null || q.isBlank()) throw new BadRequestResponse("q is required");
+            int limit = ctx.queryParam("limit") != null
+                    ? Math.min(com.timeline.util.AppConstants.MAX_SUGGESTIONS, Math.max(1, parseInt(ctx.queryParam("limit"), "limit")))
+                    : com.timeline.util.AppConstants.DEFAULT_SUGGESTIONS;
+            json.write(ctx, 200, suggestions.suggest(q, limit));
+        });
+
+        app.get("/api/facts/export", ctx -> {
+            Integer year = ctx.queryParam("year") != null ? parseInt(ctx.queryParam("year"), "year") : null;
+            Integer month = ctx.queryParam("month") != null ? parseInt(ctx.queryParam("month"), "month") : null;
+            if (month != null && (month < 1 || month > 12)) throw new BadRequestResponse("month must be 1-12");
+            if (month != null && year == null) throw new BadRequestResponse("month requires year");
+            LocalDate from = null, to = null;
+            if (month != null) {
+                YearMonth ym = YearMonth.of(year, month);
+                from = ym.atDay(1);
+                to = ym.atEndOfMonth();
+            } else if (year != null) {
+                from = LocalDate.of(year, 1, 1);
+                to = LocalDate.of(year, 12, 31);
+            }
+            LocalDate start = from, end = to;
+            json.streamArray(ctx, 200, Fact.class, sink -> repo.scan(start, end, sink));
         });
 
         app.get("/api/facts/{id}", ctx -> {
             long id = Long.parseLong(ctx.pathParam("id"));
-            Fact f = repo.getById(id).orElseThrow(() -> new NotFoundResponse("not found"));
-            com.timeline.http.GzipJson.write(ctx, 200, f);
+            blocking(ctx, c -> {
+                Fact f = repo.getById(id).orElseThrow(() -> new NotFoundResponse("not found"));
+                json.write(c, 200, f);
+            });
         });
 
         app.post("/api/facts", ctx -> {
@@ -91,31 +228,104 @@ public class FactController {
             LocalDate date = null;
             if (!errors.containsKey("eventDate")) date = LocalDate.parse(req.eventDate());
             if (!errors.isEmpty()) throw new ValidationException("Validation failed", errors);
-            Fact saved = service.create(date, req.title(), req.summary(), req.category(), req.sourceUrl());
-            com.timeline.http.GzipJson.write(ctx, 201, saved);
+            LocalDate eventDate = date;
+            blocking(ctx, c -> {
+                Fact saved = service.create(eventDate, req.title(), req.summary(), req.category(), req.sourceUrl());
+                json.write(c, 201, saved);
+            });
+        });
+
+        app.post("/api/facts/bulk", ctx -> {
+            String ct = ctx.header("Content-Type");
+            boolean csv = ct != null && ct.toLowerCase().contains("text/csv");
+            ctx.status(200);
+            ctx.contentType("application/x-ndjson");
+            OutputStream out = ctx.res().getOutputStream();
+            ObjectWriter writer = json.mapper().writerFor(BulkEvent.class);
+            ImportListener listener = new ImportListener() {
+                @Override
+                public void onRowError(long line, Map<String, String> errors) throws IOException {
+                    writeLine(out, writer, BulkEvent.error(line, errors));
+                }
+
+                @Override
+                public void onProgress(ImportProgress progress) throws IOException {
+                    writeLine(out, writer, BulkEvent.progress("progress", progress));
+                }
+            };
+            InputStream in = ctx.req().getInputStream();
+            try (FactRecordReader reader = csv ? new CsvFactReader(in) : new NdjsonFactReader(in, json.mapper())) {
+                ImportProgress result = new BulkImporter(service, bulkChunkSize).run(reader, listener);
+                writeLine(out, writer, BulkEvent.progress("done", result));
+            }
         });
 
         app.put("/api/facts/{id}", ctx -> {
             long id = Long.parseLong(ctx.pathParam("id"));
-            if (repo.getById(id).isEmpty()) throw new NotFoundResponse("not found");
-            FactRequest req = ctx.bodyAsClass(FactRequest.class);
-            java.util.Map<String,String> errors = service.validate(req.eventDate(), req.title(), req.summary(), req.category(), req.sourceUrl());
-            LocalDate date = null;
-            if (!errors.containsKey("eventDate")) date = LocalDate.parse(req.eventDate());
-            if (!errors.isEmpty()) throw new ValidationException("Validation failed", errors);
-            boolean ok = service.update(id, date, req.title(), req.summary(), req.category(), req.sourceUrl());
-            if (!ok) throw new NotFoundResponse("not found");
-            com.timeline.http.GzipJson.write(ctx, 200, repo.getById(id).orElseThrow(() -> new NotFoundResponse("not found")));
+            blocking(ctx, c -> {
+                if (repo.getById(id).isEmpty()) throw new NotFoundResponse("not found");
+                FactRequest req = c.bodyAsClass(FactRequest.class);
+                java.util.Map<String,String> errors = service.validate(req.eventDate(), req.title(), req.summary(), req.category(), req.sourceUrl());
+                LocalDate date = null;
+                if (!errors.containsKey("eventDate")) date = LocalDate.parse(req.eventDate());
+                if (!errors.isEmpty()) throw new ValidationException("Validation failed", errors);
+                boolean ok = service.update(id, date, req.title(), req.summary(), req.category(), req.sourceUrl());
+                if (!ok) throw new NotFoundResponse("not found");
+                json.write(c, 200, repo.getById(id).orElseThrow(() -> new NotFoundResponse("not found")));
+            });
         });
 
         app.delete("/api/facts/{id}", ctx -> {
             long id = Long.parseLong(ctx.pathParam("id"));
-            boolean ok = repo.delete(id);
-            if (!ok) throw new NotFoundResponse("not found");
-            ctx.status(204);
+            blocking(ctx, c -> {
+                boolean ok = repo.delete(id).isPresent();
+                if (!ok) throw new NotFoundResponse("not found");
+                c.status(204);
+            });
         });
     }
 
+    // Runs work inline without an executor, otherwise on it; a full queue is answered with 503 and Retry-After.
+    private void blocking(Context ctx, Handler work) throws Exception {
+        if (executor == null) {
+            work.handle(ctx);
+            return;
+        }
+        CompletableFuture<Void> done;
+        try {
+            done = executor.submit(() -> work.handle(ctx));
+        } catch (RejectedExecutionException e) {
+            ctx.header("Retry-After", String.valueOf(executor.retryAfterSeconds()));
+            throw new ServiceUnavailableResponse("Server busy, retry later");
+        }
+        ctx.future(() -> done);
+    }
+
+    // Serves a cached month/day without touching the database; false if neither cache has it.
+    private boolean writeCached(Context ctx, String key, List<Fact> cachedFacts, String etag, long lastModified) {
+        CachedResponse cached;
+        if (responseCache != null) {
+            cached = responseCache.get(key);
+            if (cached == null) return false;
+        } else if (cachedFacts == null) {
+            return false;
+        } else if (etag == null) {
+            json.write(ctx, 200, cachedFacts);
+            return true;
+        } else {
+            cached = GzipJson.encode(cachedFacts);
+        }
+        if (etag != null) json.write(ctx, 200, cached, etag, lastModified);
+        else json.write(ctx, 200, cached);
+        return true;
+    }
+
+    private static void writeLine(OutputStream out, ObjectWriter writer, BulkEvent event) throws IOException {
+        out.write(writer.writeValueAsBytes(event));
+        out.write('\n');
+        out.flush();
+    }
+
     private int parseInt(String value, String name) {
         try {
             return Integer.parseInt(value);
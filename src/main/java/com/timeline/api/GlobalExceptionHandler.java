@@ -4,12 +4,20 @@ import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.timeline.api.error.ErrorResponse;
 import com.timeline.api.error.ValidationException;
+import com.timeline.config.AppConfig;
+import com.timeline.http.GzipJson;
+import com.timeline.rate.RateLimiter;
+import com.timeline.rate.RouteWeights;
 import com.timeline.repository.DataAccessException;
 import io.javalin.Javalin;
 import io.javalin.http.BadRequestResponse;
+import io.javalin.http.ConflictResponse;
 import io.javalin.http.HandlerType;
 import io.javalin.http.Context;
 import io.javalin.http.NotFoundResponse;
+import io.javalin.http.ServiceUnavailableResponse;
+import io.javalin.http.TooManyRequestsResponse;
+import io.javalin.http.UnauthorizedResponse;
 
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
@@ -18,22 +26,38 @@ import java.util.UUID;
 
 public class GlobalExceptionHandler {
     public static final String REQ_ID_ATTR = "requestId";
+    private static final String BULK_PATH = "/api/facts/bulk";
 
     public static void register(Javalin app) {
+        register(app, AppConfig.defaults());
+    }
+
+    public static void register(Javalin app, AppConfig config) {
+        register(app, config, new RateLimiter(config.rateLimit()), GzipJson.defaults());
+    }
+
+    public static void register(Javalin app, AppConfig config, RateLimiter rl, GzipJson json) {
+        RouteWeights weights = RouteWeights.parse(config.rateLimit().weights());
+        long maxBytes = config.http().requestMaxBytes();
         app.before(ctx -> {
             String reqId = ctx.header("X-Request-Id");
             if (reqId == null || reqId.isBlank()) reqId = UUID.randomUUID().toString();
             ctx.attribute(REQ_ID_ATTR, reqId);
             ctx.contentType("application/json");
-            com.timeline.rate.RateLimiter rl = Holder.RL;
-            String ip = ctx.req().getRemoteAddr();
-            if (!rl.allow(ip)) throw new io.javalin.http.HttpResponseException(429, "Too Many Requests");
-            if (ctx.method() == HandlerType.POST || ctx.method() == HandlerType.PUT) {
+            long waitMs = rl.acquire(ctx.req().getRemoteAddr(), weights.weight(ctx.path()));
+            if (waitMs > 0) {
+                ctx.header("Retry-After", String.valueOf((waitMs + 999) / 1000));
+                throw new TooManyRequestsResponse("Rate limit exceeded");
+            }
+            if (ctx.method() == HandlerType.POST && BULK_PATH.equals(ctx.path())) {
+                String ct = ctx.header("Content-Type");
+                String lower = ct == null ? "" : ct.toLowerCase();
+                if (!lower.contains("application/x-ndjson") && !lower.contains("text/csv")) throw new io.javalin.http.UnsupportedMediaTypeResponse("Content-Type must be application/x-ndjson or text/csv");
+            } else if ((ctx.method() == HandlerType.POST || ctx.method() == HandlerType.PUT) && hasBody(ctx)) {
                 String ct = ctx.header("Content-Type");
                 if (ct == null || !ct.toLowerCase().contains("application/json")) throw new io.javalin.http.UnsupportedMediaTypeResponse("Content-Type must be application/json");
                 long cl = ctx.req().getContentLengthLong();
-                long max = com.timeline.util.EnvUtil.getEnvLong("REQUEST_MAX_BYTES", 2_000_000);
-                if (cl > 0 && cl > max) throw new io.javalin.http.HttpResponseException(413, "Payload Too Large");
+                if (cl > 0 && cl > maxBytes) throw new io.javalin.http.HttpResponseException(413, "Payload Too Large");
             }
         });
         app.after(ctx -> {
@@ -42,52 +66,65 @@ public class GlobalExceptionHandler {
         });
 
         app.exception(ValidationException.class, (e, ctx) -> {
-            write(ctx, 422, "Unprocessable Entity", e.getMessage() == null ? "Validation failed" : e.getMessage(), e.getFieldErrors());
+            write(json, ctx, 422, "Unprocessable Entity", e.getMessage() == null ? "Validation failed" : e.getMessage(), e.getFieldErrors());
         });
         app.exception(BadRequestResponse.class, (e, ctx) -> {
-            write(ctx, 400, "Bad Request", e.getMessage(), null);
+            write(json, ctx, 400, "Bad Request", e.getMessage(), null);
+        });
+        app.exception(UnauthorizedResponse.class, (e, ctx) -> {
+            ctx.header("WWW-Authenticate", "Bearer");
+            write(json, ctx, 401, "Unauthorized", e.getMessage(), null, "unauthorized", null);
+        });
+        app.exception(ConflictResponse.class, (e, ctx) -> {
+            write(json, ctx, 409, "Conflict", e.getMessage(), null, "conflict", null);
         });
         app.exception(NotFoundResponse.class, (e, ctx) -> {
-            write(ctx, 404, "Not Found", e.getMessage(), null);
+            write(json, ctx, 404, "Not Found", e.getMessage(), null);
+        });
+        app.exception(TooManyRequestsResponse.class, (e, ctx) -> {
+            write(json, ctx, 429, "Too Many Requests", e.getMessage(), null, "rate_limited", null);
+        });
+        app.exception(ServiceUnavailableResponse.class, (e, ctx) -> {
+            write(json, ctx, 503, "Service Unavailable", e.getMessage(), null, "overloaded", null);
         });
         app.exception(JsonParseException.class, (e, ctx) -> {
-            write(ctx, 400, "Bad Request", "Malformed JSON", null);
+            write(json, ctx, 400, "Bad Request", "Malformed JSON", null);
         });
         app.exception(JsonMappingException.class, (e, ctx) -> {
-            write(ctx, 400, "Bad Request", "Invalid JSON structure", null);
+            write(json, ctx, 400, "Bad Request", "Invalid JSON structure", null);
         });
         app.exception(DataAccessException.class, (e, ctx) -> {
             Throwable c = e.getCause();
             if (c instanceof java.sql.SQLException && (c.getMessage() != null && c.getMessage().toLowerCase().contains("fts"))) {
-                write(ctx, 400, "Bad Request", "Invalid search query", null, "invalid_search_query", null);
+                write(json, ctx, 400, "Bad Request", "Invalid search query", null, "invalid_search_query", null);
             } else {
-                write(ctx, 503, "Service Unavailable", "Database unavailable", null, "db_unavailable", null);
+                write(json, ctx, 503, "Service Unavailable", "Database unavailable", null, "db_unavailable", null);
             }
         });
         app.exception(Exception.class, (e, ctx) -> {
             java.util.Map<String,String> det = new java.util.LinkedHashMap<>();
             det.put("exception", e.getClass().getName());
             det.put("message", e.getMessage());
-            write(ctx, 500, "Internal Server Error", "Unexpected error", det, "unexpected_error", null);
+            write(json, ctx, 500, "Internal Server Error", "Unexpected error", det, "unexpected_error", null);
         });
-        app.error(404, ctx -> write(ctx, 404, "Not Found", "Route not found", null, "not_found", null));
-        app.error(405, ctx -> write(ctx, 405, "Method Not Allowed", "Method not allowed", null, "method_not_allowed", null));
-        app.error(415, ctx -> write(ctx, 415, "Unsupported Media Type", "Content-Type must be application/json", null, "unsupported_media_type", null));
+        app.error(404, ctx -> write(json, ctx, 404, "Not Found", "Route not found", null, "not_found", null));
+        app.error(405, ctx -> write(json, ctx, 405, "Method Not Allowed", "Method not allowed", null, "method_not_allowed", null));
+        app.error(415, ctx -> write(json, ctx, 415, "Unsupported Media Type", "Content-Type must be application/json", null, "unsupported_media_type", null));
     }
 
-    private static void write(Context ctx, int status, String error, String message, Map<String, String> details) {
-        write(ctx, status, error, message, details, null, null);
+    // Body-less commands such as POST /admin/jfr/start have nothing to label, so only a request that
+    // declares a body (a positive Content-Length, or chunked) has to say it is JSON.
+    private static boolean hasBody(Context ctx) {
+        return ctx.req().getContentLengthLong() > 0 || ctx.header("Transfer-Encoding") != null;
     }
 
-    private static void write(Context ctx, int status, String error, String message, Map<String, String> details, String code, String type) {
+    private static void write(GzipJson json, Context ctx, int status, String error, String message, Map<String, String> details) {
+        write(json, ctx, status, error, message, details, null, null);
+    }
+
+    private static void write(GzipJson json, Context ctx, int status, String error, String message, Map<String, String> details, String code, String type) {
         String reqId = ctx.attribute(REQ_ID_ATTR);
         ErrorResponse body = new ErrorResponse(OffsetDateTime.now(ZoneOffset.UTC), status, error, message, ctx.path(), reqId, code, type, details);
-        com.timeline.http.GzipJson.write(ctx, status, body);
+        json.write(ctx, status, body);
     }
-
-    private static class Holder {
-        static final com.timeline.rate.RateLimiter RL = new com.timeline.rate.RateLimiter(
-                com.timeline.util.EnvUtil.getEnvInt("RATE_LIMIT_PER_MIN", 120),
-                com.timeline.util.EnvUtil.getEnvLong("RATE_LIMIT_WINDOW_MS", 60_000));
-        }
-}
\ No newline at end of file
+}
@@ -0,0 +1,17 @@
+package com.timeline.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.timeline.ingest.ImportProgress;
+
+import java.util.Map;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkEvent(String type, Long line, Long processed, Long inserted, Long failed, Map<String, String> errors) {
+    public static BulkEvent error(long line, Map<String, String> errors) {
+        return new BulkEvent("error", line, null, null, null, errors);
+    }
+
+    public static BulkEvent progress(String type, ImportProgress p) {
+        return new BulkEvent(type, null, p.processed(), p.inserted(), p.failed(), null);
+    }
+}
@@ -0,0 +1,7 @@
+package com.timeline.api.dto;
+
+import com.timeline.config.SlowQueryLog;
+
+import java.util.List;
+
+public record SlowQueryReport(long slowStatements, List<SlowQueryLog.Entry> top) {}
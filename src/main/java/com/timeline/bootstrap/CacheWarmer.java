@@ -0,0 +1,139 @@
+package com.timeline.bootstrap;
+
+import com.timeline.config.AppConfig;
+import com.timeline.config.Database;
+import com.timeline.model.Fact;
+import com.timeline.repository.CacheSnapshot;
+import com.timeline.repository.CachingFactRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Carries the hot months and days across a restart. At shutdown save() records the most used keys of
+// the month and day caches in meta and, with CACHE_SNAPSHOT set, their contents as a CacheSnapshot.
+// saveEvery() also records the keys on a timer so a crash loses at most one interval of them.
+// At start restore() maps that snapshot back in if no fact was written since, and warm() loads the
+// other recorded keys from the database; /ready answers 503 until warm() is done.
+public class CacheWarmer {
+    private static final Logger LOG = LoggerFactory.getLogger(CacheWarmer.class);
+    static final String HOT_KEYS = "cache_hot_keys";
+
+    private final Database database;
+    private final CachingFactRepository repo;
+    private final AppConfig.Warmup config;
+    private final Path snapshot;
+    private volatile boolean ready;
+    private ScheduledExecutorService saver;
+
+    public CacheWarmer(Database database, CachingFactRepository repo, AppConfig.Warmup config) {
+        this.database = database;
+        this.repo = repo;
+        this.config = config;
+        this.snapshot = config.snapshot() == null || config.snapshot().isBlank() ? null : Path.of(config.snapshot());
+        this.ready = !config.enabled();
+    }
+
+    public boolean ready() {
+        return ready;
+    }
+
+    // Call before the server takes requests: restored entries bypass the cache's invalidation.
+    public int restore() {
+        if (!config.enabled() || snapshot == null) return 0;
+        long start = System.nanoTime();
+        try {
+            Map<String, List<Fact>> entries = CacheSnapshot.read(snapshot, database.schemaVersion(), database.factsWrites());
+            int restored = 0;
+            for (Map.Entry<String, List<Fact>> e : entries.entrySet()) {
+                if (repo.restore(e.getKey(), e.getValue())) restored++;
+            }
+            LOG.info("restored {} cache entries from {} in {} ms", restored, snapshot, (System.nanoTime() - start) / 1_000_000);
+            return restored;
+        } catch (Exception e) {
+            LOG.warn("cache snapshot {} not restored: {}", snapshot, e.toString());
+            return 0;
+        }
+    }
+
+    // Loads the keys recorded at the last shutdown, hottest first, skipping any already cached.
+    public int warm() {
+        long start = System.nanoTime();
+        int loaded = 0;
+        try {
+            if (!config.enabled()) return 0;
+            String keys = database.meta(HOT_KEYS);
+            if (keys == null || keys.isEmpty()) return 0;
+            for (String key : keys.split(",")) {
+                if (repo.warm(key)) loaded++;
+            }
+            LOG.info("warmed {} cache entries in {} ms", loaded, (System.nanoTime() - start) / 1_000_000);
+            return loaded;
+        } catch (RuntimeException e) {
+            LOG.warn("cache warm-up stopped after {} entries: {}", loaded, e.toString());
+            return loaded;
+        } finally {
+            ready = true;
+        }
+    }
+
+    public void warmInBackground() {
+        Thread t = new Thread(this::warm, "cache-warmup");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    public synchronized void saveEvery() {
+        if (!config.enabled() || config.saveIntervalSeconds() <= 0 || saver != null) return;
+        saver = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "cache-save");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = config.saveIntervalSeconds();
+        saver.scheduleWithFixedDelay(this::saveKeys, interval, interval, TimeUnit.SECONDS);
+    }
+
+    public void saveKeys() {
+        if (!config.enabled()) return;
+        try {
+            storeKeys(repo.hottest(config.months(), config.days()));
+        } catch (Exception e) {
+            LOG.warn("cache hot keys not saved: {}", e.toString());
+        }
+    }
+
+    // Call at shutdown while the database is still open.
+    public void save() {
+        synchronized (this) {
+            if (saver != null) {
+                saver.shutdownNow();
+                saver = null;
+            }
+        }
+        if (!config.enabled()) return;
+        try {
+            // read before the entries: a write in between leaves the snapshot stale, never wrong
+            long writes = database.factsWrites();
+            Map<String, List<Fact>> hot = repo.hottest(config.months(), config.days());
+            storeKeys(hot);
+            if (snapshot != null) CacheSnapshot.write(snapshot, database.schemaVersion(), writes, hot);
+        } catch (Exception e) {
+            LOG.warn("cache state not saved: {}", e.toString());
+        }
+    }
+
+    private void storeKeys(Map<String, List<Fact>> hot) throws SQLException {
+        String keys = String.join(",", hot.keySet());
+        database.writer().execute(conn -> {
+            Database.putMeta(conn, HOT_KEYS, keys);
+            return null;
+        });
+    }
+}
@@ -1,28 +1,73 @@
 package com.timeline.bootstrap;
 
+import com.timeline.config.Database;
+import com.timeline.ingest.CsvFactReader;
 import com.timeline.model.Fact;
-import com.timeline.repository.FactRepository;
+import com.timeline.repository.SqliteFactRepository;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
 
+// Seeds seed/facts.csv plus the built-in facts. The SHA-256 of that content is kept in the meta table,
+// so an unchanged seed costs one read at boot; a changed one is applied as a single transaction that
+// inserts only the missing facts and stores the new hash.
 public class Seeder {
-    public static void seedIfEmpty(FactRepository repo) {
-        loadCsv(repo);
-        addIfMissing(repo, fact("2024-01-01", "First day of 2024", "New Year celebrations worldwide, kicking off 2024.", "current", "https://en.wikipedia.org/wiki/New_Year"));
-        addIfMissing(repo, fact("2004-01-04", "Spirit rover lands on Mars", "NASA's Spirit rover successfully lands on Mars in January 2004.", "history", "https://mars.nasa.gov/mer/home/"));
-        addIfMissing(repo, fact("1984-01-24", "Apple Macintosh introduced", "Apple unveils the original Macintosh.", "history", "https://en.wikipedia.org/wiki/Macintosh"));
-        addIfMissing(repo, fact("2009-01-20", "Barack Obama inaugurated", "Barack Obama becomes the 44th President of the United States.", "history", "https://en.wikipedia.org/wiki/First_inauguration_of_Barack_Obama"));
-        addIfMissing(repo, fact("2004-02-04", "Facebook launches", "Mark Zuckerberg launches Facebook from Harvard.", "history", "https://en.wikipedia.org/wiki/Facebook"));
-        addIfMissing(repo, fact("2016-02-11", "Gravitational waves detected", "LIGO announces first direct detection of gravitational waves.", "history", "https://en.wikipedia.org/wiki/Gravitational_waves#Direct_detection"));
-        addIfMissing(repo, fact("1961-04-12", "First human in space", "Yuri Gagarin orbits Earth aboard Vostok 1.", "history", "https://en.wikipedia.org/wiki/Yuri_Gagarin"));
-        addIfMissing(repo, fact("1990-04-24", "Hubble Space Telescope launched", "Hubble is deployed by Space Shuttle Discovery.", "history", "https://en.wikipedia.org/wiki/Hubble_Space_Telescope"));
-        addIfMissing(repo, fact("2007-06-29", "iPhone released", "Apple releases the first iPhone.", "history", "https://en.wikipedia.org/wiki/IPhone_(1st_generation)"));
-        addIfMissing(repo, fact("1969-07-20", "Apollo 11 moon landing", "Neil Armstrong and Buzz Aldrin land on the Moon.", "history", "https://en.wikipedia.org/wiki/Apollo_11"));
-        addIfMissing(repo, fact("1989-11-09", "Fall of the Berlin Wall", "Borders between East and West Berlin open.", "history", "https://en.wikipedia.org/wiki/Berlin_Wall#Fall"));
-        addIfMissing(repo, fact("1945-10-24", "United Nations founded", "The UN Charter comes into force.", "history", "https://en.wikipedia.org/wiki/United_Nations"));
-        addIfMissing(repo, fact("2012-07-04", "Higgs boson announced", "CERN announces observation of a new boson consistent with the Higgs.", "history", "https://en.wikipedia.org/wiki/Higgs_boson#Discovery"));
-        addIfMissing(repo, fact("1963-08-28", "I Have a Dream", "Martin Luther King Jr. delivers his historic speech in Washington, D.C.", "history", "https://en.wikipedia.org/wiki/I_Have_a_Dream"));
-        addIfMissing(repo, fact("1995-08-24", "Windows 95 released", "Microsoft releases Windows 95.", "history", "https://en.wikipedia.org/wiki/Windows_95"));
+    static final String HASH_KEY = "seed_hash";
+
+    // Run before anything reads the repository (index, caches): rows are inserted beneath them.
+    // Returns the number of facts inserted, or -1 when the stored hash matched and nothing ran.
+    public static int seed(Database database, SqliteFactRepository repo) {
+        byte[] csv = readCsv();
+        List<Fact> builtIn = builtIn();
+        String hash = hash(csv, builtIn);
+        if (hash.equals(database.meta(HASH_KEY))) return -1;
+        List<Fact> candidates = new ArrayList<>(parseCsv(csv));
+        candidates.addAll(builtIn);
+        return repo.addMissing(candidates, conn -> {
+            Database.putMeta(conn, HASH_KEY, hash);
+            return null;
+        });
+    }
+
+    static String hash(byte[] csv, List<Fact> builtIn) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(csv);
+            for (Fact f : builtIn) {
+                String row = "\n" + f.getEventDate() + '\u001f' + f.getTitle() + '\u001f' + f.getSummary() + '\u001f' + f.getCategory() + '\u001f' + f.getSourceUrl();
+                digest.update(row.getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static List<Fact> builtIn() {
+        List<Fact> candidates = new ArrayList<>();
+        candidates.add(fact("2024-01-01", "First day of 2024", "New Year celebrations worldwide, kicking off 2024.", "current", "https://en.wikipedia.org/wiki/New_Year"));
+        candidates.add(fact("2004-01-04", "Spirit rover lands on Mars", "NASA's Spirit rover successfully lands on Mars in January 2004.", "history", "https://mars.nasa.gov/mer/home/"));
+        candidates.add(fact("1984-01-24", "Apple Macintosh introduced", "Apple unveils the original Macintosh.", "history", "https://en.wikipedia.org/wiki/Macintosh"));
+        candidates.add(fact("2009-01-20", "Barack Obama inaugurated", "Barack Obama becomes the 44th President of the United States.", "history", "https://en.wikipedia.org/wiki/First_inauguration_of_Barack_Obama"));
+        candidates.add(fact("2004-02-04", "Facebook launches", "Mark Zuckerberg launches Facebook from Harvard.", "history", "https://en.wikipedia.org/wiki/Facebook"));
+        candidates.add(fact("2016-02-11", "Gravitational waves detected", "LIGO announces first direct detection of gravitational waves.", "history", "https://en.wikipedia.org/wiki/Gravitational_waves#Direct_detection"));
+        candidates.add(fact("1961-04-12", "First human in space", "Yuri Gagarin orbits Earth aboard Vostok 1.", "history", "https://en.wikipedia.org/wiki/Yuri_Gagarin"));
+        candidates.add(fact("1990-04-24", "Hubble Space Telescope launched", "Hubble is deployed by Space Shuttle Discovery.", "history", "https://en.wikipedia.org/wiki/Hubble_Space_Telescope"));
+        candidates.add(fact("2007-06-29", "iPhone released", "Apple releases the first iPhone.", "history", "https://en.wikipedia.org/wiki/IPhone_(1st_generation)"));
+        candidates.add(fact("1969-07-20", "Apollo 11 moon landing", "Neil Armstrong and Buzz Aldrin land on the Moon.", "history", "https://en.wikipedia.org/wiki/Apollo_11"));
+        candidates.add(fact("1989-11-09", "Fall of the Berlin Wall", "Borders between East and West Berlin open.", "history", "https://en.wikipedia.org/wiki/Berlin_Wall#Fall"));
+        candidates.add(fact("1945-10-24", "United Nations founded", "The UN Charter comes into force.", "history", "https://en.wikipedia.org/wiki/United_Nations"));
+        candidates.add(fact("2012-07-04", "Higgs boson announced", "CERN announces observation of a new boson consistent with the Higgs.", "history", "https://en.wikipedia.org/wiki/Higgs_boson#Discovery"));
+        candidates.add(fact("1963-08-28", "I Have a Dream", "Martin Luther King Jr. delivers his historic speech in Washington, D.C.", "history", "https://en.wikipedia.org/wiki/I_Have_a_Dream"));
+        candidates.add(fact("1995-08-24", "Windows 95 released", "Microsoft releases Windows 95.", "history", "https://en.wikipedia.org/wiki/Windows_95"));
+        return candidates;
     }
 
     private static Fact fact(String date, String title, String summary, String category, String url) {
@@ -35,51 +80,35 @@ public class Seeder {
         return f;
     }
 
-    private static void addIfMissing(FactRepository repo, Fact f) {
-        boolean exists = repo.existsByDateAndTitle(f.getEventDate(), f.getTitle());
-        if (!exists) repo.add(f);
+    private static byte[] readCsv() {
+        try (InputStream in = Thread.currentThread().getContextClassLoader().getResourceAsStream("seed/facts.csv")) {
+            return in == null ? new byte[0] : in.readAllBytes();
+        } catch (Exception e) {
+            // swallow errors to avoid startup failure
+            return new byte[0];
+        }
     }
 
-    private static void loadCsv(FactRepository repo) {
+    private static List<Fact> parseCsv(byte[] csv) {
+        List<Fact> facts = new ArrayList<>();
         try {
-            java.io.InputStream in = Thread.currentThread().getContextClassLoader().getResourceAsStream("seed/facts.csv");
-            if (in == null) return;
-            java.io.BufferedReader reader = new java.io.BufferedReader(new java.io.InputStreamReader(in));
+            java.io.BufferedReader reader = new java.io.BufferedReader(new java.io.InputStreamReader(new ByteArrayInputStream(csv), StandardCharsets.UTF_8));
             String line;
             boolean headerSkipped = false;
             while ((line = reader.readLine()) != null) {
                 if (!headerSkipped) { headerSkipped = true; continue; }
-                String[] parts = parseCsvLine(line);
+                String[] parts = CsvFactReader.parseLine(line);
                 if (parts == null || parts.length < 5) continue;
                 String date = parts[0].trim();
                 String title = parts[1].trim();
                 String summary = parts[2].trim();
                 String category = parts[3].trim();
                 String url = parts[4].trim();
-                Fact f = fact(date, title, summary, category, url);
-                addIfMissing(repo, f);
+                facts.add(fact(date, title, summary, category, url));
             }
         } catch (Exception e) {
             // swallow errors to avoid startup failure
         }
+        return facts;
     }
-
-    private static String[] parseCsvLine(String line) {
-        java.util.List<String> fields = new java.util.ArrayList<>();
-        StringBuilder sb = new StringBuilder();
-        boolean inQuotes = false;
-        for (int i = 0; i < line.length(); i++) {
-            char c = line.charAt(i);
-            if (c == '"') {
-                inQuotes = !inQuotes;
-            } else if (c == ',' && !inQuotes) {
-                fields.add(sb.toString());
-                sb.setLength(0);
-            } else {
-                sb.append(c);
-            }
-        }
-        fields.add(sb.toString());
-        return fields.toArray(new String[0]);
-    }
-}
\ No newline at end of file
+}
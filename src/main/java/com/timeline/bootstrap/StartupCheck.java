@@ -0,0 +1,51 @@
+package com.timeline.bootstrap;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+
+// With TIMELINE_EXIT_AFTER_START the app answers one request per read route and exits. The AppCDS
+// training run uses it so the archive holds the classes a served request needs, not only boot classes,
+// and StartupBenchmark uses it to time boot to first responses.
+public class StartupCheck {
+    private static final String[] PATHS = {
+            "/health",
+            "/api/facts?year=1969&month=7",
+            "/api/facts/on?date=1969-07-20",
+            "/api/facts/random?year=1969&month=7",
+            "/api/facts/search?q=moon",
+            "/api/facts/1"
+    };
+
+    public static void run(int port) {
+        long deadline = System.currentTimeMillis() + 60_000;
+        while (get("http://localhost:" + port + "/ready") != 200) {
+            if (System.currentTimeMillis() > deadline) throw new IllegalStateException("startup check: /ready did not report ready within 60 s");
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("startup check interrupted", e);
+            }
+        }
+        for (String path : PATHS) {
+            int status = get("http://localhost:" + port + path);
+            if (status >= 500) throw new IllegalStateException("startup check: " + path + " returned " + status);
+        }
+    }
+
+    private static int get(String url) {
+        try {
+            HttpURLConnection conn = (HttpURLConnection) URI.create(url).toURL().openConnection();
+            conn.setRequestProperty("Accept-Encoding", "gzip");
+            int status = conn.getResponseCode();
+            try (InputStream body = status < 400 ? conn.getInputStream() : conn.getErrorStream()) {
+                if (body != null) body.readAllBytes();
+            }
+            return status;
+        } catch (IOException e) {
+            throw new IllegalStateException("startup check: " + url + " failed", e);
+        }
+    }
+}
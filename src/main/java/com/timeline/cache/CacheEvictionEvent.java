@@ -0,0 +1,25 @@
+package com.timeline.cache;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("timeline.CacheEviction")
+@Label("Cache Eviction")
+@Category({"Timeline", "Cache"})
+@StackTrace(false)
+final class CacheEvictionEvent extends Event {
+    static final EventType TYPE = EventType.getEventType(CacheEvictionEvent.class);
+
+    @Label("Cache")
+    String cache;
+
+    @Label("Key")
+    String key;
+
+    @Label("Reason")
+    String reason;
+}
@@ -0,0 +1,12 @@
+package com.timeline.cache;
+
+public record CacheStats(long hits, long misses, long evictions, long expirations, long loads, long totalLoadNanos) {
+    public double hitRate() {
+        long total = hits + misses;
+        return total == 0 ? 1.0 : (double) hits / total;
+    }
+
+    public double averageLoadNanos() {
+        return loads == 0 ? 0.0 : (double) totalLoadNanos / loads;
+    }
+}
@@ -0,0 +1,25 @@
+package com.timeline.cache;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public final class CoarseClock {
+    public static final long RESOLUTION_MS = 10;
+    private static volatile long now = System.currentTimeMillis();
+
+    static {
+        ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "coarse-clock");
+            t.setDaemon(true);
+            return t;
+        });
+        ticker.scheduleAtFixedRate(() -> now = System.currentTimeMillis(), RESOLUTION_MS, RESOLUTION_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private CoarseClock() {}
+
+    public static long now() {
+        return now;
+    }
+}
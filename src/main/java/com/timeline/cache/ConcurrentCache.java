@@ -0,0 +1,332 @@
+package com.timeline.cache;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+public class ConcurrentCache<K, V> {
+    private static final int STRIPES = Math.min(64, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1);
+    private static final int BUFFER_SIZE = 32;
+    private static final int BUFFER_MASK = BUFFER_SIZE - 1;
+    private static final int DRAIN_THRESHOLD = BUFFER_SIZE / 2;
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final long refreshAfterMillis;
+    private final Executor refreshExecutor;
+    private final LongSupplier clock;
+    private final SingleFlight<K, V> flights = new SingleFlight<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final ConcurrentHashMap<K, Node<K, V>> data;
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final Node<K, V> lru = new Node<>(null, null, 0);
+    private final FrequencySketch sketch;
+    private final TimerWheel<K, V> wheel;
+    private final ReadBuffer[] readBuffers;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+    private String name = "cache";
+
+    public ConcurrentCache(int maxSize, long ttlMillis) {
+        this(maxSize, ttlMillis, 0, null, CoarseClock::now);
+    }
+
+    public ConcurrentCache(int maxSize, long ttlMillis, long refreshAfterMillis, Executor refreshExecutor) {
+        this(maxSize, ttlMillis, refreshAfterMillis, refreshExecutor, CoarseClock::now);
+    }
+
+    ConcurrentCache(int maxSize, long ttlMillis, LongSupplier clock) {
+        this(maxSize, ttlMillis, 0, null, clock);
+    }
+
+    ConcurrentCache(int maxSize, long ttlMillis, long refreshAfterMillis, Executor refreshExecutor, LongSupplier clock) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.refreshAfterMillis = refreshExecutor != null && ttlMillis > 0 && refreshAfterMillis > 0 && refreshAfterMillis < ttlMillis ? refreshAfterMillis : 0;
+        this.refreshExecutor = refreshExecutor;
+        this.clock = clock;
+        this.data = new ConcurrentHashMap<>(Math.max(16, maxSize * 4 / 3));
+        this.sketch = new FrequencySketch(maxSize);
+        this.wheel = ttlMillis > 0 ? new TimerWheel<>(ttlMillis) : null;
+        this.readBuffers = new ReadBuffer[STRIPES];
+        for (int i = 0; i < STRIPES; i++) readBuffers[i] = new ReadBuffer();
+        lru.prev = lru;
+        lru.next = lru;
+    }
+
+    // labels the cache in flight recordings; call before the cache is shared
+    public ConcurrentCache<K, V> named(String name) {
+        this.name = name;
+        return this;
+    }
+
+    public V get(K key) {
+        Node<K, V> n = lookup(key);
+        return n == null ? null : n.value;
+    }
+
+    // no effect on stats or recency
+    public boolean contains(K key) {
+        Node<K, V> n = data.get(key);
+        return n != null && (wheel == null || n.expiresAt > clock.getAsLong());
+    }
+
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        Node<K, V> n = lookup(key);
+        if (n != null) {
+            if (refreshAfterMillis > 0 && n.expiresAt - ttlMillis + refreshAfterMillis <= clock.getAsLong()) {
+                flights.loadAsync(key, k -> loadAndStore(k, loader), refreshExecutor);
+            }
+            return n.value;
+        }
+        return flights.load(key, k -> loadAndStore(k, loader));
+    }
+
+    private Node<K, V> lookup(K key) {
+        Node<K, V> n = data.get(key);
+        if (n == null || (wheel != null && n.expiresAt <= clock.getAsLong())) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        afterRead(n);
+        return n;
+    }
+
+    private V loadAndStore(K key, Function<? super K, ? extends V> loader) {
+        long gen = generation.get();
+        long start = System.nanoTime();
+        V v = loader.apply(key);
+        loadNanos.add(System.nanoTime() - start);
+        loads.increment();
+        if (v != null && generation.get() == gen) put(key, v);
+        return v;
+    }
+
+    public void put(K key, V value) {
+        long expiresAt = wheel != null ? clock.getAsLong() + ttlMillis : Long.MAX_VALUE;
+        Node<K, V> node = new Node<>(key, value, expiresAt);
+        Node<K, V> prev = data.put(key, node);
+        evictionLock.lock();
+        try {
+            if (prev != null) remove(prev);
+            if (data.get(key) == node) {
+                linkLast(node);
+                if (wheel != null) wheel.schedule(node);
+            }
+            sketch.increment(key);
+            maintenance();
+            evictOverflow(node);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public void invalidate(K key) {
+        generation.incrementAndGet();
+        flights.forget(key);
+        Node<K, V> n = data.remove(key);
+        if (n == null) return;
+        evictionLock.lock();
+        try {
+            remove(n);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        flights.forgetAll();
+        data.clear();
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+            Node<K, V> n = lru.next;
+            while (n != lru) {
+                Node<K, V> next = n.next;
+                if (data.get(n.key) != n) {
+                    unlink(n);
+                    if (wheel != null) wheel.deschedule(n);
+                }
+                n = next;
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public int size() {
+        return data.size();
+    }
+
+    // Up to n entries by estimated use, most used first and ties most recently used first. Reads
+    // nothing into the stats; CachingFactRepository persists these so a restart warms the same keys.
+    public List<Map.Entry<K, V>> hottest(int n) {
+        List<Map.Entry<K, V>> entries = new ArrayList<>();
+        List<Integer> frequencies = new ArrayList<>();
+        long now = clock.getAsLong();
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+            for (Node<K, V> x = lru.prev; x != lru; x = x.prev) {
+                if (data.get(x.key) != x || (wheel != null && x.expiresAt <= now)) continue;
+                entries.add(new AbstractMap.SimpleImmutableEntry<>(x.key, x.value));
+                frequencies.add(sketch.frequency(x.key));
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+        List<Integer> order = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) order.add(i);
+        order.sort(Comparator.comparingInt((Integer i) -> frequencies.get(i)).reversed());
+        List<Map.Entry<K, V>> out = new ArrayList<>(Math.min(n, order.size()));
+        for (int i = 0; i < order.size() && i < n; i++) out.add(entries.get(order.get(i)));
+        return out;
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), loads.sum(), loadNanos.sum());
+    }
+
+    private void afterRead(Node<K, V> n) {
+        ReadBuffer buffer = readBuffers[Thread.currentThread().hashCode() & (STRIPES - 1)];
+        if (buffer.offer(n) >= DRAIN_THRESHOLD && evictionLock.tryLock()) {
+            try {
+                maintenance();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void maintenance() {
+        drainReadBuffers();
+        if (wheel != null) wheel.advance(clock.getAsLong(), this::expire);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void drainReadBuffers() {
+        for (ReadBuffer buffer : readBuffers) {
+            buffer.drain(o -> {
+                Node<K, V> n = (Node<K, V>) o;
+                sketch.increment(n.key);
+                if (n.next != null) {
+                    unlink(n);
+                    linkLast(n);
+                }
+            });
+        }
+    }
+
+    private void evictOverflow(Node<K, V> candidate) {
+        while (data.size() > maxSize && lru.next != lru) {
+            Node<K, V> victim = lru.next;
+            Node<K, V> evicted = victim;
+            if (candidate != null && candidate.next != null && victim != candidate) {
+                if (sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) evicted = candidate;
+                candidate = null;
+            }
+            if (data.remove(evicted.key, evicted)) {
+                evictions.increment();
+                recordEviction(evicted.key, "size");
+            }
+            remove(evicted);
+        }
+    }
+
+    private void expire(Node<K, V> n) {
+        if (data.remove(n.key, n)) {
+            expirations.increment();
+            recordEviction(n.key, "expired");
+        }
+        unlink(n);
+    }
+
+    private void recordEviction(K key, String reason) {
+        if (!CacheEvictionEvent.TYPE.isEnabled()) return;
+        CacheEvictionEvent e = new CacheEvictionEvent();
+        e.cache = name;
+        e.key = String.valueOf(key);
+        e.reason = reason;
+        e.commit();
+    }
+
+    private void remove(Node<K, V> n) {
+        unlink(n);
+        if (wheel != null) wheel.deschedule(n);
+    }
+
+    private void linkLast(Node<K, V> n) {
+        n.prev = lru.prev;
+        n.next = lru;
+        lru.prev.next = n;
+        lru.prev = n;
+    }
+
+    private void unlink(Node<K, V> n) {
+        if (n.next == null) return;
+        n.prev.next = n.next;
+        n.next.prev = n.prev;
+        n.prev = null;
+        n.next = null;
+    }
+
+    static final class Node<K, V> {
+        final K key;
+        final V value;
+        final long expiresAt;
+        Node<K, V> prev;
+        Node<K, V> next;
+        Node<K, V> wheelPrev;
+        Node<K, V> wheelNext;
+
+        Node(K key, V value, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class ReadBuffer {
+        private final AtomicReferenceArray<Object> slots = new AtomicReferenceArray<>(BUFFER_SIZE);
+        private final AtomicLong writes = new AtomicLong();
+        private volatile long reads;
+
+        long offer(Object item) {
+            long w = writes.get();
+            long pending = w - reads;
+            if (pending >= BUFFER_SIZE) return pending;
+            if (writes.compareAndSet(w, w + 1)) slots.lazySet((int) (w & BUFFER_MASK), item);
+            return pending + 1;
+        }
+
+        void drain(Consumer<Object> consumer) {
+            long r = reads;
+            long w = writes.get();
+            for (; r < w; r++) {
+                int i = (int) (r & BUFFER_MASK);
+                Object item = slots.get(i);
+                if (item == null) break;
+                slots.lazySet(i, null);
+                consumer.accept(item);
+            }
+            reads = r;
+        }
+    }
+}
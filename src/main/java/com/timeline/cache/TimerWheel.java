@@ -0,0 +1,61 @@
+package com.timeline.cache;
+
+import java.util.function.Consumer;
+
+final class TimerWheel<K, V> {
+    private static final int BUCKETS = 64;
+    private static final int MASK = BUCKETS - 1;
+
+    private final long tickMillis;
+    private final ConcurrentCache.Node<K, V>[] buckets;
+    private long currentTick = -1;
+
+    @SuppressWarnings("unchecked")
+    TimerWheel(long ttlMillis) {
+        this.tickMillis = Math.max(CoarseClock.RESOLUTION_MS, ttlMillis / (BUCKETS / 2));
+        this.buckets = (ConcurrentCache.Node<K, V>[]) new ConcurrentCache.Node<?, ?>[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            ConcurrentCache.Node<K, V> sentinel = new ConcurrentCache.Node<>(null, null, 0);
+            sentinel.wheelPrev = sentinel;
+            sentinel.wheelNext = sentinel;
+            buckets[i] = sentinel;
+        }
+    }
+
+    void schedule(ConcurrentCache.Node<K, V> node) {
+        ConcurrentCache.Node<K, V> sentinel = buckets[(int) (node.expiresAt / tickMillis) & MASK];
+        node.wheelNext = sentinel;
+        node.wheelPrev = sentinel.wheelPrev;
+        sentinel.wheelPrev.wheelNext = node;
+        sentinel.wheelPrev = node;
+    }
+
+    void deschedule(ConcurrentCache.Node<K, V> node) {
+        if (node.wheelNext == null) return;
+        node.wheelPrev.wheelNext = node.wheelNext;
+        node.wheelNext.wheelPrev = node.wheelPrev;
+        node.wheelPrev = null;
+        node.wheelNext = null;
+    }
+
+    void advance(long now, Consumer<ConcurrentCache.Node<K, V>> onExpired) {
+        long tick = now / tickMillis;
+        long from = currentTick < 0 ? tick : Math.max(currentTick, tick - MASK);
+        for (long t = from; t <= tick; t++) {
+            expire(buckets[(int) t & MASK], now, onExpired);
+        }
+        currentTick = tick;
+    }
+
+    private void expire(ConcurrentCache.Node<K, V> sentinel, long now, Consumer<ConcurrentCache.Node<K, V>> onExpired) {
+        ConcurrentCache.Node<K, V> n = sentinel.wheelNext;
+        while (n != sentinel) {
+            ConcurrentCache.Node<K, V> next = n.wheelNext;
+            if (n.expiresAt <= now) {
+                deschedule(n);
+                onExpired.accept(n);
+            }
+            n = next;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.timeline.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+// Every environment setting, read once at startup and handed to the components that need it.
+// defaults() is the same set with nothing overridden, for tests and benchmarks.
+public record AppConfig(Server server, Db db, Http http, RateLimit rateLimit, Features features, Jfr jfr, Warmup warmup,
+                        Facts facts) {
+    // adminToken null or blank leaves the /admin routes unregistered; exitAfterStart runs StartupCheck and exits
+    public record Server(int port, ThreadMode threadMode, int jettyMaxThreads, String adminToken, boolean exitAfterStart) {}
+
+    // executorThreads 0 means "size of the read pool"
+    public record Db(String url, int poolMin, int poolMax, long connectionTimeoutMs, long idleTimeoutMs, long maxLifetimeMs,
+                     long validationTimeoutMs, long leakDetectionMs, long busyTimeoutMs, int writeQueue, int writeBatchMax,
+                     long writeTimeoutMs, int bulkChunkSize, int executorThreads, int executorQueue, int executorRetryAfterSeconds,
+                     long slowQueryMs, int slowQueryTop) {
+        public Db withUrl(String url) {
+            return new Db(url, poolMin, poolMax, connectionTimeoutMs, idleTimeoutMs, maxLifetimeMs, validationTimeoutMs,
+                    leakDetectionMs, busyTimeoutMs, writeQueue, writeBatchMax, writeTimeoutMs, bulkChunkSize, executorThreads, executorQueue, executorRetryAfterSeconds,
+                    slowQueryMs, slowQueryTop);
+        }
+    }
+
+    public record Http(long requestMaxBytes, int compressMinBytes, String compressionEncodings, int compressionLevel,
+                       int zstdLevel, int compressionPool) {}
+
+    public record RateLimit(int limitPerWindow, long windowMillis, int capacity, String weights) {}
+
+    public record Features(boolean index, boolean suggest, boolean async, boolean metrics) {}
+
+    // settings is a JDK configuration name ("default" or "profile") or a path to a .jfc file
+    public record Jfr(String dir, String settings, long maxAgeMinutes, long maxSizeMb, boolean startOnBoot) {}
+
+    // snapshot null or blank keeps no snapshot file; the hot keys are recorded either way.
+    // saveIntervalSeconds <= 0 records them only at shutdown.
+    public record Warmup(boolean enabled, int months, int days, String snapshot, long saveIntervalSeconds) {}
+
+    // limits applied to submitted facts; categories is the allowlist
+    public record Facts(int titleMax, int summaryMax, List<String> categories) {}
+
+    public static AppConfig fromEnv() {
+        return from(System::getenv);
+    }
+
+    public static AppConfig defaults() {
+        return from(name -> null);
+    }
+
+    static AppConfig from(Function<String, String> env) {
+        Env e = new Env(env);
+        int cores = Runtime.getRuntime().availableProcessors();
+        return new AppConfig(
+                new Server(
+                        e.integer("PORT", 8080),
+                        "virtual".equalsIgnoreCase(e.string("THREAD_MODE", "platform")) ? ThreadMode.VIRTUAL : ThreadMode.PLATFORM,
+                        e.integer("JETTY_MAX_THREADS", 250),
+                        e.string("ADMIN_TOKEN", null),
+                        e.flag("TIMELINE_EXIT_AFTER_START", false)),
+                new Db(
+                        e.string("DB_URL", "jdbc:sqlite:var/db/timeline.db"),
+                        e.integer("DB_POOL_MIN", 1),
+                        e.integer("DB_POOL_MAX", Math.max(2, cores)),
+                        e.longValue("DB_CONN_TIMEOUT_MS", 5000),
+                        e.longValue("DB_IDLE_TIMEOUT_MS", 300000),
+                        e.longValue("DB_MAX_LIFETIME_MS", 1800000),
+                        e.longValue("DB_VALIDATION_TIMEOUT_MS", 3000),
+                        e.longValue("DB_LEAK_DETECTION_MS", 20000),
+                        e.longValue("DB_BUSY_TIMEOUT_MS", 5000),
+                        e.integer("DB_WRITE_QUEUE", 1024),
+                        e.integer("DB_WRITE_BATCH_MAX", 256),
+                        e.longValue("DB_WRITE_TIMEOUT_MS", 30_000),
+                        Math.max(1, e.integer("BULK_CHUNK_SIZE", 1000)),
+                        e.integer("DB_EXECUTOR_THREADS", 0),
+                        e.integer("DB_EXECUTOR_QUEUE", 256),
+                        e.integer("DB_EXECUTOR_RETRY_AFTER_S", 1),
+                        e.longValue("SLOW_QUERY_MS", 100),
+                        e.integer("SLOW_QUERY_TOP", 20)),
+                new Http(
+                        e.longValue("REQUEST_MAX_BYTES", 2_000_000),
+                        e.integer("GZIP_MIN_BYTES", 1024),
+                        e.string("COMPRESSION_ENCODINGS", "br,zstd,gzip,deflate"),
+                        e.integer("COMPRESSION_LEVEL", -1),
+                        e.integer("ZSTD_LEVEL", 3),
+                        e.integer("COMPRESSION_POOL", Math.max(4, 2 * cores))),
+                new RateLimit(
+                        e.integer("RATE_LIMIT_PER_MIN", 120),
+                        e.longValue("RATE_LIMIT_WINDOW_MS", 60_000),
+                        e.integer("RATE_LIMIT_CAPACITY", 65_536),
+                        e.string("RATE_LIMIT_WEIGHTS", "/api/facts/export=5,/api/facts/bulk=10")),
+                new Features(
+                        e.flag("TIMELINE_INDEX", false),
+                        e.flag("TIMELINE_SUGGEST", true),
+                        e.flag("TIMELINE_ASYNC", false),
+                        e.flag("TIMELINE_METRICS", true)),
+                new Jfr(
+                        e.string("JFR_DIR", "var/jfr"),
+                        e.string("JFR_SETTINGS", "default"),
+                        e.longValue("JFR_MAX_AGE_MINUTES", 30),
+                        e.longValue("JFR_MAX_SIZE_MB", 250),
+                        e.flag("JFR_START", false)),
+                new Warmup(
+                        e.flag("CACHE_WARMUP", true),
+                        e.integer("CACHE_WARMUP_MONTHS", 64),
+                        e.integer("CACHE_WARMUP_DAYS", 256),
+                        e.string("CACHE_SNAPSHOT", null),
+                        e.longValue("CACHE_SAVE_INTERVAL_S", 300)),
+                new Facts(
+                        e.integer("FACT_TITLE_MAX", 200),
+                        e.integer("FACT_SUMMARY_MAX", 2000),
+                        e.list("FACT_CATEGORIES", "history,science,tech,culture,current")));
+    }
+
+    // blank counts as unset and an unparsable number falls back to the default
+    private record Env(Function<String, String> lookup) {
+        String string(String name, String def) {
+            String v = lookup.apply(name);
+            return v == null || v.isBlank() ? def : v.trim();
+        }
+
+        int integer(String name, int def) {
+            try {
+                return Integer.parseInt(string(name, String.valueOf(def)));
+            } catch (NumberFormatException ex) {
+                return def;
+            }
+        }
+
+        long longValue(String name, long def) {
+            try {
+                return Long.parseLong(string(name, String.valueOf(def)));
+            } catch (NumberFormatException ex) {
+                return def;
+            }
+        }
+
+        boolean flag(String name, boolean def) {
+            return "true".equalsIgnoreCase(string(name, String.valueOf(def)));
+        }
+
+        List<String> list(String name, String def) {
+            List<String> out = new ArrayList<>();
+            for (String part : string(name, def).split(",")) {
+                String t = part.trim();
+                if (!t.isEmpty()) out.add(t);
+            }
+            return List.copyOf(out);
+        }
+    }
+}
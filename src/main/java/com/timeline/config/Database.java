@@ -2,69 +2,258 @@ package com.timeline.config;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
 
 public class Database {
+    public static final String FACTS_WRITES = "facts_writes";
+
+    // Version 1 is the original ad hoc schema; its IF NOT EXISTS statements make it a no-op on databases created before migrations existed.
+    static final List<Migration> MIGRATIONS = List.of(
+            Migration.sql(1, "facts table, indexes and full-text search",
+                    "CREATE TABLE IF NOT EXISTS facts (" +
+                            "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                            "event_date TEXT NOT NULL," +
+                            "title TEXT NOT NULL," +
+                            "summary TEXT NOT NULL," +
+                            "category TEXT," +
+                            "source_url TEXT," +
+                            "created_at TEXT NOT NULL)",
+                    "CREATE INDEX IF NOT EXISTS idx_facts_event_date ON facts(event_date)",
+                    "CREATE INDEX IF NOT EXISTS idx_facts_category ON facts(category)",
+                    "CREATE INDEX IF NOT EXISTS idx_facts_created_at ON facts(created_at)",
+                    "CREATE INDEX IF NOT EXISTS idx_facts_title ON facts(title)",
+                    "CREATE INDEX IF NOT EXISTS idx_facts_event_date_title ON facts(event_date, title)",
+                    "CREATE VIRTUAL TABLE IF NOT EXISTS facts_fts USING fts5(title, summary, content='facts', content_rowid='id')",
+                    "CREATE TRIGGER IF NOT EXISTS facts_ai AFTER INSERT ON facts BEGIN INSERT INTO facts_fts(rowid, title, summary) VALUES (new.id, new.title, new.summary); END",
+                    "CREATE TRIGGER IF NOT EXISTS facts_au AFTER UPDATE ON facts BEGIN UPDATE facts_fts SET title=new.title, summary=new.summary WHERE rowid=new.id; END",
+                    "CREATE TRIGGER IF NOT EXISTS facts_ad AFTER DELETE ON facts BEGIN DELETE FROM facts_fts WHERE rowid=old.id; END"),
+            Migration.sql(2, "integer event_day and created_ms columns",
+                    "ALTER TABLE facts ADD COLUMN event_day INTEGER",
+                    "ALTER TABLE facts ADD COLUMN created_ms INTEGER",
+                    "UPDATE facts SET event_day = unixepoch(event_date) / 86400, created_ms = CAST(ROUND(unixepoch(created_at, 'subsec') * 1000) AS INTEGER)"),
+            Migration.sql(3, "composite indexes on integer columns",
+                    "CREATE INDEX idx_facts_day_id ON facts(event_day, id)",
+                    "CREATE INDEX idx_facts_category_day_id ON facts(category, event_day, id)",
+                    "CREATE INDEX idx_facts_created_ms_id ON facts(created_ms, id)",
+                    "CREATE INDEX idx_facts_day_title ON facts(event_day, title)",
+                    "DROP INDEX IF EXISTS idx_facts_event_date",
+                    "DROP INDEX IF EXISTS idx_facts_category",
+                    "DROP INDEX IF EXISTS idx_facts_created_at",
+                    "DROP INDEX IF EXISTS idx_facts_event_date_title",
+                    "ANALYZE"),
+            // external-content tables must be told the old row on update/delete; the v1 triggers left stale tokens behind
+            Migration.sql(4, "full-text index with 2 and 3 character prefixes",
+                    "DROP TRIGGER IF EXISTS facts_ai",
+                    "DROP TRIGGER IF EXISTS facts_au",
+                    "DROP TRIGGER IF EXISTS facts_ad",
+                    "DROP TABLE IF EXISTS facts_fts",
+                    "CREATE VIRTUAL TABLE facts_fts USING fts5(title, summary, content='facts', content_rowid='id', prefix='2 3')",
+                    "INSERT INTO facts_fts(facts_fts) VALUES('rebuild')",
+                    "CREATE TRIGGER facts_ai AFTER INSERT ON facts BEGIN INSERT INTO facts_fts(rowid, title, summary) VALUES (new.id, new.title, new.summary); END",
+                    "CREATE TRIGGER facts_au AFTER UPDATE OF title, summary ON facts BEGIN " +
+                            "INSERT INTO facts_fts(facts_fts, rowid, title, summary) VALUES ('delete', old.id, old.title, old.summary); " +
+                            "INSERT INTO facts_fts(rowid, title, summary) VALUES (new.id, new.title, new.summary); END",
+                    "CREATE TRIGGER facts_ad AFTER DELETE ON facts BEGIN INSERT INTO facts_fts(facts_fts, rowid, title, summary) VALUES ('delete', old.id, old.title, old.summary); END"),
+            Migration.sql(5, "meta key/value table",
+                    "CREATE TABLE meta (key TEXT PRIMARY KEY, value TEXT NOT NULL) WITHOUT ROWID"),
+            // counts every row written by any client, so a cache snapshot can tell whether it is still current
+            Migration.sql(6, "facts write counter",
+                    "INSERT INTO meta(key, value) VALUES ('" + FACTS_WRITES + "', '0')",
+                    "CREATE TRIGGER facts_writes_ai AFTER INSERT ON facts BEGIN UPDATE meta SET value = CAST(value AS INTEGER) + 1 WHERE key = '" + FACTS_WRITES + "'; END",
+                    "CREATE TRIGGER facts_writes_au AFTER UPDATE ON facts BEGIN UPDATE meta SET value = CAST(value AS INTEGER) + 1 WHERE key = '" + FACTS_WRITES + "'; END",
+                    "CREATE TRIGGER facts_writes_ad AFTER DELETE ON facts BEGIN UPDATE meta SET value = CAST(value AS INTEGER) + 1 WHERE key = '" + FACTS_WRITES + "'; END")
+    );
+
+    private final AppConfig.Db settings;
     private final String jdbcUrl;
-    private HikariDataSource dataSource;
+    private final ThreadMode threadMode;
+    private HikariDataSource readDataSource;
+    private HikariDataSource writeDataSource;
+    private DataSource readSource;
+    private SqliteWriter writer;
+    private final SlowQueryLog slowQueries;
 
+    // built-in pool and writer settings; App passes AppConfig.Db instead
     public Database(String jdbcUrl) {
-        this.jdbcUrl = jdbcUrl;
+        this(jdbcUrl, ThreadMode.PLATFORM);
+    }
+
+    public Database(String jdbcUrl, ThreadMode threadMode) {
+        this(AppConfig.defaults().db().withUrl(jdbcUrl), threadMode);
+    }
+
+    public Database(AppConfig.Db config, ThreadMode threadMode) {
+        this.settings = config;
+        this.jdbcUrl = config.url();
+        this.threadMode = threadMode;
+        this.slowQueries = new SlowQueryLog(config.slowQueryMs(), config.slowQueryTop());
     }
 
     public void init() {
         ensureParentDirectory();
-        HikariConfig config = new HikariConfig();
-        config.setJdbcUrl(jdbcUrl);
-        config.setMinimumIdle(com.timeline.util.EnvUtil.getEnvInt("DB_POOL_MIN", 1));
-        config.setMaximumPoolSize(com.timeline.util.EnvUtil.getEnvInt("DB_POOL_MAX", 6));
-        config.setConnectionTimeout(com.timeline.util.EnvUtil.getEnvLong("DB_CONN_TIMEOUT_MS", 5000));
-        config.setIdleTimeout(com.timeline.util.EnvUtil.getEnvLong("DB_IDLE_TIMEOUT_MS", 300000));
-        config.setMaxLifetime(com.timeline.util.EnvUtil.getEnvLong("DB_MAX_LIFETIME_MS", 1800000));
-        config.setValidationTimeout(com.timeline.util.EnvUtil.getEnvLong("DB_VALIDATION_TIMEOUT_MS", 3000));
-        long leak = com.timeline.util.EnvUtil.getEnvLong("DB_LEAK_DETECTION_MS", 20000);
-        if (leak > 0) config.setLeakDetectionThreshold(leak);
-        config.setConnectionTestQuery("SELECT 1");
-        config.setPoolName("timeline-pool");
-        dataSource = new HikariDataSource(config);
-        try (Connection conn = dataSource.getConnection(); Statement st = conn.createStatement()) {
-            boolean isMemory = jdbcUrl.contains("mode=memory") || jdbcUrl.contains(":memory:");
-            st.execute("PRAGMA busy_timeout=" + com.timeline.util.EnvUtil.getEnvLong("DB_BUSY_TIMEOUT_MS", 5000));
-            st.execute("PRAGMA foreign_keys=ON");
+        boolean isMemory = jdbcUrl.contains("mode=memory") || jdbcUrl.contains(":memory:");
+        HikariConfig write = poolConfig("timeline-write", 1, 1, isMemory);
+        if (!isMemory) write.addDataSourceProperty("synchronous", "NORMAL");
+        writeDataSource = new HikariDataSource(write);
+        try (Connection conn = writeDataSource.getConnection()) {
             if (!isMemory) {
-                try { st.execute("PRAGMA journal_mode=WAL"); } catch (SQLException ignored) {}
-                try { st.execute("PRAGMA synchronous=NORMAL"); } catch (SQLException ignored) {}
-                try { st.execute("PRAGMA cache_size=-20000"); } catch (SQLException ignored) {}
+                try (Statement st = conn.createStatement()) { st.execute("PRAGMA journal_mode=WAL"); } catch (SQLException ignored) {}
+            }
+            migrate(conn, latestVersion());
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        int readMax = settings.poolMax();
+        HikariConfig read = poolConfig("timeline-read", Math.min(readMax, settings.poolMin()), readMax, isMemory);
+        read.setConnectionInitSql("PRAGMA query_only=1");
+        // shared-cache memory databases lock at table level instead of using WAL snapshots
+        if (isMemory) read.addDataSourceProperty("read_uncommitted", "true");
+        readDataSource = new HikariDataSource(read);
+        readSource = threadMode == ThreadMode.VIRTUAL
+                ? new GatedDataSource(readDataSource, readMax, read.getConnectionTimeout())
+                : readDataSource;
+        writer = new SqliteWriter(writeDataSource, settings.writeQueue(), settings.writeBatchMax(), settings.writeTimeoutMs());
+    }
+
+    public static int latestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version();
+    }
+
+    public static void migrate(Connection conn, int target) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.executeUpdate("CREATE TABLE IF NOT EXISTS schema_migrations (version INTEGER PRIMARY KEY, description TEXT NOT NULL, applied_at TEXT NOT NULL)");
+        }
+        int current = schemaVersion(conn);
+        boolean auto = conn.getAutoCommit();
+        try {
+            for (Migration m : MIGRATIONS) {
+                if (m.version() <= current || m.version() > target) continue;
+                conn.setAutoCommit(false);
+                try {
+                    m.step().apply(conn);
+                    try (PreparedStatement ps = conn.prepareStatement("INSERT INTO schema_migrations(version, description, applied_at) VALUES(?,?,?)")) {
+                        ps.setInt(1, m.version());
+                        ps.setString(2, m.description());
+                        ps.setString(3, OffsetDateTime.now(ZoneOffset.UTC).toString());
+                        ps.executeUpdate();
+                    }
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw new SQLException("migration " + m.version() + " (" + m.description() + ") failed", e);
+                }
             }
-            st.executeUpdate("CREATE TABLE IF NOT EXISTS facts (" +
-                    "id INTEGER PRIMARY KEY AUTOINCREMENT," +
-                    "event_date TEXT NOT NULL," +
-                    "title TEXT NOT NULL," +
-                    "summary TEXT NOT NULL," +
-                    "category TEXT," +
-                    "source_url TEXT," +
-                    "created_at TEXT NOT NULL)"
-            );
-            st.executeUpdate("CREATE INDEX IF NOT EXISTS idx_facts_event_date ON facts(event_date)");
-            st.executeUpdate("CREATE INDEX IF NOT EXISTS idx_facts_category ON facts(category)");
-            st.executeUpdate("CREATE INDEX IF NOT EXISTS idx_facts_created_at ON facts(created_at)");
-            st.executeUpdate("CREATE INDEX IF NOT EXISTS idx_facts_event_date_title ON facts(event_date, title)");
-
-            st.executeUpdate("CREATE VIRTUAL TABLE IF NOT EXISTS facts_fts USING fts5(title, summary, content='facts', content_rowid='id')");
-            st.executeUpdate("CREATE TRIGGER IF NOT EXISTS facts_ai AFTER INSERT ON facts BEGIN INSERT INTO facts_fts(rowid, title, summary) VALUES (new.id, new.title, new.summary); END");
-            st.executeUpdate("CREATE TRIGGER IF NOT EXISTS facts_au AFTER UPDATE ON facts BEGIN UPDATE facts_fts SET title=new.title, summary=new.summary WHERE rowid=new.id; END");
-            st.executeUpdate("CREATE TRIGGER IF NOT EXISTS facts_ad AFTER DELETE ON facts BEGIN DELETE FROM facts_fts WHERE rowid=old.id; END");
+        } finally {
+            conn.setAutoCommit(auto);
+        }
+    }
+
+    private static int schemaVersion(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_migrations")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    public int schemaVersion() {
+        try (Connection conn = readDataSource.getConnection()) {
+            return schemaVersion(conn);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // small key/value facts about the data itself, e.g. the hash of the seed last applied
+    public String meta(String key) {
+        try (Connection conn = readDataSource.getConnection()) {
+            return meta(conn, key);
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
     }
 
+    public long factsWrites() {
+        String v = meta(FACTS_WRITES);
+        return v == null ? 0 : Long.parseLong(v);
+    }
+
+    public static String meta(Connection conn, String key) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT value FROM meta WHERE key=?")) {
+            ps.setString(1, key);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    public static void putMeta(Connection conn, String key, String value) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("INSERT INTO meta(key, value) VALUES(?,?) ON CONFLICT(key) DO UPDATE SET value=excluded.value")) {
+            ps.setString(1, key);
+            ps.setString(2, value);
+            ps.executeUpdate();
+        }
+    }
+
+    private HikariConfig poolConfig(String name, int minIdle, int maxSize, boolean isMemory) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(jdbcUrl);
+        config.setMinimumIdle(Math.max(1, minIdle));
+        config.setMaximumPoolSize(Math.max(1, maxSize));
+        config.setConnectionTimeout(settings.connectionTimeoutMs());
+        // a fixed-size pool never retires idle connections and Hikari warns if one is set
+        if (config.getMinimumIdle() < config.getMaximumPoolSize()) config.setIdleTimeout(settings.idleTimeoutMs());
+        config.setMaxLifetime(settings.maxLifetimeMs());
+        config.setValidationTimeout(settings.validationTimeoutMs());
+        long leak = settings.leakDetectionMs();
+        if (leak > 0) config.setLeakDetectionThreshold(leak);
+        config.setConnectionTestQuery("SELECT 1");
+        config.setPoolName(name);
+        config.addDataSourceProperty("busy_timeout", String.valueOf(settings.busyTimeoutMs()));
+        config.addDataSourceProperty("foreign_keys", "true");
+        if (!isMemory) config.addDataSourceProperty("cache_size", "-20000");
+        return config;
+    }
+
     public DataSource getDataSource() {
-        return dataSource;
+        return readSource;
+    }
+
+    public int readPoolSize() {
+        return readDataSource.getMaximumPoolSize();
+    }
+
+    public HikariPoolMXBean readPool() {
+        return readDataSource.getHikariPoolMXBean();
+    }
+
+    public HikariPoolMXBean writePool() {
+        return writeDataSource.getHikariPoolMXBean();
+    }
+
+    // virtual threads parked on the read gate, which Hikari's pending count does not see
+    public int gateWaiting() {
+        return readSource instanceof GatedDataSource g ? g.waiting() : 0;
+    }
+
+    public DataSource getWriteDataSource() {
+        return writeDataSource;
+    }
+
+    public SlowQueryLog slowQueries() {
+        return slowQueries;
+    }
+
+    public SqliteWriter writer() {
+        return writer;
     }
 
     private void ensureParentDirectory() {
@@ -78,7 +267,9 @@ public class Database {
     }
 
     public void close() {
-        if (dataSource != null) dataSource.close();
+        if (writer != null) writer.close();
+        if (readDataSource != null) readDataSource.close();
+        if (writeDataSource != null) writeDataSource.close();
     }
 
     
@@ -0,0 +1,20 @@
+package com.timeline.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public record Migration(int version, String description, Step step) {
+    @FunctionalInterface
+    public interface Step {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    public static Migration sql(int version, String description, String... statements) {
+        return new Migration(version, description, conn -> {
+            try (Statement st = conn.createStatement()) {
+                for (String sql : statements) st.executeUpdate(sql);
+            }
+        });
+    }
+}
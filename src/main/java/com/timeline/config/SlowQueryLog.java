@@ -0,0 +1,188 @@
+package com.timeline.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+// Statements slower than the threshold are logged with their normalized SQL, the types of their bound
+// parameters and SQLite's EXPLAIN QUERY PLAN, and kept by normalized SQL so an admin can see the worst offenders.
+// The fast path is one comparison; everything else happens only for slow statements.
+public class SlowQueryLog {
+    private static final Logger LOG = LoggerFactory.getLogger(SlowQueryLog.class);
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern STRING = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER = Pattern.compile("(?<![\\w.])-?\\d+(\\.\\d+)?(?![\\w.])");
+    private static final Pattern SPACE = Pattern.compile("\\s+");
+
+    public record Entry(String sql, String params, String plan, long count, long maxMicros, long totalMicros, long lastSeenMillis) {}
+
+    private static final class Shape {
+        final String sql;
+        String params;
+        String plan;
+        long count;
+        long maxNanos;
+        long totalNanos;
+        long lastSeenMillis;
+
+        Shape(String sql) {
+            this.sql = sql;
+        }
+    }
+
+    private final long thresholdNanos;
+    private final int top;
+    private final Map<String, Shape> shapes = new HashMap<>();
+    private final LongAdder slow = new LongAdder();
+
+    // thresholdMillis < 0 disables the log; 0 records every statement
+    public SlowQueryLog(long thresholdMillis, int top) {
+        this.thresholdNanos = thresholdMillis < 0 ? Long.MAX_VALUE : thresholdMillis * 1_000_000;
+        this.top = Math.max(1, top);
+    }
+
+    public static SlowQueryLog disabled() {
+        return new SlowQueryLog(-1, 1);
+    }
+
+    // Called by the repository after a statement finished, on the connection that ran it.
+    public void record(Connection conn, String sql, Object[] args, long nanos) {
+        if (nanos < thresholdNanos) return;
+        slow.increment();
+        String normalized = normalize(sql);
+        String params = shape(args);
+        Shape s;
+        boolean explain;
+        synchronized (shapes) {
+            s = shapes.computeIfAbsent(normalized, Shape::new);
+            explain = s.plan == null;
+            s.count++;
+            if (nanos >= s.maxNanos) {
+                s.maxNanos = nanos;
+                s.params = params;
+            }
+            s.totalNanos += nanos;
+            s.lastSeenMillis = System.currentTimeMillis();
+            trim();
+        }
+        // a plan depends on the shape, not the values, so one EXPLAIN per shape is enough
+        String plan = explain ? explain(conn, sql, args) : s.plan;
+        if (explain) {
+            synchronized (shapes) {
+                s.plan = plan;
+            }
+        }
+        LOG.warn("slow query {} ms: {} params={} plan:\n{}", nanos / 1_000_000, normalized, params, plan);
+    }
+
+    public List<Entry> top() {
+        List<Entry> out = new ArrayList<>();
+        synchronized (shapes) {
+            for (Shape s : shapes.values()) {
+                out.add(new Entry(s.sql, s.params, s.plan, s.count, s.maxNanos / 1000, s.totalNanos / 1000, s.lastSeenMillis));
+            }
+        }
+        out.sort(Comparator.comparingLong(Entry::maxMicros).reversed());
+        return out.size() > top ? new ArrayList<>(out.subList(0, top)) : out;
+    }
+
+    public long slowStatements() {
+        return slow.sum();
+    }
+
+    public void clear() {
+        synchronized (shapes) {
+            shapes.clear();
+        }
+    }
+
+    // keeps twice the reported size so a shape can climb back into the top before it is dropped
+    private void trim() {
+        if (shapes.size() <= 2 * top) return;
+        String victim = null;
+        long min = Long.MAX_VALUE;
+        for (Map.Entry<String, Shape> e : shapes.entrySet()) {
+            if (e.getValue().maxNanos < min) {
+                min = e.getValue().maxNanos;
+                victim = e.getKey();
+            }
+        }
+        shapes.remove(victim);
+    }
+
+    static String normalize(String sql) {
+        String s = IN_LIST.matcher(sql).replaceAll("(?…)");
+        s = STRING.matcher(s).replaceAll("?");
+        s = NUMBER.matcher(s).replaceAll("?");
+        return SPACE.matcher(s.trim()).replaceAll(" ");
+    }
+
+    // e.g. [text, int*2, null]; the SQL is the shape key, this records what the slowest instance bound
+    static String shape(Object[] args) {
+        if (args == null || args.length == 0) return "[]";
+        StringBuilder sb = new StringBuilder("[");
+        String prev = null;
+        int run = 0;
+        for (Object a : args) {
+            String t = type(a);
+            if (t.equals(prev)) {
+                run++;
+                continue;
+            }
+            if (prev != null) append(sb, prev, run);
+            prev = t;
+            run = 1;
+        }
+        append(sb, prev, run);
+        return sb.append(']').toString();
+    }
+
+    private static void append(StringBuilder sb, String type, int run) {
+        if (sb.length() > 1) sb.append(", ");
+        sb.append(type);
+        if (run > 1) sb.append('*').append(run);
+    }
+
+    private static String type(Object a) {
+        if (a == null) return "null";
+        if (a instanceof Long || a instanceof Integer || a instanceof Short || a instanceof Byte) return "int";
+        if (a instanceof Double || a instanceof Float) return "real";
+        if (a instanceof String) return "text";
+        if (a instanceof byte[]) return "blob";
+        return a.getClass().getSimpleName();
+    }
+
+    private static String explain(Connection conn, String sql, Object[] args) {
+        // a fresh statement so the cached one (and any open result set on it) is left alone
+        try (PreparedStatement ps = conn.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+            if (args != null) {
+                for (int i = 0; i < args.length; i++) ps.setObject(i + 1, args[i]);
+            }
+            Map<Integer, Integer> depth = new LinkedHashMap<>();
+            StringBuilder sb = new StringBuilder();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    int d = depth.getOrDefault(rs.getInt(2), -1) + 1;
+                    depth.put(rs.getInt(1), d);
+                    if (sb.length() > 0) sb.append('\n');
+                    sb.append("  ".repeat(d)).append(rs.getString(4));
+                }
+            }
+            return sb.toString();
+        } catch (SQLException e) {
+            return "unavailable: " + e.getMessage();
+        }
+    }
+}
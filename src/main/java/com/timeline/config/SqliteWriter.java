@@ -0,0 +1,201 @@
+package com.timeline.config;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class SqliteWriter implements AutoCloseable {
+    @FunctionalInterface
+    public interface Task<T> {
+        T apply(Connection conn) throws SQLException;
+    }
+
+    private final DataSource dataSource;
+    private final int maxBatch;
+    private final long timeoutMs;
+    private final BlockingQueue<Pending<?>> queue;
+    private final Thread thread;
+    // submitters enqueue under the read lock and close() flips running under the write lock,
+    // so nothing is queued after the loop has seen running == false
+    private final ReadWriteLock state = new ReentrantReadWriteLock();
+    private volatile boolean running = true;
+
+    public SqliteWriter(DataSource dataSource, int queueCapacity, int maxBatch, long timeoutMs) {
+        this.dataSource = dataSource;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.timeoutMs = Math.max(1, timeoutMs);
+        this.queue = new LinkedBlockingQueue<>(Math.max(1, queueCapacity));
+        this.thread = new Thread(this::loop, "sqlite-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    public <T> CompletableFuture<T> submit(Task<T> task) {
+        return enqueue(new Pending<>(task)).future;
+    }
+
+    private <T> Pending<T> enqueue(Pending<T> p) {
+        if (Thread.currentThread() == thread) {
+            throw new IllegalStateException("nested write tasks must use the connection they were given");
+        }
+        state.readLock().lock();
+        try {
+            if (!running) throw new RejectedExecutionException("writer closed");
+            if (!queue.offer(p, timeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new RejectedExecutionException("write queue full for " + timeoutMs + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("interrupted while queueing write", e);
+        } finally {
+            state.readLock().unlock();
+        }
+        return p;
+    }
+
+    // Waits up to the timeout for the task to start; a task that has not started by then is skipped.
+    // One already running is waited for, since busy_timeout bounds its statements.
+    public <T> T execute(Task<T> task) throws SQLException {
+        Pending<T> p = enqueue(new Pending<>(task));
+        CompletableFuture<T> future = p.future;
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException | InterruptedException e) {
+                    if (e instanceof InterruptedException) interrupted = true;
+                    if (p.claim()) {
+                        SQLException failure = e instanceof TimeoutException
+                                ? new SQLTimeoutException("write not started within " + timeoutMs + " ms")
+                                : new SQLException("interrupted while waiting for write", e);
+                        future.completeExceptionally(failure);
+                        throw failure;
+                    }
+                    if (!thread.isAlive() && !future.isDone()) throw new SQLException("writer stopped");
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof SQLException se) throw se;
+                    if (cause instanceof RuntimeException re) throw re;
+                    if (cause instanceof Error err) throw err;
+                    throw new SQLException(cause);
+                }
+            }
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    private void loop() {
+        List<Pending<?>> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                // polled so a close() whose interrupt a task swallowed is still noticed
+                Pending<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+            } catch (InterruptedException e) {
+                continue;
+            }
+            run(batch);
+            batch.clear();
+        }
+        failQueued();
+    }
+
+    private void run(List<Pending<?>> batch) {
+        try (Connection conn = dataSource.getConnection()) {
+            boolean auto = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (Statement st = conn.createStatement()) {
+                for (Pending<?> p : batch) {
+                    if (!p.claim()) continue;
+                    st.execute("SAVEPOINT task");
+                    try {
+                        p.run(conn);
+                        st.execute("RELEASE task");
+                    } catch (Throwable e) {
+                        st.execute("ROLLBACK TO task");
+                        st.execute("RELEASE task");
+                        p.error = e;
+                    }
+                }
+                conn.commit();
+            } catch (Throwable e) {
+                try { conn.rollback(); } catch (SQLException ignored) {}
+                for (Pending<?> p : batch) p.future.completeExceptionally(e);
+                return;
+            } finally {
+                conn.setAutoCommit(auto);
+            }
+        } catch (Throwable e) {
+            for (Pending<?> p : batch) {
+                if (!p.future.isDone()) p.future.completeExceptionally(e);
+            }
+            return;
+        }
+        for (Pending<?> p : batch) p.complete();
+    }
+
+    @Override
+    public void close() {
+        state.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            state.writeLock().unlock();
+        }
+        thread.interrupt();
+        try {
+            thread.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!thread.isAlive()) failQueued();
+    }
+
+    private void failQueued() {
+        for (Pending<?> p; (p = queue.poll()) != null; ) p.future.completeExceptionally(new RejectedExecutionException("writer closed"));
+    }
+
+    private static final class Pending<T> {
+        final Task<T> task;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        // taken by the writer before running the task, or by execute() to give up on it
+        final AtomicBoolean claimed = new AtomicBoolean();
+        T result;
+        Throwable error;
+
+        Pending(Task<T> task) {
+            this.task = task;
+        }
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        void run(Connection conn) throws SQLException {
+            result = task.apply(conn);
+        }
+
+        void complete() {
+            if (error != null) future.completeExceptionally(error);
+            else future.complete(result);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.timeline.config;
+
+public enum ThreadMode {
+    PLATFORM,
+    VIRTUAL
+}
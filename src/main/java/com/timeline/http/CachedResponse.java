@@ -0,0 +1,42 @@
+package com.timeline.http;
+
+import com.timeline.http.compress.ContentEncoder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+
+// A serialized body plus its compressed forms, each produced on first request and then reused for
+// as long as the entry lives.
+public final class CachedResponse {
+    private final byte[] raw;
+    private final String etag;
+    private final ConcurrentHashMap<String, byte[]> encoded = new ConcurrentHashMap<>(4);
+
+    public CachedResponse(byte[] raw, String etag) {
+        this.raw = raw;
+        this.etag = etag;
+    }
+
+    public byte[] raw() {
+        return raw;
+    }
+
+    public String etag() {
+        return etag;
+    }
+
+    public byte[] encoded(ContentEncoder encoder) {
+        return encoded.computeIfAbsent(encoder.name(), n -> {
+            try {
+                return encoder.encode(raw);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    public String etag(ContentEncoder encoder) {
+        return etag.substring(0, etag.length() - 1) + "-" + encoder.name() + "\"";
+    }
+}
@@ -0,0 +1,58 @@
+package com.timeline.http;
+
+import io.javalin.http.Context;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+public class Conditional {
+    // Sets the validators and, when the request's If-None-Match / If-Modified-Since matches them, status 304.
+    public static boolean notModified(Context ctx, String etag, long lastModifiedMillis) {
+        validators(ctx, etag, lastModifiedMillis);
+        String inm = ctx.header("If-None-Match");
+        boolean match;
+        if (inm != null) {
+            match = etag != null && etagMatches(inm, etag);
+        } else {
+            match = lastModifiedMillis > 0 && notModifiedSince(ctx.header("If-Modified-Since"), lastModifiedMillis);
+        }
+        if (match) ctx.status(304);
+        return match;
+    }
+
+    // Only the response headers, for a body whose preconditions were already evaluated.
+    public static void validators(Context ctx, String etag, long lastModifiedMillis) {
+        ctx.header("Vary", "Accept-Encoding");
+        if (etag != null) ctx.header("ETag", etag);
+        if (lastModifiedMillis > 0) ctx.header("Last-Modified", formatDate(lastModifiedMillis));
+    }
+
+    public static boolean etagMatches(String ifNoneMatch, String etag) {
+        String target = opaque(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String c = candidate.trim();
+            if (c.equals("*") || opaque(c).equals(target)) return true;
+        }
+        return false;
+    }
+
+    private static boolean notModifiedSince(String header, long lastModifiedMillis) {
+        if (header == null || header.isBlank()) return false;
+        try {
+            long since = ZonedDateTime.parse(header.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            return lastModifiedMillis <= since;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static String opaque(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static String formatDate(long millis) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(millis).atZone(ZoneOffset.UTC));
+    }
+}
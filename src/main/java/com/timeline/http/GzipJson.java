@@ -1,40 +1,233 @@
 package com.timeline.http;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.timeline.http.compress.Compression;
+import com.timeline.http.compress.ContentEncoder;
 import io.javalin.http.Context;
+import org.eclipse.jetty.server.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
-import java.util.Locale;
-import java.util.zip.GZIPOutputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
+// JSON responses compressed with whatever coding Compression negotiates; the name predates deflate and zstd.
+// App builds one from the configured Compression and hands it to the controllers.
 public class GzipJson {
-    private static final ObjectMapper OM;
-    static {
-        OM = new ObjectMapper();
-        OM.registerModule(new JavaTimeModule());
-        OM.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private static final Logger LOG = LoggerFactory.getLogger(GzipJson.class);
+
+    private static final class Holder {
+        static final GzipJson DEFAULT = new GzipJson(Compression.defaults());
+    }
+
+    private final Compression compression;
+    // per coding: {bodies, bytes before, bytes after}; streamed responses are not counted
+    private final ConcurrentHashMap<String, LongAdder[]> savings = new ConcurrentHashMap<>();
+
+    public GzipJson(Compression compression) {
+        this.compression = compression;
+    }
+
+    // built-in compression settings, for components constructed without an AppConfig
+    public static GzipJson defaults() {
+        return Holder.DEFAULT;
+    }
+
+    public ObjectMapper mapper() {
+        return Json.mapper();
     }
 
-    public static void write(Context ctx, int status, Object body) {
+    public Compression compression() {
+        return compression;
+    }
+
+    public static CachedResponse encode(Object body) {
         try {
-            byte[] data = OM.writeValueAsBytes(body);
-            String ae = ctx.header("Accept-Encoding");
-            boolean gzip = ae != null && ae.toLowerCase(Locale.ROOT).contains("gzip");
-            int min = com.timeline.util.EnvUtil.getEnvInt("GZIP_MIN_BYTES", 1024);
-            if (!gzip || data.length < min) {
-                ctx.status(status).json(body);
-                return;
+            byte[] raw = Json.bytes(body);
+            return new CachedResponse(raw, etag(raw));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void write(Context ctx, int status, CachedResponse cached) {
+        ContentEncoder encoder = negotiate(ctx, cached.raw().length);
+        if (Conditional.notModified(ctx, encoder != null ? cached.etag(encoder) : cached.etag(), 0)) return;
+        writeBody(ctx, status, cached, encoder);
+    }
+
+    public void write(Context ctx, int status, CachedResponse cached, String etag, long lastModifiedMillis) {
+        ContentEncoder encoder = negotiate(ctx, cached.raw().length);
+        Conditional.validators(ctx, etag, lastModifiedMillis);
+        writeBody(ctx, status, cached, encoder);
+    }
+
+    private ContentEncoder negotiate(Context ctx, int length) {
+        ctx.header("Vary", "Accept-Encoding");
+        return length >= compression.minBytes() ? compression.negotiate(ctx.header("Accept-Encoding")) : null;
+    }
+
+    private void writeBody(Context ctx, int status, CachedResponse cached, ContentEncoder encoder) {
+        ctx.contentType("application/json");
+        ctx.status(status);
+        if (encoder == null) {
+            ctx.result(cached.raw());
+            return;
+        }
+        ctx.header("Content-Encoding", encoder.name());
+        try {
+            byte[] encoded = cached.encoded(encoder);
+            count(encoder, cached.raw().length, encoded.length);
+            OutputStream os = ctx.res().getOutputStream();
+            os.write(encoded);
+            os.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // A failure before anything is sent resets the response and rethrows, so the error handler answers. Once
+    // the response is committed the error handler would append its body to a half-written (possibly
+    // compressed) array, so the connection is aborted instead and the client sees a truncated transfer.
+    // Either way the encoder is closed into a detached sink, which returns its pooled or native state.
+    public <T> void streamArray(Context ctx, int status, Class<T> type, RowSource<T> rows) {
+        ContentEncoder encoder = compression.negotiate(ctx.header("Accept-Encoding"));
+        ctx.contentType("application/json");
+        ctx.header("Vary", "Accept-Encoding");
+        if (encoder != null) ctx.header("Content-Encoding", encoder.name());
+        ctx.status(status);
+        ObjectWriter writer = Json.writerFor(type).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        Detachable sink = null;
+        OutputStream body = null;
+        JsonGenerator gen = null;
+        try {
+            sink = new Detachable(ctx.res().getOutputStream());
+            body = encoder != null ? encoder.open(sink) : sink;
+            gen = Json.mapper().createGenerator(body);
+            JsonGenerator out = gen;
+            out.writeStartArray();
+            rows.forEach(row -> {
+                try {
+                    writer.writeValue(out, row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.writeEndArray();
+            out.close();
+        } catch (IOException | RuntimeException e) {
+            if (sink != null) sink.detach();
+            closeQuietly(gen);
+            closeQuietly(body);
+            if (!ctx.res().isCommitted()) {
+                ctx.res().reset();
+                throw e instanceof IOException io ? new UncheckedIOException(io) : (RuntimeException) e;
             }
-            ctx.header("Content-Encoding", "gzip");
-            ctx.header("Vary", "Accept-Encoding");
+            LOG.warn("aborted {} after the response was committed: {}", ctx.path(), e.toString());
+            if (ctx.res() instanceof Response r) r.getHttpChannel().abort(e);
+        }
+    }
+
+    private static void closeQuietly(Closeable c) {
+        if (c == null) return;
+        try {
+            c.close();
+        } catch (IOException | RuntimeException ignored) {
+            // only releasing resources; the failure that got us here is the one reported
+        }
+    }
+
+    // Passes writes through until detached, then drops them, so closing an encoder after a failure
+    // frees its state without sending a trailer for a body that was never completed.
+    private static final class Detachable extends FilterOutputStream {
+        private boolean detached;
+
+        Detachable(OutputStream out) {
+            super(out);
+        }
+
+        void detach() {
+            detached = true;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (!detached) out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (!detached) out.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (!detached) out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!detached) out.close();
+        }
+    }
+
+    private void count(ContentEncoder encoder, int raw, int encoded) {
+        LongAdder[] c = savings.get(encoder.name());
+        if (c == null) c = savings.computeIfAbsent(encoder.name(), k -> new LongAdder[]{new LongAdder(), new LongAdder(), new LongAdder()});
+        c[0].increment();
+        c[1].add(raw);
+        c[2].add(encoded);
+    }
+
+    public long compressedBodies(String coding) {
+        LongAdder[] c = savings.get(coding);
+        return c == null ? 0 : c[0].sum();
+    }
+
+    public long bytesBeforeCompression(String coding) {
+        LongAdder[] c = savings.get(coding);
+        return c == null ? 0 : c[1].sum();
+    }
+
+    public long bytesAfterCompression(String coding) {
+        LongAdder[] c = savings.get(coding);
+        return c == null ? 0 : c[2].sum();
+    }
+
+    private static String etag(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public void write(Context ctx, int status, Object body) {
+        try {
+            byte[] data = Json.bytes(body);
+            ContentEncoder encoder = negotiate(ctx, data.length);
             ctx.contentType("application/json");
             ctx.status(status);
-            OutputStream os = ctx.res().getOutputStream();
-            try (GZIPOutputStream gos = new GZIPOutputStream(os)) {
-                gos.write(data);
+            if (encoder == null) {
+                ctx.result(data);
+                return;
             }
+            byte[] encoded = encoder.encode(data);
+            count(encoder, data.length, encoded.length);
+            ctx.header("Content-Encoding", encoder.name());
+            ctx.result(encoded);
         } catch (Exception e) {
             ctx.status(status).json(body);
         }
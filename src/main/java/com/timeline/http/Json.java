@@ -0,0 +1,66 @@
+package com.timeline.http;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.timeline.model.Fact;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+// The single ObjectMapper shared by Javalin, GzipJson and the bulk reader. Blackbird replaces reflective
+// getters with generated lambdas, and the writers for Fact and List<Fact> are resolved and run once at
+// class load so the first request does not pay for serializer construction.
+public final class Json {
+    private static final ObjectMapper MAPPER = create();
+    private static final ObjectWriter FACT = MAPPER.writerFor(Fact.class);
+    private static final ObjectWriter FACTS = MAPPER.writerFor(new TypeReference<List<Fact>>() {});
+
+    static {
+        Fact sample = new Fact();
+        sample.setId(1L);
+        sample.setEventDate(LocalDate.of(2000, 1, 1));
+        sample.setTitle("t");
+        sample.setSummary("s");
+        sample.setCategory("history");
+        sample.setSourceUrl("https://example.org");
+        sample.setCreatedAt(OffsetDateTime.of(2000, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC));
+        sample.setSnippet("s");
+        try {
+            FACT.writeValueAsBytes(sample);
+            FACTS.writeValueAsBytes(List.of(sample));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Json() {}
+
+    public static ObjectMapper create() {
+        ObjectMapper om = new ObjectMapper();
+        om.registerModule(new JavaTimeModule());
+        om.registerModule(new BlackbirdModule());
+        om.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return om;
+    }
+
+    public static ObjectMapper mapper() {
+        return MAPPER;
+    }
+
+    public static ObjectWriter writerFor(Class<?> type) {
+        return type == Fact.class ? FACT : MAPPER.writerFor(type);
+    }
+
+    public static byte[] bytes(Object body) throws JsonProcessingException {
+        if (body instanceof Fact) return FACT.writeValueAsBytes(body);
+        if (body instanceof List<?> list && (list.isEmpty() || list.get(0) instanceof Fact)) return FACTS.writeValueAsBytes(body);
+        return MAPPER.writeValueAsBytes(body);
+    }
+}
@@ -0,0 +1,113 @@
+package com.timeline.http;
+
+import com.timeline.cache.CacheStats;
+import com.timeline.cache.ConcurrentCache;
+import com.timeline.model.Fact;
+import com.timeline.repository.FactChangeListener;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+// Tags are versioned instead of mapped to keys: invalidating a tag bumps the version of its stripe, and
+// an entry is served only while every stripe it was loaded under is unchanged. Versions are read before
+// the loader runs, so a write that lands during a load makes that entry stale rather than untagged, and
+// nothing besides the size-bounded cache grows with the number of dates requested. Two tags sharing a
+// stripe only cost an extra reload.
+public class ResponseCache implements FactChangeListener {
+    private static final int TAG_STRIPES = 4096;
+
+    private final ConcurrentCache<String, Tagged> entries;
+    private final AtomicLongArray tagVersions = new AtomicLongArray(TAG_STRIPES);
+
+    private record Tagged(CachedResponse response, int[] stripes, long[] versions) {}
+
+    public ResponseCache(int maxSize, long ttlMillis) {
+        this.entries = new ConcurrentCache<String, Tagged>(maxSize, ttlMillis).named("response");
+    }
+
+    public static String key(String route, Map<String, ?> params) {
+        StringBuilder sb = new StringBuilder(route);
+        char sep = '?';
+        for (Map.Entry<String, ?> e : new TreeMap<>(params).entrySet()) {
+            sb.append(sep).append(e.getKey()).append('=').append(e.getValue());
+            sep = '&';
+        }
+        return sb.toString();
+    }
+
+    public static String monthTag(YearMonth ym) {
+        return "m:" + ym;
+    }
+
+    public static String dayTag(LocalDate date) {
+        return "d:" + date;
+    }
+
+    public CachedResponse get(String key) {
+        Tagged hit = entries.get(key);
+        return hit != null && current(hit) ? hit.response() : null;
+    }
+
+    public CachedResponse get(String key, Supplier<CachedResponse> loader, String... tags) {
+        Tagged hit = entries.get(key);
+        if (hit != null) {
+            if (current(hit)) return hit.response();
+            entries.invalidate(key);
+        }
+        return entries.get(key, k -> load(loader, tags)).response();
+    }
+
+    public void invalidateTag(String tag) {
+        tagVersions.incrementAndGet(stripe(tag));
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public CacheStats stats() {
+        return entries.stats();
+    }
+
+    @Override
+    public void onChange(Fact before, Fact after) {
+        if ((before == null || before.getEventDate() == null) && (after == null || after.getEventDate() == null)) {
+            clear();
+            return;
+        }
+        if (before != null) invalidateFor(before.getEventDate());
+        if (after != null) invalidateFor(after.getEventDate());
+    }
+
+    private Tagged load(Supplier<CachedResponse> loader, String[] tags) {
+        int[] stripes = new int[tags.length];
+        long[] versions = new long[tags.length];
+        for (int i = 0; i < tags.length; i++) {
+            stripes[i] = stripe(tags[i]);
+            versions[i] = tagVersions.get(stripes[i]);
+        }
+        return new Tagged(loader.get(), stripes, versions);
+    }
+
+    private boolean current(Tagged t) {
+        for (int i = 0; i < t.stripes().length; i++) {
+            if (tagVersions.get(t.stripes()[i]) != t.versions()[i]) return false;
+        }
+        return true;
+    }
+
+    private static int stripe(String tag) {
+        int h = tag.hashCode();
+        return (h ^ (h >>> 16)) & (TAG_STRIPES - 1);
+    }
+
+    private void invalidateFor(LocalDate date) {
+        if (date == null) return;
+        invalidateTag(dayTag(date));
+        invalidateTag(monthTag(YearMonth.from(date)));
+    }
+}
@@ -0,0 +1,8 @@
+package com.timeline.http;
+
+import java.util.function.Consumer;
+
+@FunctionalInterface
+public interface RowSource<T> {
+    void forEach(Consumer<T> sink);
+}
@@ -0,0 +1,22 @@
+package com.timeline.http;
+
+import com.timeline.config.ThreadMode;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+import java.util.concurrent.Executors;
+
+public final class ServerThreads {
+    private ServerThreads() {}
+
+    // Acceptors and selectors always stay on the platform pool; in VIRTUAL mode Jetty hands each
+    // request it would block on (the Javalin handler) to a new virtual thread instead.
+    public static ThreadPool create(ThreadMode mode, int maxPlatformThreads) {
+        QueuedThreadPool pool = new QueuedThreadPool(maxPlatformThreads, Math.min(8, maxPlatformThreads), 60_000);
+        pool.setName("JettyServerThreadPool");
+        if (mode == ThreadMode.VIRTUAL) {
+            pool.setVirtualThreadsExecutor(Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("jetty-virtual-", 0).factory()));
+        }
+        return pool;
+    }
+}
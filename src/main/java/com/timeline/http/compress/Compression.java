@@ -0,0 +1,107 @@
+package com.timeline.http.compress;
+
+import com.timeline.config.AppConfig;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+// Accept-Encoding negotiation over the available encoders. Among codings with the highest q-value the
+// server's preference order wins; q=0 excludes a coding and "*" stands for any coding not listed.
+public final class Compression {
+    private static final class Holder {
+        static final Compression DEFAULT = from(AppConfig.defaults().http());
+    }
+
+    private final ContentEncoder[] encoders;
+    private final int minBytes;
+
+    public Compression(List<ContentEncoder> byPreference, int minBytes) {
+        this.encoders = byPreference.toArray(new ContentEncoder[0]);
+        this.minBytes = minBytes;
+    }
+
+    // the built-in settings, ignoring the environment
+    public static Compression defaults() {
+        return Holder.DEFAULT;
+    }
+
+    public static Compression from(AppConfig.Http config) {
+        int pool = config.compressionPool();
+        Map<String, ContentEncoder> available = new LinkedHashMap<>();
+        for (ContentEncoder e : ServiceLoader.load(ContentEncoder.class)) available.put(e.name(), e);
+        if (ZstdEncoder.available()) available.putIfAbsent("zstd", new ZstdEncoder(config.zstdLevel(), pool));
+        available.putIfAbsent("gzip", DeflateEncoder.gzip(config.compressionLevel(), pool));
+        available.putIfAbsent("deflate", DeflateEncoder.deflate(config.compressionLevel(), pool));
+        List<ContentEncoder> ordered = new ArrayList<>();
+        for (String name : config.compressionEncodings().split(",")) {
+            ContentEncoder e = available.get(name.trim().toLowerCase(Locale.ROOT));
+            if (e != null && !ordered.contains(e)) ordered.add(e);
+        }
+        return new Compression(ordered, config.compressMinBytes());
+    }
+
+    public int minBytes() {
+        return minBytes;
+    }
+
+    public List<ContentEncoder> encoders() {
+        return List.of(encoders);
+    }
+
+    // null means identity
+    public ContentEncoder negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank() || encoders.length == 0) return null;
+        double[] q = new double[encoders.length];
+        boolean[] listed = new boolean[encoders.length];
+        double wildcard = -1;
+        int pos = 0, len = acceptEncoding.length();
+        while (pos < len) {
+            int end = acceptEncoding.indexOf(',', pos);
+            if (end < 0) end = len;
+            int semi = acceptEncoding.indexOf(';', pos);
+            int nameEnd = semi >= 0 && semi < end ? semi : end;
+            String coding = acceptEncoding.substring(pos, nameEnd).trim();
+            double weight = nameEnd < end ? qValue(acceptEncoding, nameEnd + 1, end) : 1.0;
+            if (coding.equals("*")) {
+                wildcard = weight;
+            } else {
+                for (int i = 0; i < encoders.length; i++) {
+                    if (encoders[i].name().equalsIgnoreCase(coding)) {
+                        q[i] = weight;
+                        listed[i] = true;
+                    }
+                }
+            }
+            pos = end + 1;
+        }
+        ContentEncoder best = null;
+        double bestQ = 0;
+        for (int i = 0; i < encoders.length; i++) {
+            double w = listed[i] ? q[i] : Math.max(0, wildcard);
+            if (w > bestQ) {
+                best = encoders[i];
+                bestQ = w;
+            }
+        }
+        return best;
+    }
+
+    // parses "q=0.5" among the parameters in [from, to); malformed values count as 1
+    private static double qValue(String s, int from, int to) {
+        for (String param : s.substring(from, to).split(";")) {
+            String p = param.trim();
+            if (p.length() > 2 && (p.charAt(0) == 'q' || p.charAt(0) == 'Q') && p.charAt(1) == '=') {
+                try {
+                    return Math.max(0, Math.min(1, Double.parseDouble(p.substring(2))));
+                } catch (NumberFormatException e) {
+                    return 1.0;
+                }
+            }
+        }
+        return 1.0;
+    }
+}
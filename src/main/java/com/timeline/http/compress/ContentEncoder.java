@@ -0,0 +1,16 @@
+package com.timeline.http.compress;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+// One Content-Encoding. Built-ins are gzip, deflate and (where zstd-jni's native library loads) zstd; others,
+// e.g. br, can be added by listing an implementation in META-INF/services/com.timeline.http.compress.ContentEncoder.
+public interface ContentEncoder {
+    // the Content-Encoding token, lower case
+    String name();
+
+    byte[] encode(byte[] raw) throws IOException;
+
+    // Closing the returned stream finishes the encoding, closes out and releases any pooled state.
+    OutputStream open(OutputStream out) throws IOException;
+}
@@ -0,0 +1,130 @@
+package com.timeline.http.compress;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+// gzip (RFC 1952) and deflate (zlib, RFC 1950) on pooled Deflaters. gzip framing is written here because
+// GZIPOutputStream always allocates its own Deflater.
+final class DeflateEncoder implements ContentEncoder {
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final int BUFFER = 8192;
+
+    private final String name;
+    private final boolean gzip;
+    private final DeflaterPool pool;
+
+    private DeflateEncoder(String name, boolean gzip, int level, int poolSize) {
+        this.name = name;
+        this.gzip = gzip;
+        this.pool = new DeflaterPool(level, gzip, poolSize);
+    }
+
+    static DeflateEncoder gzip(int level, int poolSize) {
+        return new DeflateEncoder("gzip", true, level, poolSize);
+    }
+
+    static DeflateEncoder deflate(int level, int poolSize) {
+        return new DeflateEncoder("deflate", false, level, poolSize);
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    // one-shot: deflates straight into a growing array, no stream buffers
+    @Override
+    public byte[] encode(byte[] raw) {
+        Deflater d = pool.borrow();
+        try {
+            d.setInput(raw);
+            d.finish();
+            byte[] buf = new byte[raw.length / 4 + 64];
+            int n = 0;
+            if (gzip) {
+                System.arraycopy(GZIP_HEADER, 0, buf, 0, GZIP_HEADER.length);
+                n = GZIP_HEADER.length;
+            }
+            while (!d.finished()) {
+                if (n == buf.length) buf = Arrays.copyOf(buf, buf.length * 2);
+                n += d.deflate(buf, n, buf.length - n);
+            }
+            if (gzip) {
+                if (n + 8 > buf.length) buf = Arrays.copyOf(buf, n + 8);
+                CRC32 crc = new CRC32();
+                crc.update(raw);
+                n = putInt(buf, n, (int) crc.getValue());
+                n = putInt(buf, n, raw.length);
+            }
+            return Arrays.copyOf(buf, n);
+        } finally {
+            pool.release(d);
+        }
+    }
+
+    @Override
+    public OutputStream open(OutputStream out) throws IOException {
+        if (gzip) out.write(GZIP_HEADER);
+        return new Stream(out, pool.borrow());
+    }
+
+    private static int putInt(byte[] buf, int at, int v) {
+        buf[at] = (byte) v;
+        buf[at + 1] = (byte) (v >>> 8);
+        buf[at + 2] = (byte) (v >>> 16);
+        buf[at + 3] = (byte) (v >>> 24);
+        return at + 4;
+    }
+
+    long deflatersCreated() {
+        return pool.created();
+    }
+
+    private final class Stream extends DeflaterOutputStream {
+        private final CRC32 crc = gzip ? new CRC32() : null;
+        private boolean closed;
+
+        Stream(OutputStream out, Deflater deflater) {
+            super(out, deflater, BUFFER);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            super.write(b, off, len);
+            if (crc != null) crc.update(b, off, len);
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (def.finished()) return;
+            super.finish();
+            if (crc != null) {
+                writeInt((int) crc.getValue());
+                writeInt((int) def.getBytesRead());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) return;
+            closed = true;
+            try {
+                finish();
+                out.close();
+            } finally {
+                pool.release(def);
+            }
+        }
+
+        private void writeInt(int v) throws IOException {
+            out.write(v & 0xff);
+            out.write((v >>> 8) & 0xff);
+            out.write((v >>> 16) & 0xff);
+            out.write((v >>> 24) & 0xff);
+        }
+    }
+}
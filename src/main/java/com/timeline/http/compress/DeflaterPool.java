@@ -0,0 +1,36 @@
+package com.timeline.http.compress;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
+
+// Deflaters hold ~256 KB of native memory each and are expensive to create and to finalize, so they are
+// reset and reused. A burst beyond the pool size creates extra ones, which are ended on release.
+final class DeflaterPool {
+    private final int level;
+    private final boolean nowrap;
+    private final ArrayBlockingQueue<Deflater> idle;
+    private final LongAdder created = new LongAdder();
+
+    DeflaterPool(int level, boolean nowrap, int maxIdle) {
+        this.level = level;
+        this.nowrap = nowrap;
+        this.idle = new ArrayBlockingQueue<>(Math.max(1, maxIdle));
+    }
+
+    Deflater borrow() {
+        Deflater d = idle.poll();
+        if (d != null) return d;
+        created.increment();
+        return new Deflater(level, nowrap);
+    }
+
+    void release(Deflater d) {
+        d.reset();
+        if (!idle.offer(d)) d.end();
+    }
+
+    long created() {
+        return created.sum();
+    }
+}
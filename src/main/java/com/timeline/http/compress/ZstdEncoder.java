@@ -0,0 +1,53 @@
+package com.timeline.http.compress;
+
+import com.github.luben.zstd.RecyclingBufferPool;
+import com.github.luben.zstd.ZstdCompressCtx;
+import com.github.luben.zstd.ZstdOutputStreamNoFinalizer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+
+// Only used after available() has loaded zstd-jni's native library on this platform.
+final class ZstdEncoder implements ContentEncoder {
+    private final int level;
+    private final ArrayBlockingQueue<ZstdCompressCtx> idle;
+
+    ZstdEncoder(int level, int poolSize) {
+        this.level = level;
+        this.idle = new ArrayBlockingQueue<>(Math.max(1, poolSize));
+    }
+
+    // Creating a context loads the native library; a missing jar (NoClassDefFoundError) or a platform
+    // without a bundled binary (UnsatisfiedLinkError, e.g. musl or an unusual arch) leaves zstd unoffered
+    // instead of failing the first request that accepts it.
+    static boolean available() {
+        try {
+            new ZstdCompressCtx().close();
+            return true;
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    @Override
+    public String name() {
+        return "zstd";
+    }
+
+    @Override
+    public byte[] encode(byte[] raw) {
+        ZstdCompressCtx ctx = idle.poll();
+        if (ctx == null) ctx = new ZstdCompressCtx().setLevel(level);
+        try {
+            return ctx.compress(raw);
+        } finally {
+            if (!idle.offer(ctx)) ctx.close();
+        }
+    }
+
+    @Override
+    public OutputStream open(OutputStream out) throws IOException {
+        return new ZstdOutputStreamNoFinalizer(out, RecyclingBufferPool.INSTANCE).setLevel(level);
+    }
+}
@@ -0,0 +1,157 @@
+package com.timeline.index;
+
+import com.timeline.model.Fact;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+final class Segment {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    final int size;
+    final int[] days;
+    final long[] ids;
+    private final long[] createdNanos;
+    private final int[] categoryCodes;
+    private final String[] categoryTable;
+    private final TextColumn titles;
+    private final TextColumn summaries;
+    private final TextColumn urls;
+
+    private Segment(int size, int[] days, long[] ids, long[] createdNanos, int[] categoryCodes, String[] categoryTable,
+                    TextColumn titles, TextColumn summaries, TextColumn urls) {
+        this.size = size;
+        this.days = days;
+        this.ids = ids;
+        this.createdNanos = createdNanos;
+        this.categoryCodes = categoryCodes;
+        this.categoryTable = categoryTable;
+        this.titles = titles;
+        this.summaries = summaries;
+        this.urls = urls;
+    }
+
+    static Segment empty() {
+        return new Builder(0).build();
+    }
+
+    int lowerBound(int day) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (days[mid] < day) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    int find(int day, long id) {
+        int lo = lowerBound(day), hi = lowerBound(day + 1);
+        int idx = Arrays.binarySearch(ids, lo, hi, id);
+        return idx >= 0 ? idx : -1;
+    }
+
+    boolean titleEquals(int row, byte[] utf8) {
+        return titles.equalsAt(row, utf8);
+    }
+
+    Fact fact(int row) {
+        Fact f = new Fact();
+        f.setId(ids[row]);
+        f.setEventDate(LocalDate.ofEpochDay(days[row]));
+        f.setTitle(titles.get(row));
+        f.setSummary(summaries.get(row));
+        int code = categoryCodes[row];
+        f.setCategory(code == 0 ? null : categoryTable[code]);
+        f.setSourceUrl(urls.get(row));
+        long nanos = createdNanos[row];
+        f.setCreatedAt(nanos == Long.MIN_VALUE ? null : OffsetDateTime.ofInstant(
+                Instant.ofEpochSecond(Math.floorDiv(nanos, NANOS_PER_SECOND), Math.floorMod(nanos, NANOS_PER_SECOND)), ZoneOffset.UTC));
+        return f;
+    }
+
+    static final class Builder {
+        private int size;
+        private int[] days;
+        private long[] ids;
+        private long[] createdNanos;
+        private int[] categoryCodes;
+        private final List<String> categoryTable = new ArrayList<>();
+        private final Map<String, Integer> categoryIndex = new HashMap<>();
+        private final TextColumn.Builder titles;
+        private final TextColumn.Builder summaries;
+        private final TextColumn.Builder urls;
+
+        Builder(int expected) {
+            int cap = Math.max(16, expected);
+            days = new int[cap];
+            ids = new long[cap];
+            createdNanos = new long[cap];
+            categoryCodes = new int[cap];
+            categoryTable.add(null);
+            titles = new TextColumn.Builder(cap, initialBytes(cap, 32));
+            summaries = new TextColumn.Builder(cap, initialBytes(cap, 96));
+            urls = new TextColumn.Builder(cap, initialBytes(cap, 48));
+        }
+
+        void add(Fact f) {
+            ensureCapacity();
+            days[size] = (int) f.getEventDate().toEpochDay();
+            ids[size] = f.getId();
+            createdNanos[size] = f.getCreatedAt() == null ? Long.MIN_VALUE
+                    : f.getCreatedAt().toEpochSecond() * NANOS_PER_SECOND + f.getCreatedAt().getNano();
+            categoryCodes[size] = categoryCode(f.getCategory());
+            titles.add(f.getTitle());
+            summaries.add(f.getSummary());
+            urls.add(f.getSourceUrl());
+            size++;
+        }
+
+        void copy(Segment s, int row) {
+            ensureCapacity();
+            days[size] = s.days[row];
+            ids[size] = s.ids[row];
+            createdNanos[size] = s.createdNanos[row];
+            int code = s.categoryCodes[row];
+            categoryCodes[size] = code == 0 ? 0 : categoryCode(s.categoryTable[code]);
+            titles.copy(s.titles, row);
+            summaries.copy(s.summaries, row);
+            urls.copy(s.urls, row);
+            size++;
+        }
+
+        Segment build() {
+            return new Segment(size, Arrays.copyOf(days, size), Arrays.copyOf(ids, size), Arrays.copyOf(createdNanos, size),
+                    Arrays.copyOf(categoryCodes, size), categoryTable.toArray(new String[0]),
+                    titles.build(), summaries.build(), urls.build());
+        }
+
+        private int categoryCode(String category) {
+            if (category == null) return 0;
+            return categoryIndex.computeIfAbsent(category, c -> {
+                categoryTable.add(c.intern());
+                return categoryTable.size() - 1;
+            });
+        }
+
+        private static int initialBytes(int rows, int perRow) {
+            return (int) Math.min(1L << 26, (long) rows * perRow);
+        }
+
+        private void ensureCapacity() {
+            if (size < days.length) return;
+            int cap = days.length + (days.length >> 1) + 1;
+            days = Arrays.copyOf(days, cap);
+            ids = Arrays.copyOf(ids, cap);
+            createdNanos = Arrays.copyOf(createdNanos, cap);
+            categoryCodes = Arrays.copyOf(categoryCodes, cap);
+        }
+    }
+}
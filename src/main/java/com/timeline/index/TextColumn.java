@@ -0,0 +1,72 @@
+package com.timeline.index;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+
+final class TextColumn {
+    private final byte[] data;
+    private final int[] offsets;
+    private final BitSet nulls;
+
+    private TextColumn(byte[] data, int[] offsets, BitSet nulls) {
+        this.data = data;
+        this.offsets = offsets;
+        this.nulls = nulls;
+    }
+
+    String get(int row) {
+        if (nulls.get(row)) return null;
+        return new String(data, offsets[row], offsets[row + 1] - offsets[row], StandardCharsets.UTF_8);
+    }
+
+    boolean equalsAt(int row, byte[] utf8) {
+        if (nulls.get(row)) return false;
+        int from = offsets[row];
+        return Arrays.equals(data, from, offsets[row + 1], utf8, 0, utf8.length);
+    }
+
+    static final class Builder {
+        private byte[] data;
+        private int[] offsets;
+        private final BitSet nulls = new BitSet();
+        private int rows;
+
+        Builder(int expectedRows, int expectedBytes) {
+            this.data = new byte[Math.max(16, expectedBytes)];
+            this.offsets = new int[Math.max(16, expectedRows + 1)];
+        }
+
+        void add(String s) {
+            if (s == null) {
+                nulls.set(rows);
+                append(null, 0, 0);
+            } else {
+                byte[] b = s.getBytes(StandardCharsets.UTF_8);
+                append(b, 0, b.length);
+            }
+        }
+
+        void copy(TextColumn from, int row) {
+            if (from.nulls.get(row)) {
+                nulls.set(rows);
+                append(null, 0, 0);
+            } else {
+                int start = from.offsets[row];
+                append(from.data, start, from.offsets[row + 1] - start);
+            }
+        }
+
+        private void append(byte[] src, int from, int len) {
+            int end = offsets[rows];
+            if (end + len > data.length) data = Arrays.copyOf(data, Math.max(end + len, data.length + (data.length >> 1)));
+            if (rows + 2 > offsets.length) offsets = Arrays.copyOf(offsets, offsets.length + (offsets.length >> 1) + 1);
+            if (len > 0) System.arraycopy(src, from, data, end, len);
+            offsets[++rows] = end + len;
+        }
+
+        TextColumn build() {
+            return new TextColumn(Arrays.copyOf(data, offsets[rows]), Arrays.copyOf(offsets, rows + 1), nulls);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.timeline.index;
+
+import com.timeline.model.Fact;
+import com.timeline.util.Sampling;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+public final class TimelineIndex {
+    private static final Comparator<Fact> ORDER = Comparator.comparingLong((Fact f) -> f.getEventDate().toEpochDay()).thenComparingLong(Fact::getId);
+    private static final int MIN_COMPACT = 256;
+    private static final int RANDOM_ATTEMPTS = 16;
+
+    private volatile State state;
+
+    private TimelineIndex(Segment main) {
+        this.state = new State(main, new int[0], new Fact[0]);
+    }
+
+    public static TimelineIndex empty() {
+        return new TimelineIndex(Segment.empty());
+    }
+
+    public static Builder builder(int expected) {
+        return new Builder(expected);
+    }
+
+    public List<Fact> range(LocalDate from, LocalDate to) {
+        State s = state;
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay() + 1;
+        int lo = s.main.lowerBound(fromDay), hi = s.main.lowerBound(toDay);
+        int dlo = s.deltaLowerBound(fromDay), dhi = s.deltaLowerBound(toDay);
+        List<Fact> out = new ArrayList<>((hi - lo) + (dhi - dlo));
+        int t = lowerBound(s.tombstones, lo);
+        int row = lo, d = dlo;
+        while (row < hi || d < dhi) {
+            if (row < hi && t < s.tombstones.length && s.tombstones[t] == row) {
+                row++;
+                t++;
+                continue;
+            }
+            if (d >= dhi || (row < hi && compare(s.main.days[row], s.main.ids[row], s.delta[d]) < 0)) {
+                out.add(s.main.fact(row++));
+            } else {
+                out.add(copy(s.delta[d++]));
+            }
+        }
+        return out;
+    }
+
+    public Fact random(LocalDate from, LocalDate to, Random rnd) {
+        State s = state;
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay() + 1;
+        int lo = s.main.lowerBound(fromDay), hi = s.main.lowerBound(toDay);
+        int dlo = s.deltaLowerBound(fromDay), dhi = s.deltaLowerBound(toDay);
+        int mainCount = hi - lo;
+        int total = mainCount + (dhi - dlo);
+        if (total == 0) return null;
+        for (int attempt = 0; attempt < RANDOM_ATTEMPTS; attempt++) {
+            int r = rnd.nextInt(total);
+            if (r >= mainCount) return copy(s.delta[dlo + r - mainCount]);
+            int row = lo + r;
+            if (Arrays.binarySearch(s.tombstones, row) < 0) return s.main.fact(row);
+        }
+        List<Fact> live = range(from, to);
+        return live.isEmpty() ? null : live.get(rnd.nextInt(live.size()));
+    }
+
+    public List<Fact> sample(LocalDate from, LocalDate to, int count, Random rnd) {
+        State s = state;
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay() + 1;
+        int lo = s.main.lowerBound(fromDay), hi = s.main.lowerBound(toDay);
+        int dlo = s.deltaLowerBound(fromDay), dhi = s.deltaLowerBound(toDay);
+        int mainCount = hi - lo;
+        int total = mainCount + (dhi - dlo);
+        if (count <= 0 || total == 0) return new ArrayList<>();
+        int t = lowerBound(s.tombstones, lo);
+        if (t < s.tombstones.length && s.tombstones[t] < hi) {
+            List<Fact> live = range(from, to);
+            List<Fact> out = new ArrayList<>();
+            for (int i : Sampling.distinct(live.size(), count, rnd)) out.add(live.get(i));
+            return out;
+        }
+        List<Fact> out = new ArrayList<>(Math.min(count, total));
+        for (int r : Sampling.distinct(total, count, rnd)) {
+            out.add(r < mainCount ? s.main.fact(lo + r) : copy(s.delta[dlo + r - mainCount]));
+        }
+        return out;
+    }
+
+    public boolean exists(LocalDate date, String title) {
+        State s = state;
+        int day = (int) date.toEpochDay();
+        byte[] utf8 = title.getBytes(StandardCharsets.UTF_8);
+        int hi = s.main.lowerBound(day + 1);
+        for (int row = s.main.lowerBound(day); row < hi; row++) {
+            if (s.main.titleEquals(row, utf8) && Arrays.binarySearch(s.tombstones, row) < 0) return true;
+        }
+        for (int d = s.deltaLowerBound(day); d < s.delta.length && s.delta[d].getEventDate().toEpochDay() == day; d++) {
+            if (title.equals(s.delta[d].getTitle())) return true;
+        }
+        return false;
+    }
+
+    public long count() {
+        State s = state;
+        return (long) s.main.size - s.tombstones.length + s.delta.length;
+    }
+
+    public synchronized void add(Fact fact) {
+        publish(withAdded(state, fact));
+    }
+
+    public synchronized void addAll(List<Fact> facts) {
+        publish(withAdded(state, facts));
+    }
+
+    public synchronized void remove(long id, LocalDate date) {
+        publish(withoutId(state, id, date));
+    }
+
+    public synchronized void replace(long id, LocalDate previousDate, Fact fact) {
+        publish(withAdded(withoutId(state, id, previousDate), fact));
+    }
+
+    // One row goes straight to its slot: the delta can reach main/64 rows, and re-sorting it on every
+    // POST under the write lock would cost O(delta log delta) instead of one copy.
+    private static State withAdded(State s, Fact fact) {
+        Fact row = copy(fact);
+        int idx = Arrays.binarySearch(s.delta, row, ORDER);
+        int ins = idx >= 0 ? idx : -idx - 1;
+        Fact[] delta = new Fact[s.delta.length + 1];
+        System.arraycopy(s.delta, 0, delta, 0, ins);
+        delta[ins] = row;
+        System.arraycopy(s.delta, ins, delta, ins + 1, s.delta.length - ins);
+        return new State(s.main, s.tombstones, delta);
+    }
+
+    private static State withAdded(State s, List<Fact> facts) {
+        Fact[] delta = Arrays.copyOf(s.delta, s.delta.length + facts.size());
+        int n = s.delta.length;
+        for (Fact f : facts) delta[n++] = copy(f);
+        Arrays.sort(delta, ORDER);
+        return new State(s.main, s.tombstones, delta);
+    }
+
+    private static State withoutId(State s, long id, LocalDate date) {
+        int row = s.main.find((int) date.toEpochDay(), id);
+        if (row >= 0) {
+            int idx = Arrays.binarySearch(s.tombstones, row);
+            if (idx >= 0) return s;
+            int ins = -idx - 1;
+            int[] tombstones = new int[s.tombstones.length + 1];
+            System.arraycopy(s.tombstones, 0, tombstones, 0, ins);
+            tombstones[ins] = row;
+            System.arraycopy(s.tombstones, ins, tombstones, ins + 1, s.tombstones.length - ins);
+            return new State(s.main, tombstones, s.delta);
+        }
+        for (int d = 0; d < s.delta.length; d++) {
+            if (s.delta[d].getId() == id) {
+                Fact[] delta = new Fact[s.delta.length - 1];
+                System.arraycopy(s.delta, 0, delta, 0, d);
+                System.arraycopy(s.delta, d + 1, delta, d, s.delta.length - d - 1);
+                return new State(s.main, s.tombstones, delta);
+            }
+        }
+        return s;
+    }
+
+    private void publish(State next) {
+        if (next.tombstones.length + next.delta.length > Math.max(MIN_COMPACT, next.main.size / 64)) {
+            next = compact(next);
+        }
+        state = next;
+    }
+
+    private static State compact(State s) {
+        Segment.Builder b = new Segment.Builder(s.main.size - s.tombstones.length + s.delta.length);
+        int t = 0, d = 0;
+        for (int row = 0; row < s.main.size; row++) {
+            if (t < s.tombstones.length && s.tombstones[t] == row) {
+                t++;
+                continue;
+            }
+            while (d < s.delta.length && compare(s.main.days[row], s.main.ids[row], s.delta[d]) > 0) b.add(s.delta[d++]);
+            b.copy(s.main, row);
+        }
+        while (d < s.delta.length) b.add(s.delta[d++]);
+        return new State(b.build(), new int[0], new Fact[0]);
+    }
+
+    private static int compare(int day, long id, Fact f) {
+        int c = Long.compare(day, f.getEventDate().toEpochDay());
+        return c != 0 ? c : Long.compare(id, f.getId());
+    }
+
+    private static int lowerBound(int[] a, int key) {
+        int idx = Arrays.binarySearch(a, key);
+        return idx >= 0 ? idx : -idx - 1;
+    }
+
+    private static Fact copy(Fact src) {
+        Fact f = new Fact();
+        f.setId(src.getId());
+        f.setEventDate(src.getEventDate());
+        f.setTitle(src.getTitle());
+        f.setSummary(src.getSummary());
+        f.setCategory(src.getCategory());
+        f.setSourceUrl(src.getSourceUrl());
+        f.setCreatedAt(src.getCreatedAt());
+        return f;
+    }
+
+    private record State(Segment main, int[] tombstones, Fact[] delta) {
+        int deltaLowerBound(int day) {
+            int lo = 0, hi = delta.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (delta[mid].getEventDate().toEpochDay() < day) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+    }
+
+    public static final class Builder {
+        private final Segment.Builder segment;
+        private int lastDay = Integer.MIN_VALUE;
+        private long lastId = Long.MIN_VALUE;
+
+        private Builder(int expected) {
+            this.segment = new Segment.Builder(expected);
+        }
+
+        public Builder add(Fact fact) {
+            int day = (int) fact.getEventDate().toEpochDay();
+            if (day < lastDay || (day == lastDay && fact.getId() <= lastId)) {
+                throw new IllegalArgumentException("facts must be added in (event_date, id) order");
+            }
+            lastDay = day;
+            lastId = fact.getId();
+            segment.add(fact);
+            return this;
+        }
+
+        public TimelineIndex build() {
+            return new TimelineIndex(segment.build());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.timeline.ingest;
+
+import com.timeline.api.dto.FactRequest;
+import com.timeline.model.Fact;
+import com.timeline.repository.DataAccessException;
+import com.timeline.service.FactService;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class BulkImporter {
+    private final FactService service;
+    private final int chunkSize;
+
+    public BulkImporter(FactService service, int chunkSize) {
+        this.service = service;
+        this.chunkSize = chunkSize;
+    }
+
+    public ImportProgress run(FactRecordReader reader, ImportListener listener) throws IOException {
+        List<Fact> chunk = new ArrayList<>(chunkSize);
+        long[] lines = new long[chunkSize];
+        long processed = 0, inserted = 0, failed = 0;
+        FactRecord rec;
+        while ((rec = reader.next()) != null) {
+            processed++;
+            if (rec.error() != null) {
+                failed++;
+                listener.onRowError(rec.line(), Map.of("row", rec.error()));
+                continue;
+            }
+            FactRequest req = rec.request();
+            Map<String, String> errors = service.validate(req.eventDate(), req.title(), req.summary(), req.category(), req.sourceUrl());
+            if (!errors.isEmpty()) {
+                failed++;
+                listener.onRowError(rec.line(), errors);
+                continue;
+            }
+            lines[chunk.size()] = rec.line();
+            chunk.add(service.prepare(LocalDate.parse(req.eventDate()), req.title(), req.summary(), req.category(), req.sourceUrl()));
+            if (chunk.size() == chunkSize) {
+                int n = flush(chunk, lines, listener);
+                inserted += n;
+                failed += chunk.size() - n;
+                chunk.clear();
+                listener.onProgress(new ImportProgress(processed, inserted, failed));
+            }
+        }
+        if (!chunk.isEmpty()) {
+            int n = flush(chunk, lines, listener);
+            inserted += n;
+            failed += chunk.size() - n;
+        }
+        return new ImportProgress(processed, inserted, failed);
+    }
+
+    private int flush(List<Fact> chunk, long[] lines, ImportListener listener) throws IOException {
+        try {
+            return service.createAll(chunk);
+        } catch (DataAccessException e) {
+            for (int i = 0; i < chunk.size(); i++) {
+                listener.onRowError(lines[i], Map.of("row", "chunk rejected: " + e.getMessage()));
+            }
+            return 0;
+        }
+    }
+}
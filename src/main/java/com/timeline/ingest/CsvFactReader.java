@@ -0,0 +1,94 @@
+package com.timeline.ingest;
+
+import com.timeline.api.dto.FactRequest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public class CsvFactReader implements FactRecordReader {
+    private static final String[] DEFAULT_COLUMNS = {"event_date", "title", "summary", "category", "source_url"};
+
+    private final BufferedReader reader;
+    private int[] columns;
+    private long line;
+
+    public CsvFactReader(InputStream in) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public FactRecord next() throws IOException {
+        String s;
+        while ((s = reader.readLine()) != null) {
+            line++;
+            if (s.isBlank()) continue;
+            String[] parts = parseLine(s);
+            if (columns == null) {
+                columns = headerColumns(parts);
+                if (columns != null) continue;
+                columns = new int[]{0, 1, 2, 3, 4};
+            }
+            if (parts.length < 3) return FactRecord.malformed(line, "expected at least 3 columns");
+            return FactRecord.ok(line, new FactRequest(
+                    field(parts, columns[0]), field(parts, columns[1]), field(parts, columns[2]),
+                    field(parts, columns[3]), field(parts, columns[4])));
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    public static String[] parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        boolean inQuotes = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (inQuotes && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    sb.append('"');
+                    i++;
+                } else {
+                    inQuotes = !inQuotes;
+                }
+            } else if (c == ',' && !inQuotes) {
+                fields.add(sb.toString());
+                sb.setLength(0);
+            } else {
+                sb.append(c);
+            }
+        }
+        fields.add(sb.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    private static int[] headerColumns(String[] parts) {
+        int[] idx = {-1, -1, -1, -1, -1};
+        boolean header = false;
+        for (int i = 0; i < parts.length; i++) {
+            String name = parts[i].trim().toLowerCase(Locale.ROOT).replace("_", "");
+            for (int c = 0; c < DEFAULT_COLUMNS.length; c++) {
+                if (DEFAULT_COLUMNS[c].replace("_", "").equals(name)) {
+                    idx[c] = i;
+                    header = true;
+                }
+            }
+        }
+        return header ? idx : null;
+    }
+
+    private static String field(String[] parts, int idx) {
+        if (idx < 0 || idx >= parts.length) return null;
+        String v = parts[idx].trim();
+        return v.isEmpty() ? null : v;
+    }
+}
@@ -0,0 +1,13 @@
+package com.timeline.ingest;
+
+import com.timeline.api.dto.FactRequest;
+
+public record FactRecord(long line, FactRequest request, String error) {
+    public static FactRecord ok(long line, FactRequest request) {
+        return new FactRecord(line, request, null);
+    }
+
+    public static FactRecord malformed(long line, String error) {
+        return new FactRecord(line, null, error);
+    }
+}
@@ -0,0 +1,8 @@
+package com.timeline.ingest;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+public interface FactRecordReader extends Closeable {
+    FactRecord next() throws IOException;
+}
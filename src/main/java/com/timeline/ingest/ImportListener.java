@@ -0,0 +1,9 @@
+package com.timeline.ingest;
+
+import java.io.IOException;
+import java.util.Map;
+
+public interface ImportListener {
+    void onRowError(long line, Map<String, String> errors) throws IOException;
+    void onProgress(ImportProgress progress) throws IOException;
+}
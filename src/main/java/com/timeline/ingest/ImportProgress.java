@@ -0,0 +1,3 @@
+package com.timeline.ingest;
+
+public record ImportProgress(long processed, long inserted, long failed) {}
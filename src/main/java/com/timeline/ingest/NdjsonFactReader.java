@@ -0,0 +1,42 @@
+package com.timeline.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.timeline.api.dto.FactRequest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+public class NdjsonFactReader implements FactRecordReader {
+    private final BufferedReader reader;
+    private final ObjectReader json;
+    private long line;
+
+    public NdjsonFactReader(InputStream in, ObjectMapper mapper) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        this.json = mapper.readerFor(FactRequest.class);
+    }
+
+    @Override
+    public FactRecord next() throws IOException {
+        String s;
+        while ((s = reader.readLine()) != null) {
+            line++;
+            if (s.isBlank()) continue;
+            try {
+                return FactRecord.ok(line, json.readValue(s));
+            } catch (IOException e) {
+                return FactRecord.malformed(line, "malformed JSON");
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
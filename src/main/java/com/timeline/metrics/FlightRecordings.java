@@ -0,0 +1,95 @@
+package com.timeline.metrics;
+
+import com.timeline.config.AppConfig;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+// One continuous flight recording that operators start, dump and stop over /admin/jfr, so a latency
+// spike can be captured in production without attaching an agent. While running, the JVM keeps up to
+// maxAge / maxSize of history in its disk repository; a dump copies that window into dir.
+public class FlightRecordings {
+    private static final String[] EVENTS = {"timeline.HttpRequest", "timeline.RepositoryCall", "timeline.CacheEviction"};
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    public record Status(boolean recording, String settings, long startedAtMillis, long maxAgeSeconds, long maxSizeBytes) {}
+
+    public record Dump(String file, long bytes) {}
+
+    private final Path dir;
+    private final String settings;
+    private final Duration maxAge;
+    private final long maxSizeBytes;
+    private Recording recording;
+
+    public FlightRecordings(AppConfig.Jfr config) {
+        this.dir = Path.of(config.dir());
+        this.settings = config.settings();
+        this.maxAge = Duration.ofMinutes(Math.max(1, config.maxAgeMinutes()));
+        this.maxSizeBytes = Math.max(1, config.maxSizeMb()) * 1024 * 1024;
+    }
+
+    public synchronized boolean running() {
+        return recording != null;
+    }
+
+    // starting twice keeps the recording that is already running
+    public synchronized Status start() throws IOException, ParseException {
+        if (recording == null) {
+            Recording r = new Recording(configuration());
+            r.setName("timeline");
+            r.setToDisk(true);
+            r.setMaxAge(maxAge);
+            r.setMaxSize(maxSizeBytes);
+            for (String event : EVENTS) r.enable(event);
+            r.start();
+            recording = r;
+        }
+        return status();
+    }
+
+    public synchronized Status status() {
+        Instant started = recording == null ? null : recording.getStartTime();
+        return new Status(recording != null, settings, started == null ? 0 : started.toEpochMilli(),
+                maxAge.toSeconds(), maxSizeBytes);
+    }
+
+    // copies what has been recorded so far and keeps recording
+    public synchronized Dump dump() throws IOException {
+        if (recording == null) throw new IllegalStateException("No flight recording is running");
+        return dumpTo(recording);
+    }
+
+    public synchronized Dump stop() throws IOException {
+        if (recording == null) throw new IllegalStateException("No flight recording is running");
+        Recording r = recording;
+        recording = null;
+        try {
+            r.stop();
+            return dumpTo(r);
+        } finally {
+            r.close();
+        }
+    }
+
+    private Dump dumpTo(Recording r) throws IOException {
+        Files.createDirectories(dir);
+        String stamp = FILE_TIME.format(Instant.now());
+        Path file = dir.resolve("timeline-" + stamp + ".jfr");
+        for (int i = 2; Files.exists(file); i++) file = dir.resolve("timeline-" + stamp + "-" + i + ".jfr");
+        r.dump(file);
+        return new Dump(file.toAbsolutePath().toString(), Files.size(file));
+    }
+
+    private Configuration configuration() throws IOException, ParseException {
+        return settings.endsWith(".jfc") ? Configuration.create(Path.of(settings)) : Configuration.getConfiguration(settings);
+    }
+}
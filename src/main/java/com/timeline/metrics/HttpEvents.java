@@ -0,0 +1,55 @@
+package com.timeline.metrics;
+
+import io.javalin.Javalin;
+import io.javalin.http.Context;
+import jdk.jfr.EventType;
+import org.eclipse.jetty.server.Response;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+// Emits a timeline.HttpRequest flight recorder event per request while a recording has it enabled;
+// otherwise the before handler is a single volatile read. The after handler runs before a buffered
+// result is written, so the byte count adds what is still waiting in the result stream.
+public final class HttpEvents {
+    private static final String EVENT_ATTR = "jfr.httpRequest";
+    private static final String UNMATCHED = "unmatched";
+    private static final EventType TYPE = EventType.getEventType(HttpRequestEvent.class);
+
+    private HttpEvents() {}
+
+    // Register before GlobalExceptionHandler so rejected requests are recorded too.
+    public static void register(Javalin app) {
+        app.before(HttpEvents::begin);
+        app.after(HttpEvents::commit);
+    }
+
+    private static void begin(Context ctx) {
+        if (!TYPE.isEnabled()) return;
+        HttpRequestEvent e = new HttpRequestEvent();
+        e.begin();
+        ctx.attribute(EVENT_ATTR, e);
+    }
+
+    private static void commit(Context ctx) {
+        HttpRequestEvent e = ctx.attribute(EVENT_ATTR);
+        if (e == null) return;
+        e.end();
+        if (!e.shouldCommit()) return;
+        String path = ctx.endpointHandlerPath();
+        e.method = ctx.method().name();
+        e.route = path.isEmpty() || path.charAt(0) != '/' ? UNMATCHED : path;
+        e.status = ctx.statusCode();
+        e.bytes = bytes(ctx);
+        String encoding = ctx.res().getHeader("Content-Encoding");
+        e.encoding = encoding == null ? "identity" : encoding;
+        e.commit();
+    }
+
+    private static long bytes(Context ctx) {
+        long written = ctx.res() instanceof Response r ? r.getHttpOutput().getWritten() : 0;
+        InputStream pending = ctx.resultInputStream();
+        if (pending instanceof ByteArrayInputStream b) written += b.available();
+        return written;
+    }
+}
@@ -0,0 +1,81 @@
+package com.timeline.metrics;
+
+import io.javalin.Javalin;
+import io.javalin.http.Context;
+import io.javalin.http.HandlerType;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Request latency by method, route template and status. The after handler runs once the response
+// (including an async future) is complete; the series for a route is looked up without allocating
+// and created on first sight, so the label set stays bounded by the routes the app registers.
+public final class HttpMetrics {
+    public static final String NAME = "timeline_http_request_duration_seconds";
+    private static final String START_ATTR = "metrics.startNanos";
+    private static final String UNMATCHED = "unmatched";
+
+    private final MetricsRegistry registry;
+    private final ConcurrentHashMap<String, Route> routes = new ConcurrentHashMap<>();
+
+    private HttpMetrics(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    // Register before GlobalExceptionHandler so requests it rejects are timed too.
+    public static void register(Javalin app, MetricsRegistry registry) {
+        HttpMetrics metrics = new HttpMetrics(registry);
+        app.before(ctx -> ctx.attribute(START_ATTR, System.nanoTime()));
+        app.after(metrics::record);
+        app.get("/metrics", ctx -> {
+            ctx.contentType(MetricsRegistry.CONTENT_TYPE);
+            ctx.result(registry.scrape());
+        });
+    }
+
+    private void record(Context ctx) {
+        Long start = ctx.attribute(START_ATTR);
+        if (start == null) return;
+        String path = ctx.endpointHandlerPath();
+        if (path.isEmpty() || path.charAt(0) != '/') path = UNMATCHED;
+        Route route = routes.get(path);
+        if (route == null) route = routes.computeIfAbsent(path, Route::new);
+        route.histogram(ctx.method(), ctx.statusCode()).recordNanos(System.nanoTime() - start);
+    }
+
+    private final class Route {
+        private final String path;
+        private volatile int[] keys = new int[0];
+        private volatile LatencyHistogram[] histograms = new LatencyHistogram[0];
+
+        Route(String path) {
+            this.path = path;
+        }
+
+        LatencyHistogram histogram(HandlerType method, int status) {
+            int key = method.ordinal() * 1000 + status;
+            int[] k = keys;
+            LatencyHistogram[] h = histograms;
+            for (int i = 0; i < k.length; i++) {
+                if (k[i] == key) return h[i];
+            }
+            return add(key, method, status);
+        }
+
+        private synchronized LatencyHistogram add(int key, HandlerType method, int status) {
+            int[] k = keys;
+            for (int i = 0; i < k.length; i++) {
+                if (k[i] == key) return histograms[i];
+            }
+            LatencyHistogram created = registry.histogram(NAME, "HTTP request latency",
+                    "method=\"" + method + "\",route=\"" + path + "\",status=\"" + status + "\"");
+            int[] nextKeys = Arrays.copyOf(k, k.length + 1);
+            LatencyHistogram[] next = Arrays.copyOf(histograms, k.length + 1);
+            nextKeys[k.length] = key;
+            next[k.length] = created;
+            histograms = next;
+            keys = nextKeys;
+            return created;
+        }
+    }
+}
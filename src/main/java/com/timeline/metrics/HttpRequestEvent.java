@@ -0,0 +1,34 @@
+package com.timeline.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("timeline.HttpRequest")
+@Label("HTTP Request")
+@Category({"Timeline", "HTTP"})
+@StackTrace(false)
+final class HttpRequestEvent extends Event {
+    @Label("Method")
+    String method;
+
+    @Label("Route")
+    @Description("Route template, or \"unmatched\"")
+    String route;
+
+    @Label("Status")
+    int status;
+
+    @Label("Response Bytes")
+    @Description("Bytes written to the connection, after compression")
+    @DataAmount
+    long bytes;
+
+    @Label("Content Encoding")
+    @Description("gzip, br, zstd, deflate or identity")
+    String encoding;
+}
@@ -0,0 +1,74 @@
+package com.timeline.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Log-linear buckets over microseconds in the HdrHistogram layout: each power of two is split into
+// 8 sub-buckets, so a recorded value lands within 12.5% of its bucket bound from 1µs to ~19h.
+// Recording is two atomic adds and no allocation; Prometheus buckets are summed from these at scrape.
+public final class LatencyHistogram {
+    static final int SUB_BITS = 3;
+    static final int SUB_COUNT = 1 << SUB_BITS;
+    static final int MAX_EXPONENT = 36;
+    static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 1) * SUB_COUNT + SUB_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sumNanos = new LongAdder();
+
+    public void recordNanos(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(index(nanos / 1000));
+        sumNanos.add(nanos);
+    }
+
+    public long[] snapshot() {
+        long[] out = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) out[i] = counts.get(i);
+        return out;
+    }
+
+    long countAt(int bucket) {
+        return counts.get(bucket);
+    }
+
+    public long count() {
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) n += counts.get(i);
+        return n;
+    }
+
+    public double sumSeconds() {
+        return sumNanos.sum() / 1e9;
+    }
+
+    // upper bound in microseconds of the bucket holding the given fraction of recorded values
+    public long percentileMicros(double fraction) {
+        long[] snap = snapshot();
+        long total = 0;
+        for (long c : snap) total += c;
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(Math.min(1.0, Math.max(0.0, fraction)) * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snap[i];
+            if (seen >= Math.max(1, rank)) return upperBoundMicros(i);
+        }
+        return upperBoundMicros(BUCKETS - 1);
+    }
+
+    static int index(long micros) {
+        if (micros < SUB_COUNT) return (int) micros;
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent > MAX_EXPONENT) return BUCKETS - 1;
+        int sub = (int) (micros >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+        return (exponent - SUB_BITS + 1) * SUB_COUNT + sub;
+    }
+
+    // exclusive: every value in bucket i is below this many microseconds
+    static long upperBoundMicros(int i) {
+        if (i < SUB_COUNT) return i + 1;
+        int exponent = i / SUB_COUNT + SUB_BITS - 1;
+        int sub = i % SUB_COUNT;
+        return (long) (SUB_COUNT + sub + 1) << (exponent - SUB_BITS);
+    }
+}
@@ -0,0 +1,134 @@
+package com.timeline.metrics;
+
+import com.timeline.cache.CacheStats;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+// Metric families rendered in the Prometheus text format (version 0.0.4). Gauges and counters are
+// read from suppliers at scrape time, so the code being measured keeps its own counters and the
+// registry adds nothing to its hot path. Labels are passed preformatted, e.g. cache="month".
+public class MetricsRegistry {
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    // Prometheus histogram bounds in seconds, built from the finer LatencyHistogram buckets
+    private static final String[] LE = {"0.0005", "0.001", "0.0025", "0.005", "0.01", "0.025", "0.05", "0.1", "0.25", "0.5", "1", "2.5", "5", "10"};
+    private static final long[] LE_MICROS = {500, 1_000, 2_500, 5_000, 10_000, 25_000, 50_000, 100_000, 250_000, 500_000, 1_000_000, 2_500_000, 5_000_000, 10_000_000};
+
+    private interface Series {
+        void write(StringBuilder out, String name, String labels);
+    }
+
+    private record Sample(String labels, Series series) {}
+
+    private static final class Family {
+        final String help;
+        final String type;
+        final List<Sample> samples = new CopyOnWriteArrayList<>();
+
+        Family(String help, String type) {
+            this.help = help;
+            this.type = type;
+        }
+    }
+
+    private final Map<String, Family> families = new LinkedHashMap<>();
+
+    public void counter(String name, String help, String labels, LongSupplier value) {
+        add(name, help, "counter", labels, (out, n, l) -> line(out, n, l, Long.toString(value.getAsLong())));
+    }
+
+    public void gauge(String name, String help, String labels, DoubleSupplier value) {
+        add(name, help, "gauge", labels, (out, n, l) -> line(out, n, l, number(value.getAsDouble())));
+    }
+
+    public LatencyHistogram histogram(String name, String help, String labels) {
+        LatencyHistogram h = new LatencyHistogram();
+        add(name, help, "histogram", labels, (out, n, l) -> writeHistogram(out, n, l, h));
+        return h;
+    }
+
+    public void cache(String cache, Supplier<CacheStats> stats) {
+        String labels = "cache=\"" + cache + "\"";
+        counter("timeline_cache_hits_total", "Cache lookups answered from memory", labels, () -> stats.get().hits());
+        counter("timeline_cache_misses_total", "Cache lookups that had to load", labels, () -> stats.get().misses());
+        counter("timeline_cache_evictions_total", "Entries evicted by size", labels, () -> stats.get().evictions());
+        gauge("timeline_cache_hit_ratio", "Hits over lookups since start", labels, () -> stats.get().hitRate());
+    }
+
+    public void pool(String pool, HikariPoolMXBean bean) {
+        String labels = "pool=\"" + pool + "\"";
+        gauge("timeline_db_connections_active", "Connections borrowed from the pool", labels, bean::getActiveConnections);
+        gauge("timeline_db_connections_idle", "Connections idle in the pool", labels, bean::getIdleConnections);
+        gauge("timeline_db_connections_pending", "Threads waiting for a connection", labels, bean::getThreadsAwaitingConnection);
+        gauge("timeline_db_connections_total", "Connections open in the pool", labels, bean::getTotalConnections);
+    }
+
+    public String scrape() {
+        List<Map.Entry<String, Family>> snapshot;
+        synchronized (families) {
+            snapshot = new ArrayList<>(families.entrySet());
+        }
+        StringBuilder out = new StringBuilder(8192);
+        for (Map.Entry<String, Family> e : snapshot) {
+            Family f = e.getValue();
+            if (f.samples.isEmpty()) continue;
+            out.append("# HELP ").append(e.getKey()).append(' ').append(f.help).append('\n');
+            out.append("# TYPE ").append(e.getKey()).append(' ').append(f.type).append('\n');
+            for (Sample s : f.samples) s.series.write(out, e.getKey(), s.labels);
+        }
+        return out.toString();
+    }
+
+    private void add(String name, String help, String type, String labels, Series series) {
+        Family f;
+        synchronized (families) {
+            f = families.computeIfAbsent(name, k -> new Family(help, type));
+        }
+        if (!f.type.equals(type)) throw new IllegalArgumentException(name + " is already registered as a " + f.type);
+        f.samples.add(new Sample(labels == null ? "" : labels, series));
+    }
+
+    private static void writeHistogram(StringBuilder out, String name, String labels, LatencyHistogram h) {
+        long cumulative = 0;
+        int bucket = 0;
+        for (int i = 0; i < LE.length; i++) {
+            while (bucket < LatencyHistogram.BUCKETS && LatencyHistogram.upperBoundMicros(bucket) <= LE_MICROS[i]) cumulative += h.countAt(bucket++);
+            bucketLine(out, name, labels, LE[i], cumulative);
+        }
+        while (bucket < LatencyHistogram.BUCKETS) cumulative += h.countAt(bucket++);
+        bucketLine(out, name, labels, "+Inf", cumulative);
+        out.append(name).append("_sum");
+        if (!labels.isEmpty()) out.append('{').append(labels).append('}');
+        out.append(' ').append(number(h.sumSeconds())).append('\n');
+        out.append(name).append("_count");
+        if (!labels.isEmpty()) out.append('{').append(labels).append('}');
+        out.append(' ').append(cumulative).append('\n');
+    }
+
+    private static void bucketLine(StringBuilder out, String name, String labels, String le, long count) {
+        out.append(name).append("_bucket{");
+        if (!labels.isEmpty()) out.append(labels).append(',');
+        out.append("le=\"").append(le).append("\"} ").append(count).append('\n');
+    }
+
+    private static void line(StringBuilder out, String name, String labels, String value) {
+        out.append(name);
+        if (!labels.isEmpty()) out.append('{').append(labels).append('}');
+        out.append(' ').append(value).append('\n');
+    }
+
+    private static String number(double v) {
+        if (Double.isNaN(v)) return "NaN";
+        if (Double.isInfinite(v)) return v > 0 ? "+Inf" : "-Inf";
+        if (v == Math.rint(v) && Math.abs(v) < 1e15) return Long.toString((long) v);
+        return Double.toString(v);
+    }
+}
@@ -1,5 +1,8 @@
 package com.timeline.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 
@@ -11,6 +14,9 @@ public class Fact {
     private String category;
     private String sourceUrl;
     private OffsetDateTime createdAt;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String snippet;
 
     public Long getId() {
         return id;
@@ -67,4 +73,12 @@ public class Fact {
     public void setCreatedAt(OffsetDateTime createdAt) {
         this.createdAt = createdAt;
     }
-}
\ No newline at end of file
+
+    public String getSnippet() {
+        return snippet;
+    }
+
+    public void setSnippet(String snippet) {
+        this.snippet = snippet;
+    }
+}
@@ -0,0 +1,6 @@
+package com.timeline.model;
+
+import java.util.List;
+
+public record SearchPage(List<Fact> items, String nextCursor) {
+}
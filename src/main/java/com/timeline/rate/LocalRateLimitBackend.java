@@ -0,0 +1,83 @@
+package com.timeline.rate;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Fixed-size open-addressing table of (key, theoretical arrival time) split into independently locked
+// stripes. A slot whose arrival time has passed belongs to an idle client whose bucket is full again,
+// which is the same as having no entry, so it is reused without bookkeeping. When every probed slot is
+// busy the least constrained one is evicted, which can only ever grant that client more than its due.
+public class LocalRateLimitBackend implements RateLimitBackend {
+    private static final int STRIPES = 64;
+    private static final int PROBES = 8;
+    private static final long EMPTY = 0;
+
+    private static final class Stripe {
+        final long[] keys;
+        final long[] tats;
+        final int mask;
+
+        Stripe(int slots) {
+            keys = new long[slots];
+            tats = new long[slots];
+            mask = slots - 1;
+        }
+    }
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final LongAdder evictions = new LongAdder();
+
+    public LocalRateLimitBackend(int capacity) {
+        int slots = Integer.highestOneBit(Math.max(PROBES, (capacity + STRIPES - 1) / STRIPES - 1) << 1);
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new Stripe(slots);
+    }
+
+    @Override
+    public long acquire(long key, long incrementMicros, long limitMicros, long nowMicros) {
+        if (key == EMPTY) key = 1;
+        long h = mix(key);
+        Stripe s = stripes[(int) h & (STRIPES - 1)];
+        int start = (int) (h >>> 32);
+        synchronized (s) {
+            int free = -1, victim = -1;
+            for (int i = 0; i < PROBES; i++) {
+                int at = (start + i) & s.mask;
+                long k = s.keys[at];
+                if (k == key) return admit(s, at, incrementMicros, limitMicros, nowMicros);
+                if (k == EMPTY || s.tats[at] <= nowMicros) {
+                    if (free < 0) free = at;
+                } else if (victim < 0 || s.tats[at] < s.tats[victim]) {
+                    victim = at;
+                }
+            }
+            int at = free;
+            if (at < 0) {
+                at = victim;
+                evictions.increment();
+            }
+            s.keys[at] = key;
+            s.tats[at] = nowMicros;
+            return admit(s, at, incrementMicros, limitMicros, nowMicros);
+        }
+    }
+
+    public int capacity() {
+        return STRIPES * stripes[0].keys.length;
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    private static long admit(Stripe s, int at, long increment, long limit, long now) {
+        long next = Math.max(s.tats[at], now) + increment;
+        if (next - now > limit) return next - now - limit;
+        s.tats[at] = next;
+        return 0;
+    }
+
+    private static long mix(long x) {
+        x = (x ^ (x >>> 33)) * 0xff51afd7ed558ccdL;
+        x = (x ^ (x >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return x ^ (x >>> 33);
+    }
+}
@@ -0,0 +1,9 @@
+package com.timeline.rate;
+
+// Where limiter state lives. Limiters that share a backend share quotas, so a store reachable from
+// several instances only has to apply acquire atomically per key (e.g. as a server-side script).
+public interface RateLimitBackend {
+    // GCRA step for key: admits when the new theoretical arrival time is at most limitMicros ahead of
+    // nowMicros and records it. Returns 0 when admitted, otherwise the micros until it would be.
+    long acquire(long key, long incrementMicros, long limitMicros, long nowMicros);
+}
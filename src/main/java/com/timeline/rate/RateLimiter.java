@@ -1,33 +1,65 @@
 package com.timeline.rate;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import com.timeline.config.AppConfig;
 
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+// GCRA: each admitted unit of cost pushes the client's theoretical arrival time forward by
+// window/limit, and a request is refused when that would put it more than one window ahead.
+// Idle clients may burst up to limit units, then sustain limit per window.
 public class RateLimiter {
-    private final ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<>();
-    private final int limit;
-    private final long windowMillis;
+    public static final int DEFAULT_CAPACITY = 65_536;
+
+    private final RateLimitBackend backend;
+    private final long emissionMicros;
+    private final long windowMicros;
+    private final LongSupplier clockMicros;
+    private final LongAdder rejected = new LongAdder();
 
     public RateLimiter(int limitPerWindow, long windowMillis) {
-        this.limit = limitPerWindow;
-        this.windowMillis = windowMillis;
+        this(limitPerWindow, windowMillis, new LocalRateLimitBackend(DEFAULT_CAPACITY));
+    }
+
+    public RateLimiter(AppConfig.RateLimit config) {
+        this(config.limitPerWindow(), config.windowMillis(), new LocalRateLimitBackend(config.capacity()));
+    }
+
+    public RateLimiter(int limitPerWindow, long windowMillis, RateLimitBackend backend) {
+        this(limitPerWindow, windowMillis, backend, () -> System.currentTimeMillis() * 1000);
+    }
+
+    RateLimiter(int limitPerWindow, long windowMillis, RateLimitBackend backend, LongSupplier clockMicros) {
+        this.backend = backend;
+        this.windowMicros = Math.max(1, windowMillis) * 1000;
+        this.emissionMicros = Math.max(1, windowMicros / Math.max(1, limitPerWindow));
+        this.clockMicros = clockMicros;
+    }
+
+    public boolean allow(String client) {
+        return acquire(client, 1) == 0;
+    }
+
+    // 0 when admitted, otherwise milliseconds until a request of this cost would be
+    public long acquire(String client, int cost) {
+        long increment = Math.min(windowMicros, emissionMicros * Math.max(1, cost));
+        long wait = backend.acquire(key(client), increment, windowMicros, clockMicros.getAsLong());
+        if (wait == 0) return 0;
+        rejected.increment();
+        return (wait + 999) / 1000;
     }
 
-    public boolean allow(String key) {
-        long now = System.currentTimeMillis();
-        Window w = windows.compute(key, (k, existing) -> {
-            if (existing == null || now - existing.start >= windowMillis) {
-                return new Window(now);
-            }
-            return existing;
-        });
-        int v = w.count.incrementAndGet();
-        return v <= limit;
+    public long rejected() {
+        return rejected.sum();
     }
 
-    private static class Window {
-        final long start;
-        final AtomicInteger count = new AtomicInteger(0);
-        Window(long s) { this.start = s; }
+    // 64-bit FNV-1a; collisions between distinct addresses are negligible at table sizes we use
+    static long key(String client) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < client.length(); i++) {
+            h ^= client.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,32 @@
+package com.timeline.rate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Rate-limit cost per request path, parsed from "path=weight,path=weight"; unlisted paths cost 1.
+public final class RouteWeights {
+    private final Map<String, Integer> weights;
+
+    private RouteWeights(Map<String, Integer> weights) {
+        this.weights = weights;
+    }
+
+    public static RouteWeights parse(String spec) {
+        Map<String, Integer> weights = new HashMap<>();
+        if (spec != null) {
+            for (String entry : spec.split(",")) {
+                int eq = entry.indexOf('=');
+                if (eq <= 0) continue;
+                try {
+                    weights.put(entry.substring(0, eq).trim(), Math.max(1, Integer.parseInt(entry.substring(eq + 1).trim())));
+                } catch (NumberFormatException ignored) {
+                }
+            }
+        }
+        return new RouteWeights(weights);
+    }
+
+    public int weight(String path) {
+        return weights.getOrDefault(path, 1);
+    }
+}
@@ -0,0 +1,125 @@
+package com.timeline.repository;
+
+import com.timeline.model.Fact;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Month and day cache entries in a flat binary file, written at shutdown and memory-mapped at start.
+// The header carries the schema version and the facts write counter at the time of writing; a
+// snapshot whose counter differs from the database's is stale and read as empty.
+//
+//   header: int magic, int format, int schema, long writes, int entries
+//   entry:  str key, int facts, then per fact: long id, int epochDay, long createdNanos, str title,
+//           str summary, str category, str sourceUrl
+//   str:    int byte length (-1 for null), UTF-8 bytes
+public final class CacheSnapshot {
+    static final int MAGIC = 0x544c4353;
+    static final int FORMAT = 1;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final int MIN_FACT_BYTES = 8 + 4 + 8 + 4 * 4;
+
+    private CacheSnapshot() {}
+
+    public static void write(Path file, int schema, long writes, Map<String, List<Fact>> entries) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream os = Files.newOutputStream(tmp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+            out.writeInt(schema);
+            out.writeLong(writes);
+            out.writeInt(entries.size());
+            for (Map.Entry<String, List<Fact>> e : entries.entrySet()) {
+                writeString(out, e.getKey());
+                out.writeInt(e.getValue().size());
+                for (Fact f : e.getValue()) {
+                    out.writeLong(f.getId() == null ? 0 : f.getId());
+                    out.writeInt((int) f.getEventDate().toEpochDay());
+                    OffsetDateTime created = f.getCreatedAt();
+                    out.writeLong(created == null ? Long.MIN_VALUE : created.toEpochSecond() * NANOS_PER_SECOND + created.getNano());
+                    writeString(out, f.getTitle());
+                    writeString(out, f.getSummary());
+                    writeString(out, f.getCategory());
+                    writeString(out, f.getSourceUrl());
+                }
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Empty when the file is missing, malformed, from another schema or older than the last write.
+    public static Map<String, List<Fact>> read(Path file, int schema, long writes) throws IOException {
+        Map<String, List<Fact>> entries = new LinkedHashMap<>();
+        if (!Files.isRegularFile(file)) return entries;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer in = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            if (in.remaining() < 24 || in.getInt() != MAGIC || in.getInt() != FORMAT || in.getInt() != schema || in.getLong() != writes) {
+                return entries;
+            }
+            int count = in.getInt();
+            for (int i = 0; i < count; i++) {
+                String key = readString(in);
+                int n = in.getInt();
+                if (n < 0 || n > in.remaining() / MIN_FACT_BYTES) throw new BufferUnderflowException();
+                List<Fact> facts = new ArrayList<>(n);
+                for (int j = 0; j < n; j++) {
+                    Fact f = new Fact();
+                    f.setId(in.getLong());
+                    f.setEventDate(LocalDate.ofEpochDay(in.getInt()));
+                    long nanos = in.getLong();
+                    f.setCreatedAt(nanos == Long.MIN_VALUE ? null : OffsetDateTime.ofInstant(
+                            Instant.ofEpochSecond(Math.floorDiv(nanos, NANOS_PER_SECOND), Math.floorMod(nanos, NANOS_PER_SECOND)), ZoneOffset.UTC));
+                    f.setTitle(readString(in));
+                    f.setSummary(readString(in));
+                    f.setCategory(readString(in));
+                    f.setSourceUrl(readString(in));
+                    facts.add(f);
+                }
+                entries.put(key, facts);
+            }
+            return entries;
+        } catch (BufferUnderflowException | IllegalArgumentException | java.time.DateTimeException e) {
+            return new LinkedHashMap<>();
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String readString(MappedByteBuffer in) {
+        int len = in.getInt();
+        if (len < 0) return null;
+        if (len > in.remaining()) throw new BufferUnderflowException();
+        byte[] b = new byte[len];
+        in.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+}
@@ -1,82 +1,283 @@
 package com.timeline.repository;
 
-import com.timeline.cache.LruCache;
+import com.timeline.cache.CacheStats;
+import com.timeline.cache.ConcurrentCache;
 import com.timeline.model.Fact;
 
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
 
 public class CachingFactRepository implements FactRepository {
+    private static final int CACHE_SIZE = 512;
+    private static final long TTL_MS = 5 * 60_000;
+    private static final long REFRESH_AFTER_MS = 4 * 60_000;
+    private static final Executor REFRESH_EXECUTOR = Executors.newFixedThreadPool(2, r -> {
+        Thread t = new Thread(r, "cache-refresh");
+        t.setDaemon(true);
+        return t;
+    });
+
     private final FactRepository delegate;
-    private final LruCache<String, List<Fact>> monthCache = new LruCache<>(512, 5 * 60_000);
-    private final LruCache<String, List<Fact>> dayCache = new LruCache<>(512, 5 * 60_000);
+    private final ConcurrentCache<String, List<Fact>> monthCache;
+    private final ConcurrentCache<String, List<Fact>> dayCache;
+    private final List<FactChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final FactVersions versions = new FactVersions();
+    // listeners must see the writes to one row in the order they were made, so each row's write and
+    // notification run under its stripe; ReentrantLock rather than synchronized keeps virtual threads unpinned
+    private final ReentrantLock[] rowLocks = new ReentrantLock[64];
 
     public CachingFactRepository(FactRepository delegate) {
+        this(delegate, REFRESH_EXECUTOR);
+    }
+
+    public CachingFactRepository(FactRepository delegate, Executor refreshExecutor) {
         this.delegate = delegate;
+        for (int i = 0; i < rowLocks.length; i++) rowLocks[i] = new ReentrantLock();
+        this.monthCache = new ConcurrentCache<String, List<Fact>>(CACHE_SIZE, TTL_MS, REFRESH_AFTER_MS, refreshExecutor).named("month");
+        this.dayCache = new ConcurrentCache<String, List<Fact>>(CACHE_SIZE, TTL_MS, REFRESH_AFTER_MS, refreshExecutor).named("day");
+    }
+
+    public void addListener(FactChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public FactVersions versions() {
+        return versions;
     }
 
     @Override
     public Fact add(Fact fact) {
-        Fact f = delegate.add(fact);
-        invalidateFor(fact);
-        return f;
+        return RepositoryCallEvent.record("add", e -> {
+            Fact f = delegate.add(fact);
+            changed(null, f);
+            return f;
+        }, f -> 1);
     }
 
     @Override
-    public Optional<Fact> getById(long id) { return delegate.getById(id); }
+    public int addAll(List<Fact> facts) {
+        return RepositoryCallEvent.record("addAll", e -> {
+            int n = delegate.addAll(facts);
+            for (Fact f : facts) changed(null, f);
+            return n;
+        }, n -> n);
+    }
+
+    @Override
+    public Optional<Fact> getById(long id) {
+        return RepositoryCallEvent.record("getById", e -> delegate.getById(id), CachingFactRepository::rows);
+    }
 
     @Override
     public List<Fact> getByMonth(YearMonth ym) {
-        String key = "m:" + ym;
-        List<Fact> cached = monthCache.get(key);
-        if (cached != null) return cached;
-        List<Fact> list = delegate.getByMonth(ym);
-        monthCache.put(key, list);
-        return list;
+        return RepositoryCallEvent.record("getByMonth", e -> {
+            if (e == null) return monthCache.get("m:" + ym, k -> delegate.getByMonth(ym));
+            e.cache = RepositoryCallEvent.HIT;
+            return monthCache.get("m:" + ym, k -> {
+                e.cache = RepositoryCallEvent.MISS;
+                return delegate.getByMonth(ym);
+            });
+        }, List::size);
     }
 
     @Override
     public List<Fact> getByDate(LocalDate date) {
-        String key = "d:" + date;
-        List<Fact> cached = dayCache.get(key);
-        if (cached != null) return cached;
-        List<Fact> list = delegate.getByDate(date);
-        dayCache.put(key, list);
-        return list;
+        return RepositoryCallEvent.record("getByDate", e -> {
+            if (e == null) return dayCache.get("d:" + date, k -> delegate.getByDate(date));
+            e.cache = RepositoryCallEvent.HIT;
+            return dayCache.get("d:" + date, k -> {
+                e.cache = RepositoryCallEvent.MISS;
+                return delegate.getByDate(date);
+            });
+        }, List::size);
+    }
+
+    // null unless the month is cached; never loads. Only hits are recorded: on a miss the caller
+    // goes on to getByMonth, which records the load.
+    public List<Fact> cachedMonth(YearMonth ym) {
+        RepositoryCallEvent e = RepositoryCallEvent.start("getByMonth");
+        List<Fact> facts = monthCache.get("m:" + ym);
+        if (e != null && facts != null) {
+            e.cache = RepositoryCallEvent.HIT;
+            RepositoryCallEvent.end(e, facts.size());
+        }
+        return facts;
+    }
+
+    public List<Fact> cachedDay(LocalDate date) {
+        RepositoryCallEvent e = RepositoryCallEvent.start("getByDate");
+        List<Fact> facts = dayCache.get("d:" + date);
+        if (e != null && facts != null) {
+            e.cache = RepositoryCallEvent.HIT;
+            RepositoryCallEvent.end(e, facts.size());
+        }
+        return facts;
     }
 
     @Override
-    public Optional<Fact> getRandom(YearMonth ym) { return delegate.getRandom(ym); }
+    public Optional<Fact> getRandom(YearMonth ym) {
+        return RepositoryCallEvent.record("getRandom", e -> delegate.getRandom(ym), CachingFactRepository::rows);
+    }
 
     @Override
-    public boolean existsByDateAndTitle(LocalDate date, String title) { return delegate.existsByDateAndTitle(date, title); }
+    public List<Fact> getRandom(YearMonth ym, int count) {
+        return RepositoryCallEvent.record("getRandomN", e -> delegate.getRandom(ym, count), List::size);
+    }
 
     @Override
-    public boolean update(long id, Fact fact) {
-        boolean ok = delegate.update(id, fact);
-        if (ok) invalidateFor(fact);
-        return ok;
+    public boolean existsByDateAndTitle(LocalDate date, String title) {
+        return RepositoryCallEvent.record("existsByDateAndTitle", e -> delegate.existsByDateAndTitle(date, title), exists -> exists ? 1 : 0);
     }
 
     @Override
-    public boolean delete(long id) {
-        boolean ok = delegate.delete(id);
-        if (ok) {
-            monthCache.clear();
-            dayCache.clear();
-        }
-        return ok;
+    public Optional<Fact> update(long id, Fact fact) {
+        return RepositoryCallEvent.record("update", e -> {
+            ReentrantLock lock = rowLock(id);
+            lock.lock();
+            try {
+                Optional<Fact> before = delegate.update(id, fact);
+                if (before.isPresent()) {
+                    fact.setId(id);
+                    changed(before.get(), fact);
+                }
+                return before;
+            } finally {
+                lock.unlock();
+            }
+        }, CachingFactRepository::rows);
+    }
+
+    @Override
+    public Optional<Fact> delete(long id) {
+        return RepositoryCallEvent.record("delete", e -> {
+            ReentrantLock lock = rowLock(id);
+            lock.lock();
+            try {
+                Optional<Fact> before = delegate.delete(id);
+                before.ifPresent(f -> changed(f, null));
+                return before;
+            } finally {
+                lock.unlock();
+            }
+        }, CachingFactRepository::rows);
     }
 
     @Override
     public List<Fact> search(Integer year, Integer month, String category, String q, int offset, int limit, String sortField, boolean asc) {
-        return delegate.search(year, month, category, q, offset, limit, sortField, asc);
+        return RepositoryCallEvent.record("search", e -> delegate.search(year, month, category, q, offset, limit, sortField, asc), List::size);
     }
 
     @Override
-    public long count() { return delegate.count(); }
+    public List<Fact> searchAfter(Integer year, Integer month, String category, String q, SearchCursor after, int limit, String sortField, boolean asc) {
+        return RepositoryCallEvent.record("searchAfter", e -> delegate.searchAfter(year, month, category, q, after, limit, sortField, asc), List::size);
+    }
+
+    @Override
+    public void scan(LocalDate from, LocalDate to, Consumer<Fact> sink) {
+        RepositoryCallEvent.record("scan", e -> {
+            if (e == null) {
+                delegate.scan(from, to, sink);
+                return 0L;
+            }
+            long[] rows = new long[1];
+            delegate.scan(from, to, f -> {
+                rows[0]++;
+                sink.accept(f);
+            });
+            return rows[0];
+        }, n -> n);
+    }
+
+    @Override
+    public void scanTitles(ObjIntConsumer<String> sink) {
+        RepositoryCallEvent.record("scanTitles", e -> {
+            if (e == null) {
+                delegate.scanTitles(sink);
+                return 0L;
+            }
+            long[] rows = new long[1];
+            delegate.scanTitles((title, n) -> {
+                rows[0]++;
+                sink.accept(title, n);
+            });
+            return rows[0];
+        }, n -> n);
+    }
+
+    @Override
+    public long count() {
+        return RepositoryCallEvent.record("count", e -> delegate.count(), n -> 1);
+    }
+
+    private static long rows(Optional<Fact> fact) {
+        return fact.isPresent() ? 1 : 0;
+    }
+
+    // The most used cached months then days, by their cache keys ("m:2024-05", "d:2024-05-04").
+    public Map<String, List<Fact>> hottest(int months, int days) {
+        Map<String, List<Fact>> out = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Fact>> e : monthCache.hottest(months)) out.put(e.getKey(), e.getValue());
+        for (Map.Entry<String, List<Fact>> e : dayCache.hottest(days)) out.put(e.getKey(), e.getValue());
+        return out;
+    }
+
+    // Puts a snapshot entry back under its key; only safe before the repository takes writes.
+    public boolean restore(String key, List<Fact> facts) {
+        if (key.startsWith("m:")) monthCache.put(key, facts);
+        else if (key.startsWith("d:")) dayCache.put(key, facts);
+        else return false;
+        return true;
+    }
+
+    // Loads a key from hottest() through the normal read path unless it is already cached.
+    public boolean warm(String key) {
+        try {
+            if (key.startsWith("m:")) {
+                YearMonth ym = YearMonth.parse(key.substring(2));
+                if (monthCache.contains(key)) return false;
+                getByMonth(ym);
+                return true;
+            }
+            if (key.startsWith("d:")) {
+                LocalDate date = LocalDate.parse(key.substring(2));
+                if (dayCache.contains(key)) return false;
+                getByDate(date);
+                return true;
+            }
+        } catch (java.time.format.DateTimeParseException e) {
+            return false;
+        }
+        return false;
+    }
+
+    public CacheStats monthCacheStats() { return monthCache.stats(); }
+
+    public CacheStats dayCacheStats() { return dayCache.stats(); }
+
+    private ReentrantLock rowLock(long id) {
+        return rowLocks[(int) (id & (rowLocks.length - 1))];
+    }
+
+    private void changed(Fact before, Fact after) {
+        if (before == null && after == null) {
+            monthCache.clear();
+            dayCache.clear();
+        }
+        if (before != null) invalidateFor(before);
+        if (after != null) invalidateFor(after);
+        for (FactChangeListener l : listeners) l.onChange(before, after);
+        versions.onChange(before, after);
+    }
 
     private void invalidateFor(Fact fact) {
         if (fact.getEventDate() != null) {
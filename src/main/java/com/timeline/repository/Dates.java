@@ -0,0 +1,58 @@
+package com.timeline.repository;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+// Fast paths for the ISO forms this repository writes; anything else falls back to java.time parsing.
+final class Dates {
+    private Dates() {}
+
+    static LocalDate parseDate(String s) {
+        if (s.length() == 10 && s.charAt(4) == '-' && s.charAt(7) == '-') {
+            int y = digits(s, 0, 4), m = digits(s, 5, 7), d = digits(s, 8, 10);
+            if (y >= 0 && m >= 0 && d >= 0) return LocalDate.of(y, m, d);
+        }
+        return LocalDate.parse(s);
+    }
+
+    // 2024-01-02T03:04Z, 2024-01-02T03:04:05Z, 2024-01-02T03:04:05.123456Z
+    static OffsetDateTime parseTimestamp(String s) {
+        int n = s.length();
+        if (n >= 17 && s.charAt(n - 1) == 'Z' && s.charAt(10) == 'T' && s.charAt(13) == ':') {
+            int h = digits(s, 11, 13), mi = digits(s, 14, 16), sec = 0, nanos = 0;
+            int pos = 16;
+            if (pos < n - 1 && s.charAt(pos) == ':') {
+                sec = digits(s, pos + 1, pos + 3);
+                pos += 3;
+                if (pos < n - 1 && s.charAt(pos) == '.') {
+                    int end = n - 1, len = end - pos - 1;
+                    nanos = len >= 1 && len <= 9 ? digits(s, pos + 1, end) : -1;
+                    for (int i = len; i < 9 && nanos >= 0; i++) nanos *= 10;
+                    pos = end;
+                }
+            }
+            if (pos == n - 1 && h >= 0 && mi >= 0 && sec >= 0 && nanos >= 0) {
+                LocalDate date = parseDate(s.substring(0, 10));
+                return OffsetDateTime.of(date.getYear(), date.getMonthValue(), date.getDayOfMonth(), h, mi, sec, nanos, ZoneOffset.UTC);
+            }
+        }
+        return OffsetDateTime.parse(s);
+    }
+
+    // Rounded to the nearest millisecond, matching how SQLite's unixepoch(..., 'subsec') backfilled created_ms.
+    static long epochMilli(OffsetDateTime t) {
+        return t.toEpochSecond() * 1000 + (t.getNano() + 500_000) / 1_000_000;
+    }
+
+    private static int digits(String s, int from, int to) {
+        if (to > s.length()) return -1;
+        int v = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            v = v * 10 + (c - '0');
+        }
+        return v;
+    }
+}
@@ -0,0 +1,7 @@
+package com.timeline.repository;
+
+import com.timeline.model.Fact;
+
+public interface FactChangeListener {
+    void onChange(Fact before, Fact after);
+}
@@ -6,16 +6,25 @@ import java.time.YearMonth;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
 
 public interface FactRepository {
     Fact add(Fact fact);
+    int addAll(List<Fact> facts);
     Optional<Fact> getById(long id);
     List<Fact> getByMonth(YearMonth ym);
     List<Fact> getByDate(LocalDate date);
     Optional<Fact> getRandom(YearMonth ym);
+    List<Fact> getRandom(YearMonth ym, int count);
     boolean existsByDateAndTitle(LocalDate date, String title);
-    boolean update(long id, Fact fact);
-    boolean delete(long id);
+    // update and delete return the row as it was just before the write, read in the same transaction;
+    // empty when there is no such id
+    Optional<Fact> update(long id, Fact fact);
+    Optional<Fact> delete(long id);
     List<Fact> search(Integer year, Integer month, String category, String q, int offset, int limit, String sortField, boolean asc);
+    List<Fact> searchAfter(Integer year, Integer month, String category, String q, SearchCursor after, int limit, String sortField, boolean asc);
+    void scan(LocalDate from, LocalDate to, Consumer<Fact> sink);
+    void scanTitles(ObjIntConsumer<String> sink);
     long count();
 }
\ No newline at end of file
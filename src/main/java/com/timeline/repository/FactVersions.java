@@ -0,0 +1,64 @@
+package com.timeline.repository;
+
+import com.timeline.model.Fact;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class FactVersions implements FactChangeListener {
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+    private final ConcurrentHashMap<String, Version> versions = new ConcurrentHashMap<>();
+    private volatile Version global = new Version(0, truncate(System.currentTimeMillis()));
+
+    public String monthEtag(YearMonth ym) {
+        return etag("m" + ym, versions.get("m:" + ym));
+    }
+
+    public String dayEtag(LocalDate date) {
+        return etag("d" + date, versions.get("d:" + date));
+    }
+
+    public long monthLastModified(YearMonth ym) {
+        return lastModified(versions.get("m:" + ym));
+    }
+
+    public long dayLastModified(LocalDate date) {
+        return lastModified(versions.get("d:" + date));
+    }
+
+    @Override
+    public void onChange(Fact before, Fact after) {
+        LocalDate b = before == null ? null : before.getEventDate();
+        LocalDate a = after == null ? null : after.getEventDate();
+        if (b == null && a == null) {
+            synchronized (this) {
+                global = new Version(global.version() + 1, truncate(System.currentTimeMillis()));
+                versions.clear();
+            }
+            return;
+        }
+        if (b != null) bump(b);
+        if (a != null && !a.equals(b)) bump(a);
+    }
+
+    private void bump(LocalDate date) {
+        long now = truncate(System.currentTimeMillis());
+        versions.merge("d:" + date, new Version(1, now), (old, v) -> new Version(old.version() + 1, now));
+        versions.merge("m:" + YearMonth.from(date), new Version(1, now), (old, v) -> new Version(old.version() + 1, now));
+    }
+
+    private String etag(String key, Version v) {
+        return "W/\"" + key + "-" + bootId + "." + global.version() + "." + (v == null ? 0 : v.version()) + "\"";
+    }
+
+    private long lastModified(Version v) {
+        return v == null ? global.lastModified() : Math.max(v.lastModified(), global.lastModified());
+    }
+
+    private static long truncate(long millis) {
+        return millis - Math.floorMod(millis, 1000L);
+    }
+
+    private record Version(long version, long lastModified) {}
+}
@@ -0,0 +1,107 @@
+package com.timeline.repository;
+
+import com.timeline.index.TimelineIndex;
+import com.timeline.model.Fact;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class IndexedFactRepository implements FactRepository {
+    private final FactRepository delegate;
+    private final TimelineIndex index;
+
+    public IndexedFactRepository(FactRepository delegate, TimelineIndex index) {
+        this.delegate = delegate;
+        this.index = index;
+    }
+
+    public static IndexedFactRepository load(FactRepository delegate) {
+        TimelineIndex.Builder builder = TimelineIndex.builder((int) Math.min(Integer.MAX_VALUE - 8, delegate.count()));
+        delegate.scan(null, null, builder::add);
+        return new IndexedFactRepository(delegate, builder.build());
+    }
+
+    @Override
+    public Fact add(Fact fact) {
+        Fact f = delegate.add(fact);
+        index.add(f);
+        return f;
+    }
+
+    @Override
+    public int addAll(List<Fact> facts) {
+        int n = delegate.addAll(facts);
+        index.addAll(facts);
+        return n;
+    }
+
+    @Override
+    public Optional<Fact> getById(long id) { return delegate.getById(id); }
+
+    @Override
+    public List<Fact> getByMonth(YearMonth ym) { return index.range(ym.atDay(1), ym.atEndOfMonth()); }
+
+    @Override
+    public List<Fact> getByDate(LocalDate date) { return index.range(date, date); }
+
+    @Override
+    public Optional<Fact> getRandom(YearMonth ym) {
+        return Optional.ofNullable(index.random(ym.atDay(1), ym.atEndOfMonth(), ThreadLocalRandom.current()));
+    }
+
+    @Override
+    public List<Fact> getRandom(YearMonth ym, int count) {
+        return index.sample(ym.atDay(1), ym.atEndOfMonth(), count, ThreadLocalRandom.current());
+    }
+
+    @Override
+    public boolean existsByDateAndTitle(LocalDate date, String title) { return index.exists(date, title); }
+
+    @Override
+    public Optional<Fact> update(long id, Fact fact) {
+        Optional<Fact> before = delegate.update(id, fact);
+        if (before.isPresent()) {
+            Fact updated = new Fact();
+            updated.setId(id);
+            updated.setEventDate(fact.getEventDate());
+            updated.setTitle(fact.getTitle());
+            updated.setSummary(fact.getSummary());
+            updated.setCategory(fact.getCategory());
+            updated.setSourceUrl(fact.getSourceUrl());
+            updated.setCreatedAt(before.get().getCreatedAt());
+            index.replace(id, before.get().getEventDate(), updated);
+        }
+        return before;
+    }
+
+    @Override
+    public Optional<Fact> delete(long id) {
+        Optional<Fact> before = delegate.delete(id);
+        before.ifPresent(f -> index.remove(id, f.getEventDate()));
+        return before;
+    }
+
+    @Override
+    public List<Fact> search(Integer year, Integer month, String category, String q, int offset, int limit, String sortField, boolean asc) {
+        return delegate.search(year, month, category, q, offset, limit, sortField, asc);
+    }
+
+    @Override
+    public List<Fact> searchAfter(Integer year, Integer month, String category, String q, SearchCursor after, int limit, String sortField, boolean asc) {
+        return delegate.searchAfter(year, month, category, q, after, limit, sortField, asc);
+    }
+
+    @Override
+    public void scan(LocalDate from, LocalDate to, Consumer<Fact> sink) { delegate.scan(from, to, sink); }
+
+    @Override
+    public void scanTitles(ObjIntConsumer<String> sink) { delegate.scanTitles(sink); }
+
+    @Override
+    public long count() { return index.count(); }
+}
@@ -0,0 +1,196 @@
+package com.timeline.repository;
+
+import com.timeline.metrics.LatencyHistogram;
+import com.timeline.metrics.MetricsRegistry;
+import com.timeline.model.Fact;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+// Times every call into the wrapped repository. App puts it under CachingFactRepository so the
+// histograms show database (or index) work, not cache hits. scan includes the sink's time.
+public class InstrumentedFactRepository implements FactRepository {
+    private static final String NAME = "timeline_repository_duration_seconds";
+    private static final String HELP = "FactRepository call latency";
+
+    private final FactRepository delegate;
+    private final LatencyHistogram add, addAll, getById, getByMonth, getByDate, getRandom, getRandomN, exists,
+            update, delete, search, searchAfter, scan, scanTitles, count;
+
+    public InstrumentedFactRepository(FactRepository delegate, MetricsRegistry registry) {
+        this.delegate = delegate;
+        this.add = histogram(registry, "add");
+        this.addAll = histogram(registry, "addAll");
+        this.getById = histogram(registry, "getById");
+        this.getByMonth = histogram(registry, "getByMonth");
+        this.getByDate = histogram(registry, "getByDate");
+        this.getRandom = histogram(registry, "getRandom");
+        this.getRandomN = histogram(registry, "getRandomN");
+        this.exists = histogram(registry, "existsByDateAndTitle");
+        this.update = histogram(registry, "update");
+        this.delete = histogram(registry, "delete");
+        this.search = histogram(registry, "search");
+        this.searchAfter = histogram(registry, "searchAfter");
+        this.scan = histogram(registry, "scan");
+        this.scanTitles = histogram(registry, "scanTitles");
+        this.count = histogram(registry, "count");
+    }
+
+    private static LatencyHistogram histogram(MetricsRegistry registry, String method) {
+        return registry.histogram(NAME, HELP, "method=\"" + method + "\"");
+    }
+
+    @Override
+    public Fact add(Fact fact) {
+        long start = System.nanoTime();
+        try {
+            return delegate.add(fact);
+        } finally {
+            add.recordNanos(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public int addAll(List<Fact> facts) {
+        long start = System.nanoTime();
+        try {
+            return delegate.addAll(facts);
+        } finally {
+            addAll.recordNanos(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Optional<Fact> getById(long id) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getById(id);
+        } finally {
+            getById.recordNanos(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<Fact> getByMonth(YearMonth ym) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getByMonth(ym);
+        } finally {
+            getByMonth.recordNanos(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<Fact> getByDate(LocalDate date) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getByDate(date);
+        } finally {
+            getByDate.recordNanos(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Optional<Fact> getRandom(YearMonth ym) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getRandom(ym);
+        } finally {
+            getRandom.recordNanos(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<Fact> getRandom(YearMonth ym, int count) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getRandom(ym, count);
+        } finally {
+            getRandomN.recordNanos(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public boolean existsByDateAndTitle(LocalDate date, String title) {
+        long start = System.nanoTime();
+        try {
+            return delegate.existsByDateAndTitle(date, title);
+        } finally {
+            exists.recordNanos(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Optional<Fact> update(long id, Fact fact) {
+        long start = System.nanoTime();
+        try {
+            return delegate.update(id, fact);
+        } finally {
+            update.recordNanos(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Optional<Fact> delete(long id) {
+        long start = System.nanoTime();
+        try {
+            return delegate.delete(id);
+        } finally {
+            delete.recordNanos(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<Fact> search(Integer year, Integer month, String category, String q, int offset, int limit, String sortField, boolean asc) {
+        long start = System.nanoTime();
+        try {
+            return delegate.search(year, month, category, q, offset, limit, sortField, asc);
+        } finally {
+            search.recordNanos(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<Fact> searchAfter(Integer year, Integer month, String category, String q, SearchCursor after, int limit, String sortField, boolean asc) {
+        long start = System.nanoTime();
+        try {
+            return delegate.searchAfter(year, month, category, q, after, limit, sortField, asc);
+        } finally {
+            searchAfter.recordNanos(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void scan(LocalDate from, LocalDate to, Consumer<Fact> sink) {
+        long start = System.nanoTime();
+        try {
+            delegate.scan(from, to, sink);
+        } finally {
+            scan.recordNanos(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void scanTitles(ObjIntConsumer<String> sink) {
+        long start = System.nanoTime();
+        try {
+            delegate.scanTitles(sink);
+        } finally {
+            scanTitles.recordNanos(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public long count() {
+        long start = System.nanoTime();
+        try {
+            return delegate.count();
+        } finally {
+            count.recordNanos(System.nanoTime() - start);
+        }
+    }
+}
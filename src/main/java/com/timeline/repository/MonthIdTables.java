@@ -0,0 +1,78 @@
+package com.timeline.repository;
+
+import com.timeline.cache.ConcurrentCache;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.function.Function;
+
+class MonthIdTables {
+    private final ConcurrentCache<YearMonth, long[]> tables;
+    private final Function<YearMonth, long[]> loader;
+
+    MonthIdTables(int maxMonths, long ttlMillis, Function<YearMonth, long[]> loader) {
+        this.tables = new ConcurrentCache<YearMonth, long[]>(maxMonths, ttlMillis).named("month-ids");
+        this.loader = loader;
+    }
+
+    long[] get(YearMonth ym) {
+        return tables.get(ym, loader);
+    }
+
+    void clear() {
+        tables.clear();
+    }
+
+    void invalidate(YearMonth ym) {
+        tables.invalidate(ym);
+    }
+
+    synchronized void added(LocalDate date, long id) {
+        YearMonth ym = YearMonth.from(date);
+        long[] ids = tables.get(ym);
+        if (ids == null) {
+            tables.invalidate(ym);
+            return;
+        }
+        int idx = Arrays.binarySearch(ids, id);
+        if (idx >= 0) return;
+        int ins = -idx - 1;
+        long[] next = new long[ids.length + 1];
+        System.arraycopy(ids, 0, next, 0, ins);
+        next[ins] = id;
+        System.arraycopy(ids, ins, next, ins + 1, ids.length - ins);
+        tables.put(ym, next);
+    }
+
+    synchronized void addedAll(YearMonth ym, long[] added) {
+        long[] ids = tables.get(ym);
+        if (ids == null) {
+            tables.invalidate(ym);
+            return;
+        }
+        long[] next = Arrays.copyOf(ids, ids.length + added.length);
+        System.arraycopy(added, 0, next, ids.length, added.length);
+        Arrays.sort(next);
+        int n = 0;
+        for (int i = 0; i < next.length; i++) {
+            if (n == 0 || next[i] != next[n - 1]) next[n++] = next[i];
+        }
+        tables.put(ym, n == next.length ? next : Arrays.copyOf(next, n));
+    }
+
+    synchronized void removed(LocalDate date, long id) {
+        YearMonth ym = YearMonth.from(date);
+        long[] ids = tables.get(ym);
+        if (ids == null) {
+            tables.invalidate(ym);
+            return;
+        }
+        int idx = Arrays.binarySearch(ids, id);
+        if (idx < 0) return;
+        long[] next = new long[ids.length - 1];
+        System.arraycopy(ids, 0, next, 0, idx);
+        System.arraycopy(ids, idx + 1, next, idx, ids.length - idx - 1);
+        tables.put(ym, next);
+    }
+}
@@ -0,0 +1,78 @@
+package com.timeline.repository;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.function.ToLongFunction;
+
+// One per call into CachingFactRepository. start() returns null while no recording has the event
+// enabled, so the disabled cost is one volatile read per call.
+@Name("timeline.RepositoryCall")
+@Label("FactRepository Call")
+@Category({"Timeline", "Repository"})
+@StackTrace(false)
+final class RepositoryCallEvent extends Event {
+    static final String HIT = "hit";
+    static final String MISS = "miss";
+    static final String NONE = "none";
+
+    private static final EventType TYPE = EventType.getEventType(RepositoryCallEvent.class);
+
+    @Label("Method")
+    String method;
+
+    @Label("Rows")
+    @Description("Facts returned, or rows affected by a write; -1 when the call threw")
+    long rows;
+
+    @Label("Error")
+    @Description("Class of the exception the call threw, if any")
+    String error;
+
+    @Label("Cache")
+    @Description("hit or miss for the month and day caches, none for calls that bypass them")
+    String cache;
+
+    @FunctionalInterface
+    interface Call<T> {
+        // e is null while the event is disabled
+        T run(RepositoryCallEvent e);
+    }
+
+    // Runs the call and commits the event whether it returns or throws, so failed calls are recorded too.
+    static <T> T record(String method, Call<T> call, ToLongFunction<? super T> rows) {
+        RepositoryCallEvent e = start(method);
+        if (e == null) return call.run(null);
+        e.rows = -1;
+        try {
+            T result = call.run(e);
+            e.rows = rows.applyAsLong(result);
+            return result;
+        } catch (RuntimeException | Error t) {
+            e.error = t.getClass().getName();
+            throw t;
+        } finally {
+            e.commit();
+        }
+    }
+
+    static RepositoryCallEvent start(String method) {
+        if (!TYPE.isEnabled()) return null;
+        RepositoryCallEvent e = new RepositoryCallEvent();
+        e.method = method;
+        e.cache = NONE;
+        e.begin();
+        return e;
+    }
+
+    static void end(RepositoryCallEvent e, long rows) {
+        if (e == null) return;
+        e.rows = rows;
+        e.commit();
+    }
+}
@@ -0,0 +1,69 @@
+package com.timeline.repository;
+
+import com.timeline.model.Fact;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public record SearchCursor(String sortField, boolean asc, String value, long id) {
+    public static final String RELEVANCE = "relevance";
+
+    public static String sortColumn(String sortField) {
+        if (sortField != null) {
+            String sf = sortField.toLowerCase();
+            if (sf.equals("event_date") || sf.equals("created_at") || sf.equals("title") || sf.equals(RELEVANCE)) return sf;
+        }
+        return "event_date";
+    }
+
+    // bm25 scores shift as the corpus changes, so relevance pages are addressed by position instead of by last value
+    public static SearchCursor at(int position, boolean asc, long lastId) {
+        return new SearchCursor(RELEVANCE, asc, String.valueOf(position), lastId);
+    }
+
+    public static SearchCursor after(Fact last, String sortField, boolean asc) {
+        String sf = sortColumn(sortField);
+        String value = switch (sf) {
+            case "created_at" -> String.valueOf(Dates.epochMilli(last.getCreatedAt()));
+            case "title" -> last.getTitle();
+            default -> String.valueOf(last.getEventDate().toEpochDay());
+        };
+        return new SearchCursor(sf, asc, value, last.getId());
+    }
+
+    public String encode() {
+        String raw = sortField + "\n" + (asc ? "a" : "d") + "\n" + id + "\n" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SearchCursor decode(String token) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("invalid cursor");
+        }
+        String[] parts = raw.split("\n", 4);
+        if (parts.length != 4 || !parts[0].equals(sortColumn(parts[0])) || !(parts[1].equals("a") || parts[1].equals("d"))) {
+            throw new IllegalArgumentException("invalid cursor");
+        }
+        try {
+            if (parts[0].equals(RELEVANCE)) {
+                if (Integer.parseInt(parts[3]) < 0) throw new NumberFormatException();
+            } else if (!parts[0].equals("title")) {
+                Long.parseLong(parts[3]);
+            }
+            return new SearchCursor(parts[0], parts[1].equals("a"), parts[3], Long.parseLong(parts[2]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid cursor");
+        }
+    }
+
+    public int position() {
+        return Integer.parseInt(value);
+    }
+
+    Object sortValue() {
+        return sortField.equals("title") ? value : Long.valueOf(value);
+    }
+}
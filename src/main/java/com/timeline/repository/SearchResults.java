@@ -0,0 +1,39 @@
+package com.timeline.repository;
+
+import com.timeline.cache.ConcurrentCache;
+
+import java.util.function.Function;
+
+class SearchResults {
+    record Key(String match, Integer year, Integer month, String category, String sortColumn, boolean asc) {}
+
+    // ids and snippets in result order; complete is false when the query had more than the cached window
+    record Hits(long[] ids, String[] snippets, boolean complete) {
+        boolean covers(int from, int limit) {
+            return complete || from + limit <= ids.length;
+        }
+
+        int indexOf(long id) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) return i;
+            }
+            return -1;
+        }
+    }
+
+    private final ConcurrentCache<Key, Hits> cache;
+    private final Function<Key, Hits> loader;
+
+    SearchResults(int maxEntries, long ttlMillis, Function<Key, Hits> loader) {
+        this.cache = new ConcurrentCache<Key, Hits>(maxEntries, ttlMillis).named("search");
+        this.loader = loader;
+    }
+
+    Hits get(Key key) {
+        return cache.get(key, loader);
+    }
+
+    void clear() {
+        cache.clear();
+    }
+}
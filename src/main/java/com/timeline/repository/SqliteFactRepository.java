@@ -1,7 +1,10 @@
 package com.timeline.repository;
 
 import com.timeline.config.Database;
+import com.timeline.config.SlowQueryLog;
+import com.timeline.config.SqliteWriter;
 import com.timeline.model.Fact;
+import com.timeline.util.Sampling;
 
 import javax.sql.DataSource;
 import java.sql.*;
@@ -10,33 +13,65 @@ import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
 
 public class SqliteFactRepository implements FactRepository {
+    private static final int RANDOM_MONTHS = 2048;
+    private static final long RANDOM_TTL_MS = 10 * 60_000L;
+    private static final int RANDOM_ATTEMPTS = 3;
+
+    private static final int STATEMENTS_PER_CONNECTION = 64;
+
+    private static final int SEARCH_CACHE_ENTRIES = 512;
+    private static final long SEARCH_CACHE_TTL_MS = 5 * 60_000L;
+    private static final int SEARCH_CACHE_IDS = 1000;
+    private static final String SNIPPET = "snippet(facts_fts, -1, '<mark>', '</mark>', '…', 12)";
+    // title matches weigh ten times more than summary matches
+    private static final String RANK = "bm25(facts_fts, 10.0, 1.0)";
+
     private final DataSource dataSource;
+    private final SqliteWriter writer;
+    private final StatementCache statements = new StatementCache(STATEMENTS_PER_CONNECTION);
+    private final MonthIdTables idTables;
+    private final SearchResults searchResults;
+    private final SlowQueryLog slowQueries;
+
+    @FunctionalInterface
+    private interface Rows<T> {
+        T read(ResultSet rs) throws SQLException;
+    }
 
     public SqliteFactRepository(Database database) {
         this.dataSource = database.getDataSource();
+        this.writer = database.writer();
+        this.slowQueries = database.slowQueries();
+        this.idTables = new MonthIdTables(RANDOM_MONTHS, RANDOM_TTL_MS, this::loadIds);
+        this.searchResults = new SearchResults(SEARCH_CACHE_ENTRIES, SEARCH_CACHE_TTL_MS, this::loadHits);
     }
 
     @Override
     public Fact add(Fact fact) {
-        String sql = "INSERT INTO facts(event_date, title, summary, category, source_url, created_at) VALUES(?,?,?,?,?,?)";
-        try (Connection conn = dataSource.getConnection(); PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            ps.setString(1, fact.getEventDate().toString());
-            ps.setString(2, fact.getTitle());
-            ps.setString(3, fact.getSummary());
-            ps.setString(4, fact.getCategory());
-            ps.setString(5, fact.getSourceUrl());
-            OffsetDateTime created = fact.getCreatedAt() != null ? fact.getCreatedAt() : OffsetDateTime.now(ZoneOffset.UTC);
-            ps.setString(6, created.toString());
-            ps.executeUpdate();
-            try (ResultSet rs = ps.getGeneratedKeys()) {
-                if (rs.next()) {
-                    fact.setId(rs.getLong(1));
-                    fact.setCreatedAt(created);
-                }
+        String sql = "INSERT INTO facts(event_date, event_day, title, summary, category, source_url, created_at, created_ms) VALUES(?,?,?,?,?,?,?,?)";
+        OffsetDateTime created = fact.getCreatedAt() != null ? fact.getCreatedAt() : OffsetDateTime.now(ZoneOffset.UTC);
+        try {
+            Long id = writer.execute(conn -> {
+                if (update(conn, sql, fact.getEventDate().toString(), fact.getEventDate().toEpochDay(), fact.getTitle(),
+                        fact.getSummary(), fact.getCategory(), fact.getSourceUrl(), created.toString(), Dates.epochMilli(created)) == 0) return null;
+                return lastInsertRowid(conn);
+            });
+            if (id != null) {
+                fact.setId(id);
+                fact.setCreatedAt(created);
+                idTables.added(fact.getEventDate(), id);
+                searchResults.clear();
             }
             return fact;
         } catch (SQLException e) {
@@ -45,14 +80,100 @@ public class SqliteFactRepository implements FactRepository {
     }
 
     @Override
-    public Optional<Fact> getById(long id) {
-        String sql = "SELECT id, event_date, title, summary, category, source_url, created_at FROM facts WHERE id=?";
-        try (Connection conn = dataSource.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setLong(1, id);
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) return Optional.of(map(rs));
-                return Optional.empty();
+    public int addAll(List<Fact> facts) {
+        if (facts.isEmpty()) return 0;
+        String sql = "INSERT INTO facts(event_date, event_day, title, summary, category, source_url, created_at, created_ms) VALUES(?,?,?,?,?,?,?,?)";
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        try {
+            long lastId = writer.execute(conn -> {
+                PreparedStatement ps = statements.prepare(conn, sql);
+                for (Fact fact : facts) {
+                    OffsetDateTime created = fact.getCreatedAt() != null ? fact.getCreatedAt() : now;
+                    ps.setString(1, fact.getEventDate().toString());
+                    ps.setLong(2, fact.getEventDate().toEpochDay());
+                    ps.setString(3, fact.getTitle());
+                    ps.setString(4, fact.getSummary());
+                    ps.setString(5, fact.getCategory());
+                    ps.setString(6, fact.getSourceUrl());
+                    ps.setString(7, created.toString());
+                    ps.setLong(8, Dates.epochMilli(created));
+                    ps.addBatch();
+                }
+                long start = System.nanoTime();
+                try {
+                    ps.executeBatch();
+                } finally {
+                    slowQueries.record(conn, sql, null, System.nanoTime() - start);
+                }
+                return lastInsertRowid(conn);
+            });
+            long id = lastId - facts.size() + 1;
+            Map<YearMonth, List<Long>> byMonth = new HashMap<>();
+            for (Fact fact : facts) {
+                if (fact.getCreatedAt() == null) fact.setCreatedAt(now);
+                fact.setId(id++);
+                byMonth.computeIfAbsent(YearMonth.from(fact.getEventDate()), k -> new ArrayList<>()).add(fact.getId());
+            }
+            byMonth.forEach((ym, ids) -> idTables.addedAll(ym, ids.stream().mapToLong(Long::longValue).toArray()));
+            searchResults.clear();
+            return facts.size();
+        } catch (SQLException e) {
+            throw new DataAccessException("batch insert failed", e);
+        }
+    }
+
+    // Inserts the facts whose (day, title) is not stored yet and runs andThen on the same connection,
+    // all in one write transaction; duplicates within the list are skipped too. Ids are not set on
+    // the given facts. Returns how many rows were inserted.
+    public int addMissing(List<Fact> facts, SqliteWriter.Task<?> andThen) {
+        String sql = "INSERT INTO facts(event_date, event_day, title, summary, category, source_url, created_at, created_ms) " +
+                "SELECT ?,?,?,?,?,?,?,? WHERE NOT EXISTS (SELECT 1 FROM facts WHERE event_day=? AND title=?)";
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        try {
+            int inserted = writer.execute(conn -> {
+                int n = 0;
+                if (!facts.isEmpty()) {
+                    PreparedStatement ps = statements.prepare(conn, sql);
+                    for (Fact fact : facts) {
+                        OffsetDateTime created = fact.getCreatedAt() != null ? fact.getCreatedAt() : now;
+                        long day = fact.getEventDate().toEpochDay();
+                        ps.setString(1, fact.getEventDate().toString());
+                        ps.setLong(2, day);
+                        ps.setString(3, fact.getTitle());
+                        ps.setString(4, fact.getSummary());
+                        ps.setString(5, fact.getCategory());
+                        ps.setString(6, fact.getSourceUrl());
+                        ps.setString(7, created.toString());
+                        ps.setLong(8, Dates.epochMilli(created));
+                        ps.setLong(9, day);
+                        ps.setString(10, fact.getTitle());
+                        ps.addBatch();
+                    }
+                    long start = System.nanoTime();
+                    try {
+                        for (int c : ps.executeBatch()) n += Math.max(0, c);
+                    } finally {
+                        slowQueries.record(conn, sql, null, System.nanoTime() - start);
+                    }
+                }
+                if (andThen != null) andThen.apply(conn);
+                return n;
+            });
+            if (inserted > 0) {
+                idTables.clear();
+                searchResults.clear();
             }
+            return inserted;
+        } catch (SQLException e) {
+            throw new DataAccessException("insert missing failed", e);
+        }
+    }
+
+    @Override
+    public Optional<Fact> getById(long id) {
+        String sql = "SELECT id, event_day, title, summary, category, source_url, created_at FROM facts WHERE id=?";
+        try (Connection conn = dataSource.getConnection()) {
+            return select(conn, sql, rs -> rs.next() ? Optional.of(map(rs)) : Optional.<Fact>empty(), id);
         } catch (SQLException e) {
             throw new DataAccessException("query by id failed", e);
         }
@@ -62,15 +183,9 @@ public class SqliteFactRepository implements FactRepository {
     public List<Fact> getByMonth(YearMonth ym) {
         LocalDate start = ym.atDay(1);
         LocalDate end = ym.atEndOfMonth();
-        String sql = "SELECT id, event_date, title, summary, category, source_url, created_at FROM facts WHERE event_date BETWEEN ? AND ? ORDER BY event_date";
-        try (Connection conn = dataSource.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, start.toString());
-            ps.setString(2, end.toString());
-            try (ResultSet rs = ps.executeQuery()) {
-                List<Fact> list = new ArrayList<>();
-                while (rs.next()) list.add(map(rs));
-                return list;
-            }
+        String sql = "SELECT id, event_day, title, summary, category, source_url, created_at FROM facts WHERE event_day BETWEEN ? AND ? ORDER BY event_day, id";
+        try (Connection conn = dataSource.getConnection()) {
+            return select(conn, sql, this::mapAll, start.toEpochDay(), end.toEpochDay());
         } catch (SQLException e) {
             throw new DataAccessException("query by month failed", e);
         }
@@ -78,14 +193,9 @@ public class SqliteFactRepository implements FactRepository {
 
     @Override
     public List<Fact> getByDate(LocalDate date) {
-        String sql = "SELECT id, event_date, title, summary, category, source_url, created_at FROM facts WHERE event_date = ? ORDER BY id";
-        try (Connection conn = dataSource.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, date.toString());
-            try (ResultSet rs = ps.executeQuery()) {
-                List<Fact> list = new ArrayList<>();
-                while (rs.next()) list.add(map(rs));
-                return list;
-            }
+        String sql = "SELECT id, event_day, title, summary, category, source_url, created_at FROM facts WHERE event_day = ? ORDER BY id";
+        try (Connection conn = dataSource.getConnection()) {
+            return select(conn, sql, this::mapAll, date.toEpochDay());
         } catch (SQLException e) {
             throw new DataAccessException("query by date failed", e);
         }
@@ -93,26 +203,76 @@ public class SqliteFactRepository implements FactRepository {
 
     @Override
     public Optional<Fact> getRandom(YearMonth ym) {
-        LocalDate start = ym.atDay(1);
-        LocalDate end = ym.atEndOfMonth();
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        for (int attempt = 0; attempt < RANDOM_ATTEMPTS; attempt++) {
+            long[] ids = idTables.get(ym);
+            if (ids.length == 0) return Optional.empty();
+            Optional<Fact> f = getById(ids[rnd.nextInt(ids.length)]);
+            if (f.isPresent() && YearMonth.from(f.get().getEventDate()).equals(ym)) return f;
+            idTables.invalidate(ym);
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public List<Fact> getRandom(YearMonth ym, int count) {
+        if (count <= 0) return List.of();
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        List<Fact> list = List.of();
+        for (int attempt = 0; attempt < RANDOM_ATTEMPTS; attempt++) {
+            long[] ids = idTables.get(ym);
+            int[] picks = Sampling.distinct(ids.length, count, rnd);
+            long[] chosen = new long[picks.length];
+            for (int i = 0; i < picks.length; i++) chosen[i] = ids[picks[i]];
+            list = getByIds(chosen);
+            list.removeIf(f -> !YearMonth.from(f.getEventDate()).equals(ym));
+            if (list.size() == chosen.length) return list;
+            idTables.invalidate(ym);
+        }
+        return list;
+    }
+
+    private List<Fact> getByIds(long[] ids) {
+        if (ids.length == 0) return new ArrayList<>();
+        StringBuilder sb = new StringBuilder("SELECT id, event_day, title, summary, category, source_url, created_at FROM facts WHERE id IN (");
+        for (int i = 0; i < ids.length; i++) sb.append(i == 0 ? "?" : ",?");
+        sb.append(')');
+        Object[] args = new Object[ids.length];
+        for (int i = 0; i < ids.length; i++) args[i] = ids[i];
         try (Connection conn = dataSource.getConnection()) {
-            try (PreparedStatement cnt = conn.prepareStatement("SELECT COUNT(1) FROM facts WHERE event_date BETWEEN ? AND ?")) {
-                cnt.setString(1, start.toString());
-                cnt.setString(2, end.toString());
-                int count = 0;
-                try (ResultSet rs = cnt.executeQuery()) { if (rs.next()) count = rs.getInt(1); }
-                if (count == 0) return Optional.empty();
-                int offset = Math.abs(new java.util.Random().nextInt()) % count;
-                try (PreparedStatement ps = conn.prepareStatement("SELECT id, event_date, title, summary, category, source_url, created_at FROM facts WHERE event_date BETWEEN ? AND ? LIMIT 1 OFFSET ?")) {
-                    ps.setString(1, start.toString());
-                    ps.setString(2, end.toString());
-                    ps.setInt(3, offset);
-                    try (ResultSet rs = ps.executeQuery()) {
-                        if (rs.next()) return Optional.of(map(rs));
-                        return Optional.empty();
-                    }
+            Map<Long, Fact> found = selectOnce(conn, sb.toString(), rs -> {
+                Map<Long, Fact> byId = new HashMap<>();
+                while (rs.next()) {
+                    Fact f = map(rs);
+                    byId.put(f.getId(), f);
                 }
+                return byId;
+            }, args);
+            List<Fact> list = new ArrayList<>(ids.length);
+            for (long id : ids) {
+                Fact f = found.get(id);
+                if (f != null) list.add(f);
             }
+            return list;
+        } catch (SQLException e) {
+            throw new DataAccessException("query by ids failed", e);
+        }
+    }
+
+    private long[] loadIds(YearMonth ym) {
+        String sql = "SELECT id FROM facts WHERE event_day BETWEEN ? AND ?";
+        try (Connection conn = dataSource.getConnection()) {
+            long[] ids = select(conn, sql, rs -> {
+                long[] out = new long[64];
+                int n = 0;
+                while (rs.next()) {
+                    if (n == out.length) out = Arrays.copyOf(out, n * 2);
+                    out[n++] = rs.getLong(1);
+                }
+                return Arrays.copyOf(out, n);
+            }, ym.atDay(1).toEpochDay(), ym.atEndOfMonth().toEpochDay());
+            Arrays.sort(ids);
+            return ids;
         } catch (SQLException e) {
             throw new DataAccessException("random failed", e);
         }
@@ -120,121 +280,304 @@ public class SqliteFactRepository implements FactRepository {
 
     @Override
     public boolean existsByDateAndTitle(LocalDate date, String title) {
-        String sql = "SELECT 1 FROM facts WHERE event_date=? AND title=? LIMIT 1";
-        try (Connection conn = dataSource.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, date.toString());
-            ps.setString(2, title);
-            try (ResultSet rs = ps.executeQuery()) { return rs.next(); }
+        String sql = "SELECT 1 FROM facts WHERE event_day=? AND title=? LIMIT 1";
+        try (Connection conn = dataSource.getConnection()) {
+            return select(conn, sql, ResultSet::next, date.toEpochDay(), title);
         } catch (SQLException e) {
             throw new DataAccessException("exists by date/title failed", e);
         }
     }
 
     @Override
-    public boolean update(long id, Fact fact) {
-        String sql = "UPDATE facts SET event_date=?, title=?, summary=?, category=?, source_url=? WHERE id=?";
-        try (Connection conn = dataSource.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, fact.getEventDate().toString());
-            ps.setString(2, fact.getTitle());
-            ps.setString(3, fact.getSummary());
-            ps.setString(4, fact.getCategory());
-            ps.setString(5, fact.getSourceUrl());
-            ps.setLong(6, id);
-            return ps.executeUpdate() > 0;
+    public Optional<Fact> update(long id, Fact fact) {
+        String sql = "UPDATE facts SET event_date=?, event_day=?, title=?, summary=?, category=?, source_url=? WHERE id=?";
+        try {
+            Fact previous = writer.execute(conn -> {
+                Fact before = current(conn, id);
+                if (before == null) return null;
+                return update(conn, sql, fact.getEventDate().toString(), fact.getEventDate().toEpochDay(), fact.getTitle(),
+                        fact.getSummary(), fact.getCategory(), fact.getSourceUrl(), id) > 0 ? before : null;
+            });
+            if (previous == null) return Optional.empty();
+            searchResults.clear();
+            if (!YearMonth.from(previous.getEventDate()).equals(YearMonth.from(fact.getEventDate()))) {
+                idTables.removed(previous.getEventDate(), id);
+                idTables.added(fact.getEventDate(), id);
+            }
+            return Optional.of(previous);
         } catch (SQLException e) {
             throw new DataAccessException("update failed", e);
         }
     }
 
     @Override
-    public boolean delete(long id) {
+    public Optional<Fact> delete(long id) {
         String sql = "DELETE FROM facts WHERE id=?";
-        try (Connection conn = dataSource.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setLong(1, id);
-            return ps.executeUpdate() > 0;
+        try {
+            Fact previous = writer.execute(conn -> {
+                Fact before = current(conn, id);
+                if (before == null) return null;
+                return update(conn, sql, id) > 0 ? before : null;
+            });
+            if (previous == null) return Optional.empty();
+            idTables.removed(previous.getEventDate(), id);
+            searchResults.clear();
+            return Optional.of(previous);
         } catch (SQLException e) {
             throw new DataAccessException("delete failed", e);
         }
     }
 
+    private Fact current(Connection conn, long id) throws SQLException {
+        return select(conn, "SELECT id, event_day, title, summary, category, source_url, created_at FROM facts WHERE id=?", rs -> rs.next() ? map(rs) : null, id);
+    }
+
+    private long lastInsertRowid(Connection conn) throws SQLException {
+        return select(conn, "SELECT last_insert_rowid()", rs -> rs.next() ? rs.getLong(1) : 0L);
+    }
+
     @Override
     public List<Fact> search(Integer year, Integer month, String category, String q, int offset, int limit, String sortField, boolean asc) {
-        boolean useFts = q != null && !q.isBlank();
-        StringBuilder sb = new StringBuilder();
-        if (useFts) {
-            sb.append("SELECT f.id, f.event_date, f.title, f.summary, f.category, f.source_url, f.created_at FROM facts f JOIN facts_fts fts ON fts.rowid = f.id WHERE fts MATCH ?");
-        } else {
-            sb.append("SELECT id, event_date, title, summary, category, source_url, created_at FROM facts WHERE 1=1");
+        return query(year, month, category, q, offset, null, limit, sortField, asc);
+    }
+
+    @Override
+    public List<Fact> searchAfter(Integer year, Integer month, String category, String q, SearchCursor after, int limit, String sortField, boolean asc) {
+        return query(year, month, category, q, 0, after, limit, sortField, asc);
+    }
+
+    private List<Fact> query(Integer year, Integer month, String category, String q, int offset, SearchCursor after, int limit, String sortField, boolean asc) {
+        String sort = SearchCursor.sortColumn(sortField);
+        if (after != null && sort.equals(SearchCursor.RELEVANCE)) {
+            offset = after.position();
+            after = null;
+        }
+        boolean filtered = q != null && !q.isBlank();
+        String match = filtered ? sanitizeFts(q) : null;
+        // q made only of quotes and * has nothing to match, which is not the same as no q
+        if (filtered && match == null) return new ArrayList<>();
+        if (match != null) {
+            SearchResults.Hits hits = searchResults.get(new SearchResults.Key(match, year, month, category, sort, asc));
+            int from = offset;
+            if (after != null) {
+                int idx = hits.indexOf(after.id());
+                from = idx < 0 ? -1 : idx + 1;
+            }
+            if (from >= 0 && hits.covers(from, limit)) return page(hits, from, limit);
+        }
+        String select = match != null
+                ? "SELECT f.id, f.event_day, f.title, f.summary, f.category, f.source_url, f.created_at, " + SNIPPET
+                : "SELECT id, event_day, title, summary, category, source_url, created_at";
+        List<Object> params = new ArrayList<>();
+        String sql = select + where(match, year, month, category, after, sort, asc, params) + " LIMIT ? OFFSET ?";
+        params.add(limit);
+        params.add(offset);
+        try (Connection conn = dataSource.getConnection()) {
+            return selectOnce(conn, sql, rs -> {
+                List<Fact> list = new ArrayList<>();
+                while (rs.next()) {
+                    Fact f = map(rs);
+                    if (match != null) f.setSnippet(rs.getString(8));
+                    list.add(f);
+                }
+                return list;
+            }, params.toArray());
+        } catch (SQLException e) {
+            throw new DataAccessException("search failed", e);
         }
+    }
+
+    private SearchResults.Hits loadHits(SearchResults.Key key) {
         List<Object> params = new ArrayList<>();
+        String sql = "SELECT f.id, " + SNIPPET + where(key.match(), key.year(), key.month(), key.category(), null, key.sortColumn(), key.asc(), params) + " LIMIT ?";
+        params.add(SEARCH_CACHE_IDS + 1);
+        try (Connection conn = dataSource.getConnection()) {
+            return selectOnce(conn, sql, rs -> {
+                long[] ids = new long[16];
+                String[] snippets = new String[16];
+                int n = 0;
+                while (rs.next()) {
+                    if (n == ids.length) {
+                        ids = Arrays.copyOf(ids, n * 2);
+                        snippets = Arrays.copyOf(snippets, n * 2);
+                    }
+                    ids[n] = rs.getLong(1);
+                    snippets[n++] = rs.getString(2);
+                }
+                boolean complete = n <= SEARCH_CACHE_IDS;
+                if (!complete) n = SEARCH_CACHE_IDS;
+                return new SearchResults.Hits(Arrays.copyOf(ids, n), Arrays.copyOf(snippets, n), complete);
+            }, params.toArray());
+        } catch (SQLException e) {
+            throw new DataAccessException("search failed", e);
+        }
+    }
+
+    private List<Fact> page(SearchResults.Hits hits, int from, int limit) {
+        int to = Math.min(hits.ids().length, from + limit);
+        if (from >= to) return new ArrayList<>();
+        List<Fact> list = getByIds(Arrays.copyOfRange(hits.ids(), from, to));
+        Map<Long, String> snippets = new HashMap<>();
+        for (int i = from; i < to; i++) snippets.put(hits.ids()[i], hits.snippets()[i]);
+        for (Fact f : list) f.setSnippet(snippets.get(f.getId()));
+        return list;
+    }
+
+    // FROM ... WHERE ... ORDER BY for search; relevance only ranks full-text matches and otherwise falls back to event_date
+    private String where(String match, Integer year, Integer month, String category, SearchCursor after, String sort, boolean asc, List<Object> params) {
+        boolean useFts = match != null;
+        StringBuilder sb = new StringBuilder();
         if (useFts) {
-            params.add(sanitizeFts(q));
+            sb.append(" FROM facts f JOIN facts_fts ON facts_fts.rowid = f.id WHERE facts_fts MATCH ?");
+            params.add(match);
+        } else {
+            sb.append(" FROM facts WHERE 1=1");
         }
         if (year != null && month != null) {
             YearMonth ym = YearMonth.of(year, month);
-            sb.append(useFts ? " AND f.event_date BETWEEN ? AND ?" : " AND event_date BETWEEN ? AND ?");
-            params.add(ym.atDay(1).toString());
-            params.add(ym.atEndOfMonth().toString());
+            sb.append(useFts ? " AND f.event_day BETWEEN ? AND ?" : " AND event_day BETWEEN ? AND ?");
+            params.add(ym.atDay(1).toEpochDay());
+            params.add(ym.atEndOfMonth().toEpochDay());
         } else if (year != null) {
-            String y = String.format("%04d", year);
-            sb.append(useFts ? " AND f.event_date BETWEEN ? AND ?" : " AND event_date BETWEEN ? AND ?");
-            params.add(y + "-01-01");
-            params.add(y + "-12-31");
+            sb.append(useFts ? " AND f.event_day BETWEEN ? AND ?" : " AND event_day BETWEEN ? AND ?");
+            params.add(LocalDate.of(year, 1, 1).toEpochDay());
+            params.add(LocalDate.of(year, 12, 31).toEpochDay());
         }
         if (category != null && !category.isBlank()) {
             sb.append(useFts ? " AND f.category = ?" : " AND category = ?");
             params.add(category);
         }
-        String sf = (sortField != null && ("event_date".equalsIgnoreCase(sortField) || "created_at".equalsIgnoreCase(sortField) || "title".equalsIgnoreCase(sortField))) ? sortField : "event_date";
-        sb.append(" ORDER BY ").append(useFts ? ("f." + sf) : sf).append(asc ? " ASC" : " DESC");
-        sb.append(" LIMIT ? OFFSET ?");
-        try (Connection conn = dataSource.getConnection(); PreparedStatement ps = conn.prepareStatement(sb.toString())) {
-            int idx = 1;
-            for (Object p : params) {
-                ps.setObject(idx++, p);
-            }
-            ps.setInt(idx++, limit);
-            ps.setInt(idx, offset);
+        String id = useFts ? "f.id" : "id";
+        if (useFts && sort.equals(SearchCursor.RELEVANCE)) {
+            sb.append(" ORDER BY ").append(RANK).append(", ").append(id);
+            return sb.toString();
+        }
+        String sf = switch (sort) {
+            case "created_at" -> "created_ms";
+            case "title" -> "title";
+            default -> "event_day";
+        };
+        String col = useFts ? "f." + sf : sf;
+        if (after != null) {
+            sb.append(" AND (").append(col).append(", ").append(id).append(asc ? ") > (?, ?)" : ") < (?, ?)");
+            params.add(after.sortValue());
+            params.add(after.id());
+        }
+        String dir = asc ? " ASC" : " DESC";
+        sb.append(" ORDER BY ").append(col).append(dir).append(", ").append(id).append(dir);
+        return sb.toString();
+    }
+
+    @Override
+    public void scan(LocalDate from, LocalDate to, Consumer<Fact> sink) {
+        StringBuilder sb = new StringBuilder("SELECT id, event_day, title, summary, category, source_url, created_at FROM facts WHERE 1=1");
+        if (from != null) sb.append(" AND event_day >= ?");
+        if (to != null) sb.append(" AND event_day <= ?");
+        sb.append(" ORDER BY event_day, id");
+        List<Object> args = new ArrayList<>(2);
+        if (from != null) args.add(from.toEpochDay());
+        if (to != null) args.add(to.toEpochDay());
+        String sql = sb.toString();
+        try (Connection conn = dataSource.getConnection()) {
+            PreparedStatement ps = statements.prepare(conn, sql);
+            for (int i = 0; i < args.size(); i++) ps.setObject(i + 1, args.get(i));
+            // only the time to the first row is the query's own; the rest is the sink streaming to a client
+            long start = System.nanoTime();
             try (ResultSet rs = ps.executeQuery()) {
-                List<Fact> list = new ArrayList<>();
-                while (rs.next()) list.add(map(rs));
-                return list;
+                slowQueries.record(conn, sql, args.toArray(), System.nanoTime() - start);
+                while (rs.next()) sink.accept(map(rs));
             }
         } catch (SQLException e) {
-            throw new DataAccessException("search failed", e);
+            throw new DataAccessException("scan failed", e);
+        }
+    }
+
+    @Override
+    public void scanTitles(ObjIntConsumer<String> sink) {
+        try (Connection conn = dataSource.getConnection()) {
+            select(conn, "SELECT title, COUNT(1) FROM facts GROUP BY title", rs -> {
+                while (rs.next()) sink.accept(rs.getString(1), rs.getInt(2));
+                return null;
+            });
+        } catch (SQLException e) {
+            throw new DataAccessException("title scan failed", e);
         }
     }
 
+    // Each token becomes a quoted phrase so FTS operators in user input are inert; a trailing * keeps its prefix meaning.
+    // Lower-cased because the tokenizer folds case anyway, which lets equivalent queries share a cache entry.
     private String sanitizeFts(String q) {
-        String[] tokens = q.trim().split("\\s+");
+        String[] tokens = q.trim().toLowerCase(Locale.ROOT).split("\\s+");
         StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < tokens.length; i++) {
-            String t = tokens[i].replace("\"", "");
+        for (String token : tokens) {
+            boolean prefix = token.endsWith("*");
+            String t = token.replace("\"", "").replace("*", "");
             if (t.isBlank()) continue;
             if (sb.length() > 0) sb.append(" AND ");
             sb.append('"').append(t).append('"');
+            if (prefix) sb.append('*');
         }
-        return sb.length() == 0 ? q : sb.toString();
+        return sb.length() == 0 ? null : sb.toString();
     }
+
     @Override
     public long count() {
-        try (Connection conn = dataSource.getConnection(); Statement st = conn.createStatement(); ResultSet rs = st.executeQuery("SELECT COUNT(1) FROM facts")) {
-            if (rs.next()) return rs.getLong(1);
-            return 0;
+        try (Connection conn = dataSource.getConnection()) {
+            return select(conn, "SELECT COUNT(1) FROM facts", rs -> rs.next() ? rs.getLong(1) : 0L);
         } catch (SQLException e) {
             throw new DataAccessException("count failed", e);
         }
     }
 
+    // Runs a query on the cached statement, timed from execution through the last row read.
+    private <T> T select(Connection conn, String sql, Rows<T> rows, Object... args) throws SQLException {
+        return query(conn, statements.prepare(conn, sql), sql, rows, args);
+    }
+
+    // For SQL assembled per request (IN lists, search filters), whose variants would only churn the cache.
+    private <T> T selectOnce(Connection conn, String sql, Rows<T> rows, Object... args) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            return query(conn, ps, sql, rows, args);
+        }
+    }
+
+    private <T> T query(Connection conn, PreparedStatement ps, String sql, Rows<T> rows, Object... args) throws SQLException {
+        for (int i = 0; i < args.length; i++) ps.setObject(i + 1, args[i]);
+        long start = System.nanoTime();
+        try (ResultSet rs = ps.executeQuery()) {
+            return rows.read(rs);
+        } finally {
+            slowQueries.record(conn, sql, args, System.nanoTime() - start);
+        }
+    }
+
+    private int update(Connection conn, String sql, Object... args) throws SQLException {
+        PreparedStatement ps = statements.prepare(conn, sql);
+        for (int i = 0; i < args.length; i++) ps.setObject(i + 1, args[i]);
+        long start = System.nanoTime();
+        try {
+            return ps.executeUpdate();
+        } finally {
+            slowQueries.record(conn, sql, args, System.nanoTime() - start);
+        }
+    }
+
+    private List<Fact> mapAll(ResultSet rs) throws SQLException {
+        List<Fact> list = new ArrayList<>();
+        while (rs.next()) list.add(map(rs));
+        return list;
+    }
+
+    // columns in SELECT order: id, event_day, title, summary, category, source_url, created_at
     private Fact map(ResultSet rs) throws SQLException {
         Fact f = new Fact();
-        f.setId(rs.getLong("id"));
-        f.setEventDate(LocalDate.parse(rs.getString("event_date")));
-        f.setTitle(rs.getString("title"));
-        f.setSummary(rs.getString("summary"));
-        f.setCategory(rs.getString("category"));
-        f.setSourceUrl(rs.getString("source_url"));
-        f.setCreatedAt(OffsetDateTime.parse(rs.getString("created_at")));
+        f.setId(rs.getLong(1));
+        f.setEventDate(LocalDate.ofEpochDay(rs.getLong(2)));
+        f.setTitle(rs.getString(3));
+        f.setSummary(rs.getString(4));
+        f.setCategory(rs.getString(5));
+        f.setSourceUrl(rs.getString(6));
+        f.setCreatedAt(Dates.parseTimestamp(rs.getString(7)));
         return f;
     }
 }
\ No newline at end of file
@@ -0,0 +1,80 @@
+package com.timeline.repository;
+
+import org.sqlite.SQLiteConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Statements are prepared on the physical SQLite connection, so the pool never closes them on return.
+// A pooled connection is used by one thread at a time, which makes the per-connection map single-threaded.
+// Cached statements reference their connection, so a weak key would never clear; instead the entries of
+// connections the pool has closed are dropped whenever it opens a new one, which bounds them by the pool size.
+class StatementCache {
+    private final int maxPerConnection;
+    private final Map<SQLiteConnection, Map<String, PreparedStatement>> byConnection = new ConcurrentHashMap<>();
+
+    StatementCache(int maxPerConnection) {
+        this.maxPerConnection = maxPerConnection;
+    }
+
+    PreparedStatement prepare(Connection conn, String sql) throws SQLException {
+        SQLiteConnection raw = conn.unwrap(SQLiteConnection.class);
+        Map<String, PreparedStatement> statements = byConnection.get(raw);
+        if (statements == null) {
+            evictClosed();
+            statements = lru();
+            byConnection.put(raw, statements);
+        }
+        PreparedStatement ps = statements.get(sql);
+        if (ps == null || ps.isClosed()) {
+            ps = raw.prepareStatement(sql);
+            statements.put(sql, ps);
+        } else {
+            ps.clearParameters();
+            ps.clearBatch();
+        }
+        return ps;
+    }
+
+    int connections() {
+        return byConnection.size();
+    }
+
+    private void evictClosed() {
+        byConnection.entrySet().removeIf(e -> {
+            if (!isClosed(e.getKey())) return false;
+            e.getValue().values().forEach(StatementCache::closeQuietly);
+            return true;
+        });
+    }
+
+    private static boolean isClosed(SQLiteConnection conn) {
+        try {
+            return conn.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement ps) {
+        try {
+            ps.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    private Map<String, PreparedStatement> lru() {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() <= maxPerConnection) return false;
+                closeQuietly(eldest.getValue());
+                return true;
+            }
+        };
+    }
+}
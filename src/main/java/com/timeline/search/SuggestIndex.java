@@ -0,0 +1,141 @@
+package com.timeline.search;
+
+import com.timeline.model.Fact;
+import com.timeline.repository.FactChangeListener;
+import com.timeline.repository.FactRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Title suggestions by term prefix. A title is reachable from every non-numeric word in it and is
+// weighted by how many facts carry it. Earlier words in the query must prefix some word of the title.
+public class SuggestIndex implements FactChangeListener {
+    private static final int SCAN_PER_RESULT = 64;
+
+    private final TitleTrie trie = new TitleTrie();
+    private final Map<String, TitleTrie.Title> titles = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public static SuggestIndex load(FactRepository repo) {
+        SuggestIndex index = new SuggestIndex();
+        repo.scanTitles((text, count) -> {
+            TitleTrie.Title t = new TitleTrie.Title(text);
+            t.weight = count;
+            index.titles.put(text, t);
+            for (String term : terms(text)) index.trie.append(term, t);
+        });
+        index.trie.finish();
+        return index;
+    }
+
+    public List<String> suggest(String q, int limit) {
+        List<String> words = words(q);
+        String prefix = null;
+        for (int i = words.size() - 1; i >= 0 && prefix == null; i--) {
+            if (!numeric(words.get(i))) prefix = words.remove(i);
+        }
+        if (prefix == null) return List.of();
+        List<TitleTrie.Title> found;
+        lock.readLock().lock();
+        try {
+            found = trie.top(prefix, limit, limit * SCAN_PER_RESULT, t -> words.isEmpty() || matchesAll(t.text, words));
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<String> out = new ArrayList<>(found.size());
+        for (TitleTrie.Title t : found) out.add(t.text);
+        return out;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return titles.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void onChange(Fact before, Fact after) {
+        String removed = before != null ? before.getTitle() : null;
+        String added = after != null ? after.getTitle() : null;
+        if (removed != null && removed.equals(added)) return;
+        lock.writeLock().lock();
+        try {
+            if (removed != null) reweigh(removed, -1);
+            if (added != null) reweigh(added, 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void reweigh(String text, int delta) {
+        String[] terms = terms(text);
+        TitleTrie.Title t = titles.get(text);
+        if (t == null) {
+            if (delta < 0) return;
+            t = new TitleTrie.Title(text);
+            titles.put(text, t);
+        } else {
+            for (String term : terms) trie.remove(term, t);
+        }
+        t.weight += delta;
+        if (t.weight <= 0) {
+            titles.remove(text);
+            return;
+        }
+        for (String term : terms) trie.add(term, t);
+    }
+
+    private static boolean matchesAll(String title, List<String> prefixes) {
+        String lower = title.toLowerCase(Locale.ROOT);
+        for (String p : prefixes) {
+            if (!hasWordStartingWith(lower, p)) return false;
+        }
+        return true;
+    }
+
+    private static boolean hasWordStartingWith(String s, String p) {
+        for (int i = s.indexOf(p); i >= 0; i = s.indexOf(p, i + 1)) {
+            if (i == 0 || !Character.isLetterOrDigit(s.charAt(i - 1))) return true;
+        }
+        return false;
+    }
+
+    private static String[] terms(String title) {
+        List<String> words = words(title);
+        List<String> terms = new ArrayList<>(words.size());
+        for (String w : words) {
+            if (!numeric(w) && !terms.contains(w)) terms.add(w);
+        }
+        return terms.toArray(new String[0]);
+    }
+
+    static List<String> words(String s) {
+        List<String> out = new ArrayList<>();
+        if (s == null) return out;
+        String lower = s.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean word = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (word && start < 0) start = i;
+            else if (!word && start >= 0) {
+                out.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return out;
+    }
+
+    private static boolean numeric(String w) {
+        for (int i = 0; i < w.length(); i++) {
+            if (!Character.isDigit(w.charAt(i))) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,247 @@
+package com.timeline.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Predicate;
+
+// Radix trie from title terms to titles. Each node keeps its titles sorted by (weight desc, text) and the
+// highest weight in its subtree, so a prefix query walks best-first and stops after k titles.
+final class TitleTrie {
+    static final class Title {
+        final String text;
+        int weight;
+
+        Title(String text) {
+            this.text = text;
+        }
+    }
+
+    private static final Comparator<Title> ORDER = Comparator.comparingInt((Title t) -> -t.weight).thenComparing(t -> t.text);
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Title[] NO_TITLES = new Title[0];
+
+    private static final class Node {
+        String label;
+        Node[] children = NO_CHILDREN;
+        Title[] titles = NO_TITLES;
+        int size;
+        int max;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        int childIndex(char c) {
+            int lo = 0, hi = children.length - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                char m = children[mid].label.charAt(0);
+                if (m < c) lo = mid + 1;
+                else if (m > c) hi = mid - 1;
+                else return mid;
+            }
+            return -(lo + 1);
+        }
+
+        void insertChild(int at, Node child) {
+            Node[] next = new Node[children.length + 1];
+            System.arraycopy(children, 0, next, 0, at);
+            next[at] = child;
+            System.arraycopy(children, at, next, at + 1, children.length - at);
+            children = next;
+        }
+
+        void removeChild(int at) {
+            Node[] next = new Node[children.length - 1];
+            System.arraycopy(children, 0, next, 0, at);
+            System.arraycopy(children, at + 1, next, at, next.length - at);
+            children = next.length == 0 ? NO_CHILDREN : next;
+        }
+
+        void append(Title t) {
+            if (size == titles.length) titles = Arrays.copyOf(titles, Math.max(2, size * 2));
+            titles[size++] = t;
+        }
+
+        void addTitle(Title t) {
+            int idx = Arrays.binarySearch(titles, 0, size, t, ORDER);
+            if (idx >= 0) return;
+            int at = -idx - 1;
+            if (size == titles.length) titles = Arrays.copyOf(titles, Math.max(2, size * 2));
+            System.arraycopy(titles, at, titles, at + 1, size - at);
+            titles[at] = t;
+            size++;
+        }
+
+        boolean removeTitle(Title t) {
+            int idx = Arrays.binarySearch(titles, 0, size, t, ORDER);
+            if (idx < 0 || titles[idx] != t) return false;
+            System.arraycopy(titles, idx + 1, titles, idx, size - idx - 1);
+            titles[--size] = null;
+            if (size == 0) titles = NO_TITLES;
+            return true;
+        }
+
+        void recomputeMax() {
+            int m = size > 0 ? titles[0].weight : 0;
+            for (Node c : children) m = Math.max(m, c.max);
+            max = m;
+        }
+    }
+
+    // a subtree not yet expanded, or the next unread title of one node
+    private record Candidate(Node node, int index, int weight, long seq) {}
+
+    private final Node root = new Node("");
+
+    // Bulk path used while loading: titles are appended unsorted and ordered once by finish().
+    void append(String term, Title t) {
+        descend(root, term, 0).append(t);
+    }
+
+    void finish() {
+        finish(root);
+    }
+
+    void add(String term, Title t) {
+        add(root, term, 0, t);
+    }
+
+    // Must be called with the weight the title had when it was added.
+    void remove(String term, Title t) {
+        remove(root, term, 0, t);
+    }
+
+    List<Title> top(String prefix, int k, int maxScanned, Predicate<Title> accept) {
+        List<Title> out = new ArrayList<>(k);
+        Node start = find(prefix);
+        if (start == null || k <= 0) return out;
+        Set<Title> seen = new HashSet<>();
+        PriorityQueue<Candidate> queue = new PriorityQueue<>(Comparator.comparingInt((Candidate c) -> -c.weight).thenComparingLong(Candidate::seq));
+        long seq = 0;
+        queue.add(new Candidate(start, -1, start.max, seq++));
+        int scanned = 0;
+        while (!queue.isEmpty() && out.size() < k && scanned < maxScanned) {
+            Candidate c = queue.poll();
+            Node n = c.node;
+            if (c.index < 0) {
+                if (n.size > 0) queue.add(new Candidate(n, 0, n.titles[0].weight, seq++));
+                for (Node child : n.children) queue.add(new Candidate(child, -1, child.max, seq++));
+                continue;
+            }
+            // keep reading this node while nothing queued can beat its next title
+            for (int i = c.index; i < n.size && out.size() < k && scanned < maxScanned; i++) {
+                Candidate head = queue.peek();
+                if (i > c.index && head != null && head.weight > n.titles[i].weight) {
+                    queue.add(new Candidate(n, i, n.titles[i].weight, seq++));
+                    break;
+                }
+                Title t = n.titles[i];
+                scanned++;
+                if (seen.add(t) && accept.test(t)) out.add(t);
+            }
+        }
+        return out;
+    }
+
+    private Node find(String prefix) {
+        Node node = root;
+        int pos = 0;
+        while (pos < prefix.length()) {
+            int i = node.childIndex(prefix.charAt(pos));
+            if (i < 0) return null;
+            Node child = node.children[i];
+            int common = commonPrefix(child.label, prefix, pos);
+            if (pos + common == prefix.length()) return child;
+            if (common < child.label.length()) return null;
+            pos += common;
+            node = child;
+        }
+        return node;
+    }
+
+    private Node descend(Node node, String key, int pos) {
+        while (pos < key.length()) {
+            int i = node.childIndex(key.charAt(pos));
+            if (i < 0) {
+                Node leaf = new Node(key.substring(pos));
+                node.insertChild(-i - 1, leaf);
+                return leaf;
+            }
+            Node child = node.children[i];
+            int common = commonPrefix(child.label, key, pos);
+            if (common < child.label.length()) child = split(node, i, common);
+            pos += common;
+            node = child;
+        }
+        return node;
+    }
+
+    private void add(Node node, String key, int pos, Title t) {
+        if (pos == key.length()) {
+            node.addTitle(t);
+        } else {
+            int i = node.childIndex(key.charAt(pos));
+            if (i < 0) {
+                Node leaf = new Node(key.substring(pos));
+                leaf.addTitle(t);
+                leaf.max = t.weight;
+                node.insertChild(-i - 1, leaf);
+            } else {
+                Node child = node.children[i];
+                int common = commonPrefix(child.label, key, pos);
+                if (common < child.label.length()) child = split(node, i, common);
+                add(child, key, pos + common, t);
+            }
+        }
+        node.max = Math.max(node.max, t.weight);
+    }
+
+    private boolean remove(Node node, String key, int pos, Title t) {
+        if (pos == key.length()) {
+            if (!node.removeTitle(t)) return false;
+        } else {
+            int i = node.childIndex(key.charAt(pos));
+            if (i < 0) return false;
+            Node child = node.children[i];
+            if (!key.startsWith(child.label, pos) || !remove(child, key, pos + child.label.length(), t)) return false;
+            if (child.size == 0 && child.children.length == 0) {
+                node.removeChild(i);
+            } else if (child.size == 0 && child.children.length == 1) {
+                Node only = child.children[0];
+                only.label = child.label + only.label;
+                node.children[i] = only;
+            }
+        }
+        node.recomputeMax();
+        return true;
+    }
+
+    private static Node split(Node parent, int i, int at) {
+        Node child = parent.children[i];
+        Node mid = new Node(child.label.substring(0, at));
+        child.label = child.label.substring(at);
+        mid.children = new Node[]{child};
+        mid.max = child.max;
+        parent.children[i] = mid;
+        return mid;
+    }
+
+    private static void finish(Node node) {
+        Arrays.sort(node.titles, 0, node.size, ORDER);
+        for (Node c : node.children) finish(c);
+        node.recomputeMax();
+    }
+
+    private static int commonPrefix(String label, String key, int pos) {
+        int n = Math.min(label.length(), key.length() - pos);
+        int i = 0;
+        while (i < n && label.charAt(i) == key.charAt(pos + i)) i++;
+        return i;
+    }
+}
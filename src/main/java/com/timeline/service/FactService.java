@@ -1,20 +1,27 @@
 package com.timeline.service;
 
+import com.timeline.config.AppConfig;
 import com.timeline.model.Fact;
+import com.timeline.model.SearchPage;
 import com.timeline.repository.FactRepository;
-import com.timeline.util.AppConstants;
+import com.timeline.repository.SearchCursor;
 import com.timeline.util.ValidationUtil;
 
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 public class FactService {
     private final FactRepository repo;
+    private final AppConfig.Facts limits;
 
-    public FactService(FactRepository repo) { this.repo = repo; }
+    public FactService(FactRepository repo, AppConfig.Facts limits) {
+        this.repo = repo;
+        this.limits = limits;
+    }
 
     public Map<String,String> validate(String eventDate, String title, String summary, String category, String sourceUrl) {
         Map<String,String> errors = new LinkedHashMap<>();
@@ -25,31 +32,33 @@ public class FactService {
         if (!errors.containsKey("eventDate")) {
             try { date = LocalDate.parse(eventDate); } catch (Exception e) { errors.put("eventDate", "must be YYYY-MM-DD"); }
         }
-        if (title != null && title.length() > AppConstants.TITLE_MAX) errors.put("title", "max " + AppConstants.TITLE_MAX);
-        if (summary != null && summary.length() > AppConstants.SUMMARY_MAX) errors.put("summary", "max " + AppConstants.SUMMARY_MAX);
-        if (!ValidationUtil.validCategory(category)) errors.put("category", "invalid");
+        if (title != null && title.length() > limits.titleMax()) errors.put("title", "max " + limits.titleMax());
+        if (summary != null && summary.length() > limits.summaryMax()) errors.put("summary", "max " + limits.summaryMax());
+        if (!ValidationUtil.validCategory(category, limits.categories())) errors.put("category", "invalid");
         if (!ValidationUtil.validUrl(sourceUrl)) errors.put("sourceUrl", "invalid");
         return errors;
     }
 
-    public Fact create(LocalDate date, String title, String summary, String category, String sourceUrl) {
+    public Fact prepare(LocalDate date, String title, String summary, String category, String sourceUrl) {
         Fact f = new Fact();
         f.setEventDate(date);
-        f.setTitle(ValidationUtil.trimToLimit(title, AppConstants.TITLE_MAX));
-        f.setSummary(ValidationUtil.trimToLimit(summary, AppConstants.SUMMARY_MAX));
+        f.setTitle(ValidationUtil.trimToLimit(title, limits.titleMax()));
+        f.setSummary(ValidationUtil.trimToLimit(summary, limits.summaryMax()));
         f.setCategory(category);
         f.setSourceUrl(sourceUrl);
-        return repo.add(f);
+        return f;
+    }
+
+    public Fact create(LocalDate date, String title, String summary, String category, String sourceUrl) {
+        return repo.add(prepare(date, title, summary, category, sourceUrl));
+    }
+
+    public int createAll(List<Fact> facts) {
+        return repo.addAll(facts);
     }
 
     public boolean update(long id, LocalDate date, String title, String summary, String category, String sourceUrl) {
-        Fact f = new Fact();
-        f.setEventDate(date);
-        f.setTitle(ValidationUtil.trimToLimit(title, AppConstants.TITLE_MAX));
-        f.setSummary(ValidationUtil.trimToLimit(summary, AppConstants.SUMMARY_MAX));
-        f.setCategory(category);
-        f.setSourceUrl(sourceUrl);
-        return repo.update(id, f);
+        return repo.update(id, prepare(date, title, summary, category, sourceUrl)).isPresent();
     }
 
     public List<Fact> month(YearMonth ym) { return repo.getByMonth(ym); }
@@ -57,4 +66,15 @@ public class FactService {
     public List<Fact> search(Integer year, Integer month, String category, String q, int offset, int size, String sortField, boolean asc) {
         return repo.search(year, month, category, q, offset, size, sortField, asc);
     }
+
+    public SearchPage searchPage(Integer year, Integer month, String category, String q, SearchCursor after, int size, String sortField, boolean asc) {
+        List<Fact> items = repo.searchAfter(year, month, category, q, after, size + 1, sortField, asc);
+        if (items.size() <= size) return new SearchPage(items, null);
+        items = new ArrayList<>(items.subList(0, size));
+        Fact last = items.get(size - 1);
+        SearchCursor next = SearchCursor.RELEVANCE.equals(SearchCursor.sortColumn(sortField))
+                ? SearchCursor.at((after == null ? 0 : after.position()) + size, asc, last.getId())
+                : SearchCursor.after(last, sortField, asc);
+        return new SearchPage(items, next.encode());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.timeline.util;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+public class Sampling {
+    // Floyd's algorithm: k distinct positions in [0, n) using k draws, then shuffled.
+    public static int[] distinct(int n, int k, Random rnd) {
+        k = Math.min(k, n);
+        int[] out = new int[k];
+        Set<Integer> seen = new HashSet<>(k * 2);
+        int i = 0;
+        for (int j = n - k; j < n; j++) {
+            int t = rnd.nextInt(j + 1);
+            if (!seen.add(t)) {
+                seen.add(j);
+                t = j;
+            }
+            out[i++] = t;
+        }
+        for (int a = k - 1; a > 0; a--) {
+            int b = rnd.nextInt(a + 1);
+            int tmp = out[a];
+            out[a] = out[b];
+            out[b] = tmp;
+        }
+        return out;
+    }
+}
@@ -1,12 +1,12 @@
 package com.timeline.util;
 
 import java.net.URI;
-import java.util.Arrays;
+import java.util.List;
 
 public class ValidationUtil {
-    public static boolean validCategory(String c) {
+    public static boolean validCategory(String c, List<String> allowed) {
         if (c == null || c.isBlank()) return true;
-        return Arrays.asList(AppConstants.CATEGORY_ALLOW).contains(c);
+        return allowed.contains(c);
     }
 
     public static boolean validUrl(String url) {
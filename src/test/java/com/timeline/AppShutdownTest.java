@@ -0,0 +1,71 @@
+package com.timeline;
+
+import com.timeline.config.Database;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AppShutdownTest {
+    // Process.destroy() is a SIGTERM, which is what a deploy sends: the hot keys must be saved on it
+    @Test
+    void sigtermSavesTheHotKeys(@TempDir Path dir) throws Exception {
+        int port;
+        try (ServerSocket s = new ServerSocket(0)) {
+            port = s.getLocalPort();
+        }
+        String url = "jdbc:sqlite:" + dir.resolve("shutdown.db");
+        ProcessBuilder pb = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"), App.class.getName())
+                .redirectErrorStream(true)
+                .redirectOutput(dir.resolve("app.log").toFile());
+        Map<String, String> env = pb.environment();
+        env.put("PORT", String.valueOf(port));
+        env.put("DB_URL", url);
+        env.put("CACHE_SAVE_INTERVAL_S", "0");
+        Process app = pb.start();
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            awaitReady(client, port, app);
+            HttpResponse<String> month = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/facts?year=1969&month=7")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, month.statusCode());
+            app.destroy();
+            assertTrue(app.waitFor(30, TimeUnit.SECONDS));
+        } finally {
+            app.destroyForcibly();
+        }
+
+        Database db = new Database(url);
+        db.init();
+        try {
+            assertTrue(db.meta("cache_hot_keys").contains("m:1969-07"));
+        } finally {
+            db.close();
+        }
+    }
+
+    private static void awaitReady(HttpClient client, int port, Process app) throws Exception {
+        HttpRequest ready = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/ready")).build();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (System.nanoTime() < deadline) {
+            assertTrue(app.isAlive(), "app exited before it was ready");
+            try {
+                if (client.send(ready, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) return;
+            } catch (java.io.IOException notListening) {
+                // not up yet
+            }
+            Thread.sleep(100);
+        }
+        fail("app not ready within 60 s");
+    }
+}
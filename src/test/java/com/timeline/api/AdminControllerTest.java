@@ -0,0 +1,148 @@
+package com.timeline.api;
+
+import com.timeline.config.AppConfig;
+import com.timeline.config.Database;
+import com.timeline.config.SlowQueryLog;
+import com.timeline.cache.ConcurrentCache;
+import com.timeline.http.GzipJson;
+import com.timeline.http.ResponseCache;
+import com.timeline.metrics.FlightRecordings;
+import com.timeline.metrics.HttpEvents;
+import com.timeline.repository.CachingFactRepository;
+import com.timeline.repository.SqliteFactRepository;
+import io.javalin.Javalin;
+import io.javalin.testtools.JavalinTest;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdminControllerTest {
+    @Test
+    void slowQueriesRequireTheTokenAndListShapes() throws Exception {
+        Database db = new Database("jdbc:sqlite:file:admindb?mode=memory&cache=shared");
+        db.init();
+        SlowQueryLog log = new SlowQueryLog(0, 10);
+        try (Connection conn = db.getDataSource().getConnection()) {
+            log.record(conn, "SELECT id FROM facts WHERE category = 'tech'", null, 250_000_000);
+        }
+        Javalin app = Javalin.create();
+        GlobalExceptionHandler.register(app);
+        new AdminController("s3cret", log, new FlightRecordings(AppConfig.defaults().jfr())).register(app);
+        JavalinTest.test(app, (server, client) -> {
+            var anonymous = client.get("/admin/slow-queries");
+            assertEquals(401, anonymous.code());
+            assertEquals("Bearer", anonymous.header("WWW-Authenticate"));
+            assertTrue(anonymous.body().string().contains("\"code\":\"unauthorized\""));
+            assertEquals(401, client.get("/admin/slow-queries", r -> r.header("Authorization", "Bearer wrong")).code());
+
+            var res = client.get("/admin/slow-queries", r -> r.header("Authorization", "Bearer s3cret"));
+            assertEquals(200, res.code());
+            String body = res.body().string();
+            assertTrue(body.contains("\"slowStatements\":1"), body);
+            assertTrue(body.contains("\"sql\":\"SELECT id FROM facts WHERE category = ?\""), body);
+            assertTrue(body.contains("\"maxMicros\":250000"), body);
+
+            var cleared = client.delete("/admin/slow-queries", null, r -> r.header("Authorization", "Bearer s3cret"));
+            assertEquals(204, cleared.code());
+            assertTrue(log.top().isEmpty());
+        });
+        db.close();
+    }
+
+    @Test
+    void bodylessPostsNeedNoContentType(@TempDir Path dir) throws Exception {
+        FlightRecordings recordings = new FlightRecordings(new AppConfig.Jfr(dir.toString(), "default", 5, 16, false));
+        Javalin app = Javalin.create();
+        GlobalExceptionHandler.register(app);
+        new AdminController("s3cret", SlowQueryLog.disabled(), recordings).register(app);
+        JavalinTest.test(app, (server, client) -> {
+            // what curl -X POST sends: Content-Length 0 and no Content-Type
+            HttpClient http = HttpClient.newHttpClient();
+            URI start = URI.create(client.getOrigin() + "/admin/jfr/start");
+            var anonymous = http.send(HttpRequest.newBuilder(start).POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(401, anonymous.statusCode());
+
+            var started = http.send(HttpRequest.newBuilder(start).POST(HttpRequest.BodyPublishers.noBody())
+                    .header("Authorization", "Bearer s3cret").build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, started.statusCode(), started.body());
+            assertTrue(recordings.running());
+
+            var typeless = http.send(HttpRequest.newBuilder(URI.create(client.getOrigin() + "/admin/jfr/stop")).POST(HttpRequest.BodyPublishers.ofString("x"))
+                    .header("Authorization", "Bearer s3cret").build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(415, typeless.statusCode());
+            assertEquals(200, client.post("/admin/jfr/stop", "", r -> r.header("Authorization", "Bearer s3cret")).code());
+        });
+    }
+
+    @Test
+    void flightRecordingCapturesRequestsRepositoryCallsAndEvictions(@TempDir Path dir) throws Exception {
+        Database db = new Database("jdbc:sqlite:file:adminjfr?mode=memory&cache=shared");
+        db.init();
+        CachingFactRepository repo = new CachingFactRepository(new SqliteFactRepository(db));
+        ResponseCache responseCache = new ResponseCache(64, 60_000);
+        repo.addListener(responseCache);
+        FlightRecordings recordings = new FlightRecordings(new AppConfig.Jfr(dir.toString(), "default", 5, 16, false));
+        Javalin app = Javalin.create();
+        HttpEvents.register(app);
+        GlobalExceptionHandler.register(app);
+        new FactController(repo, responseCache, repo.versions(), null, null, AppConfig.defaults(), GzipJson.defaults()).register(app);
+        new AdminController("s3cret", SlowQueryLog.disabled(), recordings).register(app);
+        JavalinTest.test(app, (server, client) -> {
+            var notRunning = client.post("/admin/jfr/dump", "", r -> r.header("Authorization", "Bearer s3cret"));
+            assertEquals(409, notRunning.code());
+            assertTrue(notRunning.body().string().contains("\"code\":\"conflict\""));
+
+            var started = client.post("/admin/jfr/start", "", r -> r.header("Authorization", "Bearer s3cret"));
+            assertEquals(200, started.code());
+            assertTrue(started.body().string().contains("\"recording\":true"));
+
+            assertEquals(200, client.get("/api/facts?year=2024&month=5").code());
+            assertEquals(200, client.get("/api/facts?year=2024&month=5").code());
+            ConcurrentCache<Integer, String> small = new ConcurrentCache<Integer, String>(1, 0).named("tiny");
+            small.put(1, "a");
+            small.put(2, "b");
+            small.get(3);
+
+            var dumped = client.post("/admin/jfr/dump", "", r -> r.header("Authorization", "Bearer s3cret"));
+            assertEquals(200, dumped.code());
+            var stopped = client.post("/admin/jfr/stop", "", r -> r.header("Authorization", "Bearer s3cret"));
+            assertEquals(200, stopped.code());
+            assertFalse(recordings.running());
+
+            List<Path> files;
+            try (var listing = Files.list(dir)) {
+                files = listing.sorted().toList();
+            }
+            assertEquals(2, files.size());
+            List<RecordedEvent> events = RecordingFile.readAllEvents(files.get(1));
+            RecordedEvent request = events.stream()
+                    .filter(e -> e.getEventType().getName().equals("timeline.HttpRequest") && "/api/facts".equals(e.getString("route")))
+                    .findFirst().orElseThrow();
+            assertEquals(200, request.getInt("status"));
+            assertEquals("GET", request.getString("method"));
+            assertTrue(request.getLong("bytes") > 0);
+            assertEquals("identity", request.getString("encoding"));
+            List<String> monthLookups = events.stream()
+                    .filter(e -> e.getEventType().getName().equals("timeline.RepositoryCall") && "getByMonth".equals(e.getString("method")))
+                    .map(e -> e.getString("cache"))
+                    .toList();
+            assertTrue(monthLookups.contains("miss"), monthLookups.toString());
+            assertTrue(monthLookups.contains("hit"), monthLookups.toString());
+            assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().equals("timeline.CacheEviction")
+                    && "tiny".equals(e.getString("cache")) && "size".equals(e.getString("reason"))));
+        });
+        db.close();
+    }
+}
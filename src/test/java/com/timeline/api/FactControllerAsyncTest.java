@@ -0,0 +1,84 @@
+package com.timeline.api;
+
+import com.timeline.config.AppConfig;
+import com.timeline.config.Database;
+import com.timeline.config.DbExecutor;
+import com.timeline.http.GzipJson;
+import com.timeline.http.ResponseCache;
+import com.timeline.repository.CachingFactRepository;
+import com.timeline.repository.SqliteFactRepository;
+import io.javalin.Javalin;
+import io.javalin.testtools.JavalinTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FactControllerAsyncTest {
+    private Javalin asyncApp(String name, DbExecutor executor) {
+        Database db = new Database("jdbc:sqlite:file:" + name + "?mode=memory&cache=shared");
+        db.init();
+        CachingFactRepository repo = new CachingFactRepository(new SqliteFactRepository(db));
+        ResponseCache responseCache = new ResponseCache(64, 60_000);
+        repo.addListener(responseCache);
+        com.fasterxml.jackson.databind.ObjectMapper om = new com.fasterxml.jackson.databind.ObjectMapper();
+        om.registerModule(new com.fasterxml.jackson.datatype.jsr310.JavaTimeModule());
+        om.disable(com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        Javalin app = Javalin.create(cfg -> cfg.jsonMapper(new io.javalin.json.JavalinJackson(om)));
+        GlobalExceptionHandler.register(app);
+        new FactController(repo, responseCache, repo.versions(), null, executor, AppConfig.defaults(), GzipJson.defaults()).register(app);
+        return app;
+    }
+
+    @Test
+    void routesRunOnTheExecutor() {
+        DbExecutor executor = new DbExecutor(2, 16, 1);
+        JavalinTest.test(asyncApp("async1", executor), (server, client) -> {
+            assertEquals(201, client.post("/api/facts", "{\"eventDate\":\"2024-01-02\",\"title\":\"T\",\"summary\":\"S\"}").code());
+            var byId = client.get("/api/facts/1");
+            assertEquals(200, byId.code());
+            assertTrue(byId.body().string().contains("\"title\":\"T\""));
+            assertTrue(client.get("/api/facts?year=2024&month=1").body().string().contains("\"title\":\"T\""));
+            assertTrue(client.get("/api/facts/search?year=2024").body().string().contains("\"title\":\"T\""));
+            assertEquals(200, client.put("/api/facts/1", "{\"eventDate\":\"2024-01-03\",\"title\":\"T2\",\"summary\":\"S\"}").code());
+            assertEquals(204, client.delete("/api/facts/1").code());
+            var missing = client.get("/api/facts/1");
+            assertEquals(404, missing.code());
+            assertTrue(missing.body().string().contains("not found"));
+        });
+        executor.close();
+    }
+
+    @Test
+    void fullQueueIsRejectedWith503ButCacheHitsStillServe() throws Exception {
+        DbExecutor executor = new DbExecutor(1, 1, 7);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        JavalinTest.test(asyncApp("async2", executor), (server, client) -> {
+            assertEquals(201, client.post("/api/facts", "{\"eventDate\":\"2024-05-04\",\"title\":\"May\",\"summary\":\"S\"}").code());
+            assertEquals(200, client.get("/api/facts?year=2024&month=5").code());
+
+            executor.submit(() -> {
+                started.countDown();
+                release.await();
+            });
+            started.await();
+            executor.submit(release::await);
+            try {
+                var busy = client.get("/api/facts/1");
+                assertEquals(503, busy.code());
+                assertEquals("7", busy.header("Retry-After"));
+                assertTrue(busy.body().string().contains("\"code\":\"overloaded\""));
+
+                var cached = client.get("/api/facts?year=2024&month=5");
+                assertEquals(200, cached.code());
+                assertTrue(cached.body().string().contains("\"title\":\"May\""));
+            } finally {
+                release.countDown();
+            }
+            assertEquals(200, client.get("/api/facts/1").code());
+        });
+        executor.close();
+    }
+}
@@ -0,0 +1,73 @@
+package com.timeline.api;
+
+import com.timeline.config.Database;
+import com.timeline.repository.FactRepository;
+import com.timeline.repository.SqliteFactRepository;
+import io.javalin.Javalin;
+import io.javalin.testtools.JavalinTest;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FactControllerBulkTest {
+    private Javalin appWithRepo(FactRepository repo) {
+        com.fasterxml.jackson.databind.ObjectMapper om = new com.fasterxml.jackson.databind.ObjectMapper();
+        om.registerModule(new com.fasterxml.jackson.datatype.jsr310.JavaTimeModule());
+        om.disable(com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        Javalin app = Javalin.create(cfg -> cfg.jsonMapper(new io.javalin.json.JavalinJackson(om)));
+        GlobalExceptionHandler.register(app);
+        new FactController(repo).register(app);
+        return app;
+    }
+
+    private Request bulk(String baseUrl, String body, String contentType) {
+        return new Request.Builder()
+                .url(baseUrl + "/api/facts/bulk")
+                .post(RequestBody.create(body, MediaType.parse(contentType)))
+                .build();
+    }
+
+    @Test
+    void ndjsonImportReportsRowErrors() {
+        Database db = new Database("jdbc:sqlite:file:bulkdb1?mode=memory&cache=shared");
+        db.init();
+        FactRepository repo = new SqliteFactRepository(db);
+        String body = "{\"eventDate\":\"2024-03-01\",\"title\":\"A\",\"summary\":\"S\"}\n"
+                + "{\"eventDate\":\"bad\",\"title\":\"B\",\"summary\":\"S\"}\n"
+                + "not json\n"
+                + "{\"eventDate\":\"2024-03-02\",\"title\":\"C\",\"summary\":\"S\",\"category\":\"history\"}\n";
+        JavalinTest.test(appWithRepo(repo), (server, client) -> {
+            var res = client.request(bulk(client.getOrigin(), body, "application/x-ndjson"));
+            assertEquals(200, res.code());
+            String out = res.body().string();
+            assertTrue(out.contains("\"line\":2"), out);
+            assertTrue(out.contains("\"line\":3"), out);
+            assertTrue(out.contains("\"type\":\"done\",\"processed\":4,\"inserted\":2,\"failed\":2"), out);
+        });
+        assertEquals(2, repo.getByMonth(YearMonth.of(2024, 3)).size());
+    }
+
+    @Test
+    void csvImportWithHeader() {
+        Database db = new Database("jdbc:sqlite:file:bulkdb2?mode=memory&cache=shared");
+        db.init();
+        FactRepository repo = new SqliteFactRepository(db);
+        String body = "event_date,title,summary,category,source_url\n"
+                + "2024-04-01,\"Quoted, title\",Summary one,tech,https://example.com\n"
+                + "2024-04-02,Plain,Summary two,,\n";
+        JavalinTest.test(appWithRepo(repo), (server, client) -> {
+            var res = client.request(bulk(client.getOrigin(), body, "text/csv"));
+            assertEquals(200, res.code());
+            assertTrue(res.body().string().contains("\"inserted\":2"));
+        });
+        var april = repo.getByMonth(YearMonth.of(2024, 4));
+        assertEquals(2, april.size());
+        assertEquals("Quoted, title", april.get(0).getTitle());
+        assertNotNull(april.get(0).getId());
+    }
+}
@@ -0,0 +1,83 @@
+package com.timeline.api;
+
+import com.timeline.config.AppConfig;
+import com.timeline.config.Database;
+import com.timeline.http.GzipJson;
+import com.timeline.http.ResponseCache;
+import com.timeline.repository.CachingFactRepository;
+import com.timeline.repository.SqliteFactRepository;
+import io.javalin.Javalin;
+import io.javalin.testtools.JavalinTest;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FactControllerCachingTest {
+    private Javalin appWithCaches(String name) {
+        Database db = new Database("jdbc:sqlite:file:" + name + "?mode=memory&cache=shared");
+        db.init();
+        CachingFactRepository repo = new CachingFactRepository(new SqliteFactRepository(db));
+        ResponseCache responseCache = new ResponseCache(64, 60_000);
+        repo.addListener(responseCache);
+        com.fasterxml.jackson.databind.ObjectMapper om = new com.fasterxml.jackson.databind.ObjectMapper();
+        om.registerModule(new com.fasterxml.jackson.datatype.jsr310.JavaTimeModule());
+        om.disable(com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        Javalin app = Javalin.create(cfg -> cfg.jsonMapper(new io.javalin.json.JavalinJackson(om)));
+        GlobalExceptionHandler.register(app);
+        new FactController(repo, responseCache, repo.versions(), null, null, AppConfig.defaults(), GzipJson.defaults()).register(app);
+        return app;
+    }
+
+    @Test
+    void cachedMonthIsInvalidatedByWrites() {
+        JavalinTest.test(appWithCaches("respcache1"), (server, client) -> {
+            var first = client.get("/api/facts?year=2024&month=5");
+            assertEquals(200, first.code());
+            assertEquals("[]", first.body().string());
+            String etag = first.header("ETag");
+            assertNotNull(etag);
+
+            var again = client.get("/api/facts?year=2024&month=5");
+            assertEquals(etag, again.header("ETag"));
+
+            var created = client.post("/api/facts", "{\"eventDate\":\"2024-05-04\",\"title\":\"May\",\"summary\":\"S\"}");
+            assertEquals(201, created.code());
+
+            var month = client.get("/api/facts?year=2024&month=5");
+            assertTrue(month.body().string().contains("\"title\":\"May\""));
+            assertNotEquals(etag, month.header("ETag"));
+            var day = client.get("/api/facts/on?date=2024-05-04");
+            assertTrue(day.body().string().contains("\"title\":\"May\""));
+
+            var moved = client.put("/api/facts/1", "{\"eventDate\":\"2024-06-01\",\"title\":\"June\",\"summary\":\"S\"}");
+            assertEquals(200, moved.code());
+            assertEquals("[]", client.get("/api/facts?year=2024&month=5").body().string());
+            assertEquals("[]", client.get("/api/facts/on?date=2024-05-04").body().string());
+        });
+    }
+
+    @Test
+    void conditionalGetReturns304UntilMonthChanges() {
+        JavalinTest.test(appWithCaches("respcache2"), (server, client) -> {
+            var first = client.get("/api/facts?year=2024&month=7");
+            String etag = first.header("ETag");
+            assertNotNull(etag);
+            assertNotNull(first.header("Last-Modified"));
+
+            var notModified = client.get("/api/facts?year=2024&month=7", req -> req.header("If-None-Match", etag));
+            assertEquals(304, notModified.code());
+            assertEquals("", notModified.body().string());
+
+            var sinceOk = client.get("/api/facts/on?date=2024-07-01", req -> req.header("If-Modified-Since", first.header("Last-Modified")));
+            assertEquals(304, sinceOk.code());
+
+            client.post("/api/facts", "{\"eventDate\":\"2024-07-01\",\"title\":\"July\",\"summary\":\"S\"}");
+            var changed = client.get("/api/facts?year=2024&month=7", req -> req.header("If-None-Match", etag));
+            assertEquals(200, changed.code());
+            assertNotEquals(etag, changed.header("ETag"));
+
+            var otherMonth = client.get("/api/facts?year=2024&month=8", req -> req.header("If-None-Match", client.get("/api/facts?year=2024&month=8").header("ETag")));
+            assertEquals(304, otherMonth.code());
+        });
+    }
+}
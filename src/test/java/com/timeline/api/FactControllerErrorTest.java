@@ -1,5 +1,6 @@
 package com.timeline.api;
 
+import com.timeline.config.AppConfig;
 import com.timeline.config.Database;
 import com.timeline.repository.FactRepository;
 import com.timeline.repository.SqliteFactRepository;
@@ -20,6 +21,26 @@ public class FactControllerErrorTest {
         return app;
     }
 
+    @Test
+    void rateLimitedRequestsReturn429WithRetryAfter() {
+        Database db = new Database("jdbc:sqlite:file:errdb429?mode=memory&cache=shared");
+        db.init();
+        Javalin app = Javalin.create();
+        AppConfig defaults = AppConfig.defaults();
+        AppConfig config = new AppConfig(defaults.server(), defaults.db(), defaults.http(),
+                new AppConfig.RateLimit(3, 60_000, 64, "/api/facts/export=2"), defaults.features(), defaults.jfr(), defaults.warmup(), defaults.facts());
+        GlobalExceptionHandler.register(app, config);
+        new FactController(new SqliteFactRepository(db)).register(app);
+        JavalinTest.test(app, (server, client) -> {
+            assertEquals(200, client.get("/api/facts/export?year=2024").code());
+            assertEquals(200, client.get("/api/facts?year=2024&month=1").code());
+            var limited = client.get("/api/facts?year=2024&month=1");
+            assertEquals(429, limited.code());
+            assertEquals("20", limited.header("Retry-After"));
+            assertTrue(limited.body().string().contains("\"code\":\"rate_limited\""));
+        });
+    }
+
     @Test
     void missingQueryParamsReturns400() {
         JavalinTest.test(appWithHandlers(), (server, client) -> {
@@ -0,0 +1,156 @@
+package com.timeline.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.luben.zstd.ZstdInputStream;
+import com.timeline.config.Database;
+import com.timeline.model.Fact;
+import com.timeline.repository.DataAccessException;
+import com.timeline.repository.FactRepository;
+import com.timeline.repository.SqliteFactRepository;
+import io.javalin.Javalin;
+import io.javalin.testtools.JavalinTest;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FactControllerExportTest {
+    private static FactRepository seeded(String name, int n) {
+        Database db = new Database("jdbc:sqlite:file:" + name + "?mode=memory&cache=shared");
+        db.init();
+        FactRepository repo = new SqliteFactRepository(db);
+        seed(repo, n);
+        return repo;
+    }
+
+    private static void seed(FactRepository repo, int n) {
+        for (int i = 0; i < n; i++) {
+            Fact f = new Fact();
+            f.setEventDate(LocalDate.of(2023 + i % 2, 1 + i % 12, 1 + i % 28));
+            f.setTitle("Fact " + i);
+            f.setSummary("Summary " + i);
+            repo.add(f);
+        }
+    }
+
+    @Test
+    void exportStreamsAllRowsInDateOrder() {
+        FactRepository repo = seeded("exportdb", 300);
+        Javalin app = Javalin.create();
+        GlobalExceptionHandler.register(app);
+        new FactController(repo).register(app);
+        ObjectMapper om = new ObjectMapper();
+        JavalinTest.test(app, (server, client) -> {
+            var all = client.get("/api/facts/export");
+            assertEquals(200, all.code());
+            JsonNode rows = om.readTree(all.body().string());
+            assertEquals(300, rows.size());
+            for (int i = 1; i < rows.size(); i++) {
+                assertTrue(rows.get(i - 1).get("eventDate").asText().compareTo(rows.get(i).get("eventDate").asText()) <= 0);
+            }
+
+            var gz = client.get("/api/facts/export?year=2024&month=2", req -> req.header("Accept-Encoding", "gzip"));
+            assertEquals("gzip", gz.header("Content-Encoding"));
+            JsonNode feb = om.readTree(new GZIPInputStream(new ByteArrayInputStream(gz.body().bytes())));
+            assertEquals(repo.getByMonth(java.time.YearMonth.of(2024, 2)).size(), feb.size());
+            for (JsonNode n : feb) assertTrue(n.get("eventDate").asText().startsWith("2024-02"));
+
+            var zlib = client.get("/api/facts/export?year=2024&month=2", req -> req.header("Accept-Encoding", "gzip;q=0, deflate"));
+            assertEquals("deflate", zlib.header("Content-Encoding"));
+            assertEquals(feb, om.readTree(new InflaterInputStream(new ByteArrayInputStream(zlib.body().bytes()))));
+
+            assertEquals(400, client.get("/api/facts/export?month=2").code());
+        });
+    }
+
+    @Test
+    void zstdExportDecodesToEveryRow() {
+        FactRepository repo = seeded("exportzstd", 2000);
+        Javalin app = Javalin.create();
+        GlobalExceptionHandler.register(app);
+        new FactController(repo).register(app);
+        ObjectMapper om = new ObjectMapper();
+        JavalinTest.test(app, (server, client) -> {
+            var res = client.get("/api/facts/export", req -> req.header("Accept-Encoding", "zstd"));
+            assertEquals(200, res.code());
+            assertEquals("zstd", res.header("Content-Encoding"));
+            JsonNode rows = om.readTree(new ZstdInputStream(new ByteArrayInputStream(res.body().bytes())));
+            assertEquals(2000, rows.size());
+            Set<Long> ids = new HashSet<>();
+            for (JsonNode n : rows) ids.add(n.get("id").asLong());
+            assertEquals(2000, ids.size());
+        });
+    }
+
+    @Test
+    void scanFailingBeforeTheFirstFlushAnswersWithAnError() {
+        FactRepository repo = failing("exportfailearly", 5, 2);
+        Javalin app = Javalin.create();
+        GlobalExceptionHandler.register(app);
+        new FactController(repo).register(app);
+        JavalinTest.test(app, (server, client) -> {
+            var res = client.get("/api/facts/export", req -> req.header("Accept-Encoding", "gzip"));
+            assertEquals(503, res.code());
+            assertNull(res.header("Content-Encoding"));
+            assertTrue(res.body().string().contains("db_unavailable"));
+        });
+    }
+
+    @Test
+    void scanFailingMidStreamAbortsTheResponse() {
+        FactRepository repo = failing("exportfaillate", 3000, 2500);
+        Javalin app = Javalin.create();
+        GlobalExceptionHandler.register(app);
+        new FactController(repo).register(app);
+        JavalinTest.test(app, (server, client) -> {
+            for (String coding : new String[]{"identity", "gzip", "zstd"}) {
+                var res = client.get("/api/facts/export", req -> req.header("Accept-Encoding", coding));
+                assertEquals(200, res.code(), coding);
+                assertThrows(IOException.class, () -> res.body().bytes(), coding);
+            }
+            // the server is still answering after the aborted transfers
+            assertEquals(200, client.get("/api/facts/export?year=2023&month=1").code());
+        });
+    }
+
+    // lets the first n rows of a full scan through, then fails like a broken read connection would
+    private static FactRepository failing(String name, int rows, int n) {
+        Database db = new Database("jdbc:sqlite:file:" + name + "?mode=memory&cache=shared");
+        db.init();
+        FactRepository repo = new SqliteFactRepository(db) {
+            @Override
+            public void scan(LocalDate from, LocalDate to, Consumer<Fact> sink) {
+                if (from != null || to != null) {
+                    super.scan(from, to, sink);
+                    return;
+                }
+                AtomicInteger seen = new AtomicInteger();
+                super.scan(null, null, f -> {
+                    if (seen.incrementAndGet() > n) throw new DataAccessException("read failed", new SQLException("disk I/O error"));
+                    sink.accept(f);
+                });
+            }
+        };
+        // random summaries, so even a compressed body outgrows the response buffer and is committed
+        for (int i = 0; i < rows; i++) {
+            Fact f = new Fact();
+            f.setEventDate(LocalDate.of(2023, 1 + i % 12, 1 + i % 28));
+            f.setTitle("Fact " + i);
+            f.setSummary(UUID.randomUUID() + " " + UUID.randomUUID());
+            repo.add(f);
+        }
+        return repo;
+    }
+}
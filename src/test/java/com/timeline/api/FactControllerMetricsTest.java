@@ -0,0 +1,48 @@
+package com.timeline.api;
+
+import com.timeline.config.Database;
+import com.timeline.metrics.HttpMetrics;
+import com.timeline.metrics.MetricsRegistry;
+import com.timeline.repository.CachingFactRepository;
+import com.timeline.repository.InstrumentedFactRepository;
+import com.timeline.repository.SqliteFactRepository;
+import io.javalin.Javalin;
+import io.javalin.testtools.JavalinTest;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FactControllerMetricsTest {
+    @Test
+    void metricsEndpointReportsRoutesAndRepositoryCalls() {
+        Database db = new Database("jdbc:sqlite:file:metricsdb?mode=memory&cache=shared");
+        db.init();
+        MetricsRegistry metrics = new MetricsRegistry();
+        CachingFactRepository repo = new CachingFactRepository(new InstrumentedFactRepository(new SqliteFactRepository(db), metrics));
+        metrics.cache("month", repo::monthCacheStats);
+        metrics.pool("read", db.readPool());
+        Javalin app = Javalin.create();
+        HttpMetrics.register(app, metrics);
+        GlobalExceptionHandler.register(app);
+        new FactController(repo).register(app);
+        JavalinTest.test(app, (server, client) -> {
+            assertEquals(200, client.get("/api/facts?year=2024&month=1").code());
+            assertEquals(200, client.get("/api/facts?year=2024&month=1").code());
+            assertEquals(404, client.get("/api/facts/999").code());
+            assertEquals(404, client.get("/nope").code());
+
+            var res = client.get("/metrics");
+            assertEquals(200, res.code());
+            assertEquals(MetricsRegistry.CONTENT_TYPE, res.header("Content-Type"));
+            String text = res.body().string();
+            assertTrue(text.contains("timeline_http_request_duration_seconds_count{method=\"GET\",route=\"/api/facts\",status=\"200\"} 2\n"), text);
+            assertTrue(text.contains("timeline_http_request_duration_seconds_count{method=\"GET\",route=\"/api/facts/{id}\",status=\"404\"} 1\n"), text);
+            assertTrue(text.contains("route=\"unmatched\",status=\"404\""), text);
+            assertTrue(text.contains("timeline_repository_duration_seconds_count{method=\"getByMonth\"} 1\n"), text);
+            assertTrue(text.contains("timeline_repository_duration_seconds_count{method=\"getById\"} 1\n"), text);
+            assertTrue(text.contains("timeline_cache_hits_total{cache=\"month\"} 1\n"), text);
+            assertTrue(text.contains("timeline_db_connections_idle{pool=\"read\"}"), text);
+        });
+        db.close();
+    }
+}
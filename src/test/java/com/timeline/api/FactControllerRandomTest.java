@@ -0,0 +1,59 @@
+package com.timeline.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.timeline.config.Database;
+import com.timeline.model.Fact;
+import com.timeline.repository.FactRepository;
+import com.timeline.repository.SqliteFactRepository;
+import io.javalin.Javalin;
+import io.javalin.testtools.JavalinTest;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FactControllerRandomTest {
+    @Test
+    void randomWithCountReturnsDistinctFacts() {
+        Database db = new Database("jdbc:sqlite:file:randomdb?mode=memory&cache=shared");
+        db.init();
+        FactRepository repo = new SqliteFactRepository(db);
+        for (int d = 1; d <= 5; d++) {
+            Fact f = new Fact();
+            f.setEventDate(LocalDate.of(2024, 6, d));
+            f.setTitle("June " + d);
+            f.setSummary("S");
+            repo.add(f);
+        }
+        Javalin app = Javalin.create();
+        GlobalExceptionHandler.register(app);
+        new FactController(repo).register(app);
+        ObjectMapper om = new ObjectMapper();
+        JavalinTest.test(app, (server, client) -> {
+            var single = client.get("/api/facts/random?year=2024&month=6");
+            assertEquals(200, single.code());
+            assertTrue(om.readTree(single.body().string()).has("title"));
+
+            var many = client.get("/api/facts/random?year=2024&month=6&count=3");
+            assertEquals(200, many.code());
+            JsonNode arr = om.readTree(many.body().string());
+            assertEquals(3, arr.size());
+            Set<Long> ids = new HashSet<>();
+            for (JsonNode n : arr) ids.add(n.get("id").asLong());
+            assertEquals(3, ids.size());
+
+            var capped = client.get("/api/facts/random?year=2024&month=6&count=50");
+            assertEquals(5, om.readTree(capped.body().string()).size());
+
+            var empty = client.get("/api/facts/random?year=2024&month=7&count=3");
+            assertEquals(200, empty.code());
+            assertEquals(0, om.readTree(empty.body().string()).size());
+            assertEquals(404, client.get("/api/facts/random?year=2024&month=7").code());
+            assertEquals(400, client.get("/api/facts/random?year=2024&month=6&count=x").code());
+        });
+    }
+}
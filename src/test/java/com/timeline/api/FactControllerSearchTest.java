@@ -1,14 +1,20 @@
 package com.timeline.api;
 
+import com.timeline.config.AppConfig;
 import com.timeline.config.Database;
+import com.timeline.http.GzipJson;
 import com.timeline.model.Fact;
+import com.timeline.repository.CachingFactRepository;
 import com.timeline.repository.FactRepository;
 import com.timeline.repository.SqliteFactRepository;
+import com.timeline.search.SuggestIndex;
 import io.javalin.Javalin;
 import io.javalin.testtools.JavalinTest;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -43,4 +49,73 @@ public class FactControllerSearchTest {
             assertEquals(200, page2.code(), page2.body().string());
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void searchWithCursorWalksAllRowsOnce() {
+        Database db = new Database("jdbc:sqlite:file:cursordb?mode=memory&cache=shared");
+        db.init();
+        FactRepository repo = new SqliteFactRepository(db);
+        for (int i = 1; i <= 7; i++) {
+            Fact f = new Fact();
+            f.setEventDate(LocalDate.of(2024, 2, 1 + i / 3));
+            f.setTitle("Item " + i);
+            f.setSummary("Summary " + i);
+            repo.add(f);
+        }
+        Javalin app = appWithSeed(repo);
+        com.fasterxml.jackson.databind.ObjectMapper om = new com.fasterxml.jackson.databind.ObjectMapper();
+        JavalinTest.test(app, (server, client) -> {
+            for (String sort : List.of("event_date,asc", "event_date,desc", "title,asc", "relevance&q=summary", "title,desc&q=ite*")) {
+                List<Long> seen = new ArrayList<>();
+                String cursor = "";
+                int pages = 0;
+                while (cursor != null) {
+                    var res = client.get("/api/facts/search?year=2024&size=3&sort=" + sort + "&cursor=" + cursor);
+                    assertEquals(200, res.code(), sort);
+                    var body = om.readTree(res.body().string());
+                    for (var item : body.get("items")) seen.add(item.get("id").asLong());
+                    cursor = body.get("nextCursor").isNull() ? null : body.get("nextCursor").asText();
+                    pages++;
+                }
+                assertEquals(3, pages, sort);
+                assertEquals(7, seen.stream().distinct().count(), sort);
+                assertEquals(7, seen.size(), sort);
+            }
+            var first = om.readTree(client.get("/api/facts/search?size=3&cursor=").body().string());
+            String next = first.get("nextCursor").asText();
+            assertEquals(400, client.get("/api/facts/search?size=3&sort=title,asc&cursor=" + next).code());
+            assertEquals(400, client.get("/api/facts/search?size=3&cursor=not-a-cursor").code());
+            for (String q : List.of("*", "%22", "%22*%22")) {
+                var res = client.get("/api/facts/search?q=" + q);
+                assertEquals(200, res.code(), q);
+                assertEquals("[]", res.body().string(), q);
+            }
+        });
+    }
+
+    @Test
+    void suggestReturnsTitlesByPrefix() {
+        Database db = new Database("jdbc:sqlite:file:suggestroutedb?mode=memory&cache=shared");
+        db.init();
+        CachingFactRepository repo = new CachingFactRepository(new SqliteFactRepository(db));
+        SuggestIndex suggestions = SuggestIndex.load(repo);
+        repo.addListener(suggestions);
+        for (String title : List.of("Moon landing", "Moonwalk", "Mars rover")) {
+            Fact f = new Fact();
+            f.setEventDate(LocalDate.of(1969, 7, 20));
+            f.setTitle(title);
+            f.setSummary("S");
+            repo.add(f);
+        }
+        Javalin app = Javalin.create();
+        GlobalExceptionHandler.register(app);
+        new FactController(repo, null, repo.versions(), suggestions, null, AppConfig.defaults(), GzipJson.defaults()).register(app);
+        JavalinTest.test(app, (server, client) -> {
+            var res = client.get("/api/facts/suggest?q=moo&limit=5");
+            assertEquals(200, res.code());
+            assertEquals("[\"Moon landing\",\"Moonwalk\"]", res.body().string());
+            assertEquals("[\"Moon landing\"]", client.get("/api/facts/suggest?q=moo&limit=1").body().string());
+            assertEquals(400, client.get("/api/facts/suggest").code());
+        });
+    }
+}
@@ -0,0 +1,74 @@
+package com.timeline.bootstrap;
+
+import com.timeline.config.AppConfig;
+import com.timeline.config.Database;
+import com.timeline.model.Fact;
+import com.timeline.repository.CachingFactRepository;
+import com.timeline.repository.SqliteFactRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheWarmerTest {
+    @Test
+    void hotKeysSurviveARestartAndTheSnapshotOnlyWhileUnwritten(@TempDir Path dir) throws Exception {
+        Path snapshotFile = dir.resolve("cache.snap");
+        AppConfig.Warmup config = new AppConfig.Warmup(true, 2, 2, snapshotFile.toString(), 0);
+        Database db = new Database("jdbc:sqlite:" + dir.resolve("warm.db"));
+        db.init();
+        try {
+            SqliteFactRepository sqlite = new SqliteFactRepository(db);
+            sqlite.addAll(List.of(fact("1969-07-20", "Moon landing"), fact("1969-07-21", "Moonwalk"),
+                    fact("1989-11-09", "Berlin Wall"), fact("2004-02-04", "Facebook")));
+
+            CachingFactRepository before = new CachingFactRepository(sqlite);
+            for (int i = 0; i < 5; i++) before.getByMonth(YearMonth.of(1969, 7));
+            for (int i = 0; i < 3; i++) before.getByMonth(YearMonth.of(1989, 11));
+            before.getByMonth(YearMonth.of(2004, 2));
+            before.getByDate(LocalDate.of(1969, 7, 20));
+            new CacheWarmer(db, before, config).saveKeys();
+            assertEquals("m:1969-07,m:1989-11", db.meta(CacheWarmer.HOT_KEYS).substring(0, 19));
+            assertFalse(Files.exists(snapshotFile));
+            new CacheWarmer(db, before, config).save();
+            assertTrue(Files.size(snapshotFile) > 0);
+
+            CachingFactRepository restarted = new CachingFactRepository(sqlite);
+            CacheWarmer warmer = new CacheWarmer(db, restarted, config);
+            assertFalse(warmer.ready());
+            assertEquals(3, warmer.restore());
+            List<Fact> july = restarted.cachedMonth(YearMonth.of(1969, 7));
+            assertNotNull(july);
+            assertEquals(List.of("Moon landing", "Moonwalk"), july.stream().map(Fact::getTitle).toList());
+            assertEquals(sqlite.getByMonth(YearMonth.of(1969, 7)).get(0).getCreatedAt().toInstant(), july.get(0).getCreatedAt().toInstant());
+            assertNull(restarted.cachedMonth(YearMonth.of(2004, 2)));
+            assertEquals(0, warmer.warm());
+            assertTrue(warmer.ready());
+
+            sqlite.add(fact("1969-07-24", "Splashdown"));
+            CachingFactRepository afterWrite = new CachingFactRepository(sqlite);
+            CacheWarmer stale = new CacheWarmer(db, afterWrite, config);
+            assertEquals(0, stale.restore());
+            assertEquals(3, stale.warm());
+            assertEquals(3, afterWrite.cachedMonth(YearMonth.of(1969, 7)).size());
+            assertEquals(1, afterWrite.monthCacheStats().hits());
+        } finally {
+            db.close();
+        }
+    }
+
+    private static Fact fact(String date, String title) {
+        Fact f = new Fact();
+        f.setEventDate(LocalDate.parse(date));
+        f.setTitle(title);
+        f.setSummary("s");
+        f.setCategory("history");
+        return f;
+    }
+}
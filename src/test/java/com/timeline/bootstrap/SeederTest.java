@@ -0,0 +1,38 @@
+package com.timeline.bootstrap;
+
+import com.timeline.config.Database;
+import com.timeline.repository.SqliteFactRepository;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SeederTest {
+    @Test
+    void seedRunsOnceUntilTheContentHashChanges() throws Exception {
+        Database db = new Database("jdbc:sqlite:file:seederdb?mode=memory&cache=shared");
+        db.init();
+        try {
+            SqliteFactRepository repo = new SqliteFactRepository(db);
+            int inserted = Seeder.seed(db, repo);
+            assertTrue(inserted > 15, "inserted " + inserted);
+            assertEquals(inserted, repo.count());
+            String hash = db.meta(Seeder.HASH_KEY);
+            assertNotNull(hash);
+            assertEquals(64, hash.length());
+
+            assertEquals(-1, Seeder.seed(db, repo));
+            assertEquals(inserted, repo.count());
+
+            try (Connection conn = db.getWriteDataSource().getConnection()) {
+                Database.putMeta(conn, Seeder.HASH_KEY, "stale");
+            }
+            assertEquals(0, Seeder.seed(db, repo));
+            assertEquals(inserted, repo.count());
+            assertEquals(hash, db.meta(Seeder.HASH_KEY));
+        } finally {
+            db.close();
+        }
+    }
+}
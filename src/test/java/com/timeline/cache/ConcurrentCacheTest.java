@@ -0,0 +1,156 @@
+package com.timeline.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentCacheTest {
+    @Test
+    void getPutInvalidateAndStats() {
+        ConcurrentCache<String, String> cache = new ConcurrentCache<>(16, 60_000);
+        assertNull(cache.get("a"));
+        cache.put("a", "1");
+        assertEquals("1", cache.get("a"));
+        assertEquals("2", cache.get("b", k -> "2"));
+        assertEquals("2", cache.get("b", k -> "other"));
+        cache.invalidate("a");
+        assertNull(cache.get("a"));
+        cache.clear();
+        assertEquals(0, cache.size());
+        CacheStats stats = cache.stats();
+        assertEquals(2, stats.hits());
+        assertEquals(3, stats.misses());
+        assertEquals(1, stats.loads());
+    }
+
+    @Test
+    void entriesExpireAfterTtl() {
+        AtomicLong now = new AtomicLong(1_000_000);
+        ConcurrentCache<String, String> cache = new ConcurrentCache<>(16, 1_000, now::get);
+        cache.put("a", "1");
+        now.addAndGet(999);
+        assertEquals("1", cache.get("a"));
+        now.addAndGet(1);
+        assertNull(cache.get("a"));
+        now.addAndGet(5_000);
+        cache.put("b", "2");
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.stats().expirations());
+    }
+
+    @Test
+    void sizeBoundKeepsFrequentlyUsedEntries() {
+        ConcurrentCache<Integer, Integer> cache = new ConcurrentCache<>(8, 0);
+        for (int i = 0; i < 8; i++) cache.put(i, i);
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 8; i++) cache.put(i, i);
+        }
+        for (int i = 100; i < 200; i++) cache.put(i, i);
+        assertTrue(cache.size() <= 8);
+        for (int i = 0; i < 8; i++) assertEquals(i, cache.get(i));
+        assertTrue(cache.stats().evictions() >= 100);
+    }
+
+    @Test
+    void hottestRanksByUseThenRecency() {
+        ConcurrentCache<String, Integer> cache = new ConcurrentCache<>(16, 0);
+        cache.put("cold", 0);
+        cache.put("warm", 1);
+        cache.put("hot", 2);
+        cache.put("recent", 3);
+        for (int i = 0; i < 5; i++) cache.get("hot");
+        for (int i = 0; i < 2; i++) cache.get("warm");
+        CacheStats before = cache.stats();
+        List<String> keys = cache.hottest(3).stream().map(java.util.Map.Entry::getKey).toList();
+        assertEquals(List.of("hot", "warm", "recent"), keys);
+        assertEquals(2, cache.hottest(3).get(0).getValue());
+        assertTrue(cache.contains("cold"));
+        assertFalse(cache.contains("missing"));
+        assertEquals(before.hits(), cache.stats().hits());
+        assertEquals(before.misses(), cache.stats().misses());
+    }
+
+    @Test
+    void concurrentAccessStaysBounded() throws Exception {
+        ConcurrentCache<Integer, Integer> cache = new ConcurrentCache<>(64, 60_000);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int seed = t;
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    int k = (i * 31 + seed) % 256;
+                    Integer v = cache.get(k, key -> key);
+                    assertEquals(k, v);
+                }
+            }));
+        }
+        for (Future<?> f : futures) f.get(30, TimeUnit.SECONDS);
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+        assertTrue(cache.size() <= 64 + 8);
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        ConcurrentCache<String, String> cache = new ConcurrentCache<>(16, 60_000);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(pool.submit(() -> cache.get("m", k -> {
+                calls.incrementAndGet();
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "loaded";
+            })));
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        release.countDown();
+        for (Future<String> f : futures) assertEquals("loaded", f.get(5, TimeUnit.SECONDS));
+        pool.shutdown();
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void refreshAheadServesStaleValueWhileReloading() {
+        AtomicLong now = new AtomicLong(1_000_000);
+        List<Runnable> queued = new ArrayList<>();
+        ConcurrentCache<String, String> cache = new ConcurrentCache<>(16, 1_000, 800, queued::add, now::get);
+        AtomicInteger version = new AtomicInteger();
+        assertEquals("v1", cache.get("k", k -> "v" + version.incrementAndGet()));
+        now.addAndGet(900);
+        assertEquals("v1", cache.get("k", k -> "v" + version.incrementAndGet()));
+        assertEquals("v1", cache.get("k", k -> "v" + version.incrementAndGet()));
+        assertEquals(1, queued.size());
+        queued.get(0).run();
+        assertEquals("v2", cache.get("k"));
+    }
+
+    @Test
+    void invalidationDuringLoadIsNotCached() {
+        ConcurrentCache<String, String> cache = new ConcurrentCache<>(16, 60_000);
+        assertEquals("stale", cache.get("k", k -> {
+            cache.invalidate("k");
+            return "stale";
+        }));
+        assertNull(cache.get("k"));
+    }
+}
@@ -0,0 +1,31 @@
+package com.timeline.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AppConfigTest {
+    @Test
+    void readsOverridesAndFallsBackOnBlankOrInvalidValues() {
+        Map<String, String> env = Map.of(
+                "PORT", "9090",
+                "THREAD_MODE", "Virtual",
+                "DB_POOL_MAX", "lots",
+                "DB_URL", "  ",
+                "TIMELINE_INDEX", "TRUE",
+                "FACT_CATEGORIES", " a, ,b ,");
+        AppConfig config = AppConfig.from(env::get);
+        AppConfig defaults = AppConfig.defaults();
+        assertEquals(9090, config.server().port());
+        assertEquals(ThreadMode.VIRTUAL, config.server().threadMode());
+        assertEquals(defaults.db().poolMax(), config.db().poolMax());
+        assertEquals("jdbc:sqlite:var/db/timeline.db", config.db().url());
+        assertTrue(config.features().index());
+        assertEquals(List.of("a", "b"), config.facts().categories());
+        assertEquals(List.of("history", "science", "tech", "culture", "current"), defaults.facts().categories());
+        assertEquals(ThreadMode.PLATFORM, defaults.server().threadMode());
+    }
+}
@@ -0,0 +1,86 @@
+package com.timeline.config;
+
+import com.timeline.model.Fact;
+import com.timeline.repository.SqliteFactRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DatabaseMigrationTest {
+    @Test
+    void legacyDatabaseIsBackfilledAndQueryable(@TempDir Path dir) throws Exception {
+        String url = "jdbc:sqlite:" + dir.resolve("legacy.db");
+        try (Connection conn = DriverManager.getConnection(url); Statement st = conn.createStatement()) {
+            Database.migrate(conn, 1);
+            st.executeUpdate("INSERT INTO facts(event_date, title, summary, category, source_url, created_at) VALUES " +
+                    "('1969-07-20', 'Moon landing', 's', 'history', null, '2024-01-01T00:00:00.1234Z')," +
+                    "('1969-07-21', 'Moonwalk', 's', 'history', null, '2024-01-02T10:15Z')," +
+                    "('2001-09-01', 'Later', 's', 'tech', null, '2024-01-03T10:15:30Z')");
+        }
+
+        Database db = new Database(url);
+        db.init();
+        try {
+            assertEquals(Database.latestVersion(), db.schemaVersion());
+            try (Connection conn = db.getDataSource().getConnection(); Statement st = conn.createStatement();
+                 ResultSet rs = st.executeQuery("SELECT event_day, created_ms FROM facts ORDER BY id")) {
+                rs.next();
+                assertEquals(LocalDate.of(1969, 7, 20).toEpochDay(), rs.getLong(1));
+                assertEquals(1704067200123L, rs.getLong(2));
+                rs.next();
+                assertEquals(LocalDate.of(1969, 7, 21).toEpochDay(), rs.getLong(1));
+                assertEquals(1704190500000L, rs.getLong(2));
+            }
+
+            SqliteFactRepository repo = new SqliteFactRepository(db);
+            assertEquals(2, repo.getByMonth(YearMonth.of(1969, 7)).size());
+            assertEquals("Moonwalk", repo.getByDate(LocalDate.of(1969, 7, 21)).get(0).getTitle());
+            Fact added = new Fact();
+            added.setEventDate(LocalDate.of(1969, 7, 24));
+            added.setTitle("Splashdown");
+            added.setSummary("s");
+            added.setCategory("history");
+            repo.add(added);
+            List<Fact> history = repo.search(1969, null, "history", null, 0, 10, "event_date", true);
+            assertEquals(List.of("Moon landing", "Moonwalk", "Splashdown"), history.stream().map(Fact::getTitle).toList());
+        } finally {
+            db.close();
+        }
+
+        Database reopened = new Database(url);
+        reopened.init();
+        try {
+            assertEquals(Database.latestVersion(), reopened.schemaVersion());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    // the queries that read only indexed columns must not touch the table
+    @Test
+    void keyOnlyQueriesAreIndexOnly(@TempDir Path dir) throws Exception {
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + dir.resolve("plan.db")); Statement st = conn.createStatement()) {
+            Database.migrate(conn, Database.latestVersion());
+            for (String sql : List.of(
+                    "SELECT id FROM facts WHERE event_day BETWEEN 1 AND 31",
+                    "SELECT 1 FROM facts WHERE event_day=1 AND title='t' LIMIT 1",
+                    "SELECT title, COUNT(1) FROM facts GROUP BY title",
+                    "SELECT COUNT(1) FROM facts")) {
+                try (ResultSet rs = st.executeQuery("EXPLAIN QUERY PLAN " + sql)) {
+                    assertTrue(rs.next(), sql);
+                    assertTrue(rs.getString(4).contains("COVERING INDEX"), sql + " => " + rs.getString(4));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.timeline.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GatedDataSourceTest {
+    @Test
+    void virtualThreadsQueueOnPermitsInsteadOfThePool() throws Exception {
+        Database db = new Database("jdbc:sqlite:file:gateddb?mode=memory&cache=shared", ThreadMode.VIRTUAL);
+        db.init();
+        try {
+            GatedDataSource gated = new GatedDataSource(db.getDataSource(), 2, 5000);
+            AtomicInteger inside = new AtomicInteger();
+            AtomicInteger peak = new AtomicInteger();
+            List<Future<Integer>> results = new ArrayList<>();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < 500; i++) {
+                    results.add(executor.submit(() -> {
+                        try (Connection conn = gated.getConnection(); Statement st = conn.createStatement(); ResultSet rs = st.executeQuery("SELECT 1")) {
+                            peak.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                            Thread.sleep(1);
+                            inside.decrementAndGet();
+                            rs.next();
+                            return rs.getInt(1);
+                        }
+                    }));
+                }
+            }
+            for (Future<Integer> f : results) assertEquals(1, f.get());
+            assertTrue(peak.get() <= 2, "peak " + peak.get());
+
+            GatedDataSource single = new GatedDataSource(db.getDataSource(), 1, 50);
+            try (Connection held = single.getConnection()) {
+                assertThrows(SQLTransientConnectionException.class, single::getConnection);
+            }
+            Connection again = single.getConnection();
+            again.close();
+            again.close();
+            try (Connection held = single.getConnection()) {
+                assertThrows(SQLTransientConnectionException.class, single::getConnection);
+            }
+        } finally {
+            db.close();
+        }
+    }
+}
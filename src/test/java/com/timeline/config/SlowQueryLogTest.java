@@ -0,0 +1,57 @@
+package com.timeline.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SlowQueryLogTest {
+    @Test
+    void normalizesSqlAndParameterShapes() {
+        assertEquals("SELECT * FROM facts WHERE id IN (?…) AND title = ? LIMIT ?",
+                SlowQueryLog.normalize("SELECT *  FROM facts\n WHERE id IN (?, ?,?) AND title = 'it''s' LIMIT 10"));
+        assertEquals("SELECT f1 FROM t2 WHERE x = ?", SlowQueryLog.normalize("SELECT f1 FROM t2 WHERE x = -3.5"));
+        assertEquals("[text, int*2, null]", SlowQueryLog.shape(new Object[]{"q", 1L, 2, null}));
+        assertEquals("[]", SlowQueryLog.shape(null));
+    }
+
+    @Test
+    void keepsTheSlowestShapesWithTheirPlans() throws Exception {
+        Database db = new Database("jdbc:sqlite:file:slowlogdb?mode=memory&cache=shared");
+        db.init();
+        try (Connection conn = db.getDataSource().getConnection()) {
+            SlowQueryLog log = new SlowQueryLog(5, 2);
+            String byDay = "SELECT id FROM facts WHERE event_day BETWEEN ? AND ?";
+            String byTitle = "SELECT id FROM facts WHERE summary = ?";
+            log.record(conn, byDay, new Object[]{1L, 2L}, 1_000_000);
+            assertEquals(0, log.slowStatements());
+            log.record(conn, byDay, new Object[]{1L, 2L}, 20_000_000);
+            log.record(conn, byDay, new Object[]{3L, 4L}, 10_000_000);
+            log.record(conn, byTitle, new Object[]{"x"}, 30_000_000);
+            log.record(conn, "SELECT COUNT(1) FROM facts", null, 6_000_000);
+            assertEquals(4, log.slowStatements());
+
+            List<SlowQueryLog.Entry> top = log.top();
+            assertEquals(2, top.size());
+            assertEquals(byTitle, top.get(0).sql());
+            assertTrue(top.get(0).plan().contains("SCAN"), top.get(0).plan());
+            assertEquals(byDay, top.get(1).sql());
+            assertEquals(2, top.get(1).count());
+            assertEquals(20_000, top.get(1).maxMicros());
+            assertEquals("[int*2]", top.get(1).params());
+            assertTrue(top.get(1).plan().contains("USING"), top.get(1).plan());
+        } finally {
+            db.close();
+        }
+    }
+
+    @Test
+    void negativeThresholdDisablesTheLog() {
+        SlowQueryLog log = SlowQueryLog.disabled();
+        log.record(null, "SELECT 1", null, Long.MAX_VALUE - 1);
+        assertEquals(0, log.slowStatements());
+        assertTrue(log.top().isEmpty());
+    }
+}
@@ -0,0 +1,98 @@
+package com.timeline.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SqliteWriterTest {
+    @Test
+    void concurrentWritesAreGroupCommittedAndFailuresIsolated() throws Exception {
+        Database db = new Database("jdbc:sqlite:file:writerdb?mode=memory&cache=shared");
+        db.init();
+        try {
+            SqliteWriter writer = db.writer();
+            List<CompletableFuture<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String title = "T" + i;
+                futures.add(writer.submit(conn -> insert(conn, title)));
+            }
+            CompletableFuture<Integer> failing = writer.submit(conn -> {
+                insert(conn, "rolled back");
+                throw new SQLException("boom");
+            });
+            for (CompletableFuture<Integer> f : futures) assertEquals(1, f.join());
+            CompletionException e = assertThrows(CompletionException.class, failing::join);
+            assertEquals("boom", e.getCause().getMessage());
+
+            try (Connection conn = db.getDataSource().getConnection(); Statement st = conn.createStatement()) {
+                try (ResultSet rs = st.executeQuery("SELECT COUNT(1) FROM facts")) {
+                    rs.next();
+                    assertEquals(200, rs.getInt(1));
+                }
+                try (ResultSet rs = st.executeQuery("SELECT COUNT(1) FROM facts WHERE title='rolled back'")) {
+                    rs.next();
+                    assertEquals(0, rs.getInt(1));
+                }
+                assertThrows(SQLException.class, () -> st.executeUpdate("DELETE FROM facts"));
+            }
+        } finally {
+            db.close();
+        }
+    }
+
+    @Test
+    void errorsFailOnlyTheirTaskAndUnstartedWritesTimeOut() throws Exception {
+        org.sqlite.SQLiteDataSource ds = new org.sqlite.SQLiteDataSource();
+        ds.setUrl("jdbc:sqlite:file:writererrors?mode=memory&cache=shared");
+        try (Connection keepAlive = ds.getConnection(); Statement st = keepAlive.createStatement()) {
+            st.execute("CREATE TABLE t(v TEXT)");
+            SqliteWriter writer = new SqliteWriter(ds, 16, 16, 200);
+            try {
+                CompletableFuture<Integer> overflow = writer.submit(conn -> {
+                    throw new StackOverflowError();
+                });
+                CompletionException e = assertThrows(CompletionException.class, overflow::join);
+                assertInstanceOf(StackOverflowError.class, e.getCause());
+                assertEquals(1, writer.<Integer>execute(conn -> conn.createStatement().executeUpdate("INSERT INTO t VALUES('after error')")));
+
+                java.util.concurrent.CountDownLatch release = new java.util.concurrent.CountDownLatch(1);
+                CompletableFuture<Integer> slow = writer.submit(conn -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return 0;
+                });
+                assertThrows(java.sql.SQLTimeoutException.class,
+                        () -> writer.execute(conn -> conn.createStatement().executeUpdate("INSERT INTO t VALUES('timed out')")));
+                release.countDown();
+                assertEquals(Integer.valueOf(0), slow.join());
+            } finally {
+                writer.close();
+            }
+            assertThrows(java.util.concurrent.RejectedExecutionException.class, () -> writer.submit(conn -> 1));
+            try (ResultSet rs = st.executeQuery("SELECT group_concat(v) FROM t")) {
+                rs.next();
+                assertEquals("after error", rs.getString(1));
+            }
+        }
+    }
+
+    private static int insert(Connection conn, String title) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("INSERT INTO facts(event_date, title, summary, created_at) VALUES('2024-01-01', ?, 's', '2024-01-01T00:00Z')")) {
+            ps.setString(1, title);
+            return ps.executeUpdate();
+        }
+    }
+}
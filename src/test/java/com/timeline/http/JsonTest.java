@@ -0,0 +1,43 @@
+package com.timeline.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.timeline.model.Fact;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonTest {
+    private final ObjectMapper plain = new ObjectMapper().registerModule(new JavaTimeModule()).disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    void matchesReflectiveOutput() throws Exception {
+        Fact a = fact(1, "Moon landing", null);
+        Fact b = fact(2, "Splashdown", "https://example.org/apollo");
+        b.setSnippet("<b>Splash</b>down");
+        assertEquals(plain.writeValueAsString(a), new String(Json.bytes(a)));
+        assertEquals(plain.writeValueAsString(List.of(a, b)), new String(Json.bytes(List.of(a, b))));
+        assertEquals("[]", new String(Json.bytes(List.of())));
+        assertEquals(plain.writeValueAsString(Map.of("status", "ok")), new String(Json.bytes(Map.of("status", "ok"))));
+        assertEquals(plain.writeValueAsString(a), Json.writerFor(Fact.class).writeValueAsString(a));
+    }
+
+    private static Fact fact(long id, String title, String url) {
+        Fact f = new Fact();
+        f.setId(id);
+        f.setEventDate(LocalDate.of(1969, 7, 20));
+        f.setTitle(title);
+        f.setSummary("s");
+        f.setCategory("history");
+        f.setSourceUrl(url);
+        f.setCreatedAt(OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 123_000_000, ZoneOffset.UTC));
+        return f;
+    }
+}
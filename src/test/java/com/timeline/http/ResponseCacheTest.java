@@ -0,0 +1,39 @@
+package com.timeline.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResponseCacheTest {
+    private static CachedResponse body(String s) {
+        return new CachedResponse(s.getBytes(StandardCharsets.UTF_8), "\"" + s + "\"");
+    }
+
+    @Test
+    void invalidatedTagDropsEntry() {
+        ResponseCache cache = new ResponseCache(16, 60_000);
+        String tag = ResponseCache.dayTag(LocalDate.of(1969, 7, 20));
+        assertEquals("\"a\"", cache.get("k", () -> body("a"), tag).etag());
+        assertEquals("\"a\"", cache.get("k", () -> body("b"), tag).etag());
+        cache.invalidateTag(tag);
+        assertNull(cache.get("k"));
+        assertEquals("\"c\"", cache.get("k", () -> body("c"), tag).etag());
+    }
+
+    @Test
+    void writeDuringLoadIsNotServedAfterwards() {
+        ResponseCache cache = new ResponseCache(16, 60_000);
+        String tag = ResponseCache.monthTag(YearMonth.of(1969, 7));
+        cache.get("k", () -> {
+            cache.invalidateTag(tag);
+            return body("stale");
+        }, tag);
+        assertNull(cache.get("k"));
+        assertEquals("\"fresh\"", cache.get("k", () -> body("fresh"), tag).etag());
+        assertEquals("\"fresh\"", cache.get("k").etag());
+    }
+}
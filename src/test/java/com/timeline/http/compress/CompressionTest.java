@@ -0,0 +1,81 @@
+package com.timeline.http.compress;
+
+import com.github.luben.zstd.ZstdInputStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompressionTest {
+    private final DeflateEncoder gzip = DeflateEncoder.gzip(6, 2);
+    private final DeflateEncoder deflate = DeflateEncoder.deflate(6, 2);
+    private final ZstdEncoder zstd = new ZstdEncoder(3, 2);
+    private final Compression compression = new Compression(List.of(zstd, gzip, deflate), 0);
+
+    @Test
+    void negotiatesByQValueThenServerPreference() {
+        assertNull(compression.negotiate(null));
+        assertNull(compression.negotiate(""));
+        assertNull(compression.negotiate("identity"));
+        assertNull(compression.negotiate("br"));
+        assertEquals("gzip", compression.negotiate("gzip").name());
+        assertEquals("zstd", compression.negotiate("gzip, deflate, br, zstd").name());
+        assertEquals("gzip", compression.negotiate("zstd;q=0.5, gzip").name());
+        assertEquals("deflate", compression.negotiate("gzip;q=0, deflate;q=0.1").name());
+        assertEquals("gzip", compression.negotiate("GZIP ; Q=0.8").name());
+        assertEquals("zstd", compression.negotiate("*").name());
+        assertEquals("gzip", compression.negotiate("zstd;q=0, *;q=0.5").name());
+        assertNull(compression.negotiate("*;q=0"));
+        assertNull(compression.negotiate("gzip;q=0"));
+    }
+
+    @Test
+    void encodingsRoundTrip() throws Exception {
+        byte[] raw = sample();
+        assertArrayEquals(raw, new GZIPInputStream(new ByteArrayInputStream(gzip.encode(raw))).readAllBytes());
+        assertArrayEquals(raw, new InflaterInputStream(new ByteArrayInputStream(deflate.encode(raw))).readAllBytes());
+        assertArrayEquals(raw, new ZstdInputStream(new ByteArrayInputStream(zstd.encode(raw))).readAllBytes());
+
+        for (ContentEncoder e : compression.encoders()) {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            try (OutputStream out = e.open(bos)) {
+                for (int i = 0; i < raw.length; i += 1000) out.write(raw, i, Math.min(1000, raw.length - i));
+                out.write('!');
+            }
+            InputStream in = switch (e.name()) {
+                case "gzip" -> new GZIPInputStream(new ByteArrayInputStream(bos.toByteArray()));
+                case "deflate" -> new InflaterInputStream(new ByteArrayInputStream(bos.toByteArray()));
+                default -> new ZstdInputStream(new ByteArrayInputStream(bos.toByteArray()));
+            };
+            byte[] back = in.readAllBytes();
+            assertEquals(raw.length + 1, back.length, e.name());
+            assertEquals('!', back[raw.length]);
+        }
+    }
+
+    @Test
+    void deflatersAreReused() throws Exception {
+        byte[] raw = sample();
+        for (int i = 0; i < 50; i++) {
+            gzip.encode(raw);
+            try (OutputStream out = gzip.open(new ByteArrayOutputStream())) {
+                out.write(raw);
+            }
+        }
+        assertEquals(1, gzip.deflatersCreated());
+    }
+
+    private static byte[] sample() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 2000; i++) sb.append("{\"id\":").append(i).append(",\"title\":\"Fact number ").append(i).append("\"},");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,55 @@
+package com.timeline.metrics;
+
+import com.timeline.cache.CacheStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsRegistryTest {
+    @Test
+    void bucketsStayWithinAnEighthOfTheValue() {
+        for (long v : new long[]{0, 1, 7, 8, 9, 15, 16, 17, 100, 999, 1_000, 123_456, 10_000_000, 1L << 40}) {
+            int i = LatencyHistogram.index(v);
+            long upper = LatencyHistogram.upperBoundMicros(i);
+            assertTrue(v < upper || i == LatencyHistogram.BUCKETS - 1, v + " above bucket " + i);
+            if (v >= 8 && i < LatencyHistogram.BUCKETS - 1) assertTrue(upper - v <= v / 8 + 1, v + " vs " + upper);
+            if (i > 0 && i < LatencyHistogram.BUCKETS - 1) assertTrue(v >= LatencyHistogram.upperBoundMicros(i - 1), v + " below bucket " + i);
+        }
+        LatencyHistogram h = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) h.recordNanos(i * 1_000_000L);
+        assertEquals(100, h.count());
+        long p50 = h.percentileMicros(0.5);
+        assertTrue(p50 >= 50_000 && p50 <= 50_000 * 9 / 8 + 1, "p50 " + p50);
+        assertEquals(5.05, h.sumSeconds(), 1e-9);
+    }
+
+    @Test
+    void scrapeRendersPrometheusText() {
+        MetricsRegistry registry = new MetricsRegistry();
+        AtomicLong rejected = new AtomicLong(3);
+        registry.counter("rejected_total", "Rejections", null, rejected::get);
+        registry.cache("month", () -> new CacheStats(3, 1, 0, 0, 1, 10));
+        LatencyHistogram a = registry.histogram("latency_seconds", "Latency", "route=\"/a\"");
+        LatencyHistogram b = registry.histogram("latency_seconds", "Latency", "route=\"/b\"");
+        a.recordNanos(200_000);
+        a.recordNanos(3_000_000);
+        a.recordNanos(20_000_000_000L);
+        b.recordNanos(1_000);
+        rejected.set(4);
+
+        String text = registry.scrape();
+        assertTrue(text.contains("# TYPE rejected_total counter\nrejected_total 4\n"), text);
+        assertTrue(text.contains("timeline_cache_hits_total{cache=\"month\"} 3\n"), text);
+        assertTrue(text.contains("timeline_cache_hit_ratio{cache=\"month\"} 0.75\n"), text);
+        assertEquals(1, text.split("# TYPE latency_seconds histogram", -1).length - 1, text);
+        assertTrue(text.contains("latency_seconds_bucket{route=\"/a\",le=\"0.0005\"} 1\n"), text);
+        assertTrue(text.contains("latency_seconds_bucket{route=\"/a\",le=\"0.005\"} 2\n"), text);
+        assertTrue(text.contains("latency_seconds_bucket{route=\"/a\",le=\"10\"} 2\n"), text);
+        assertTrue(text.contains("latency_seconds_bucket{route=\"/a\",le=\"+Inf\"} 3\n"), text);
+        assertTrue(text.contains("latency_seconds_count{route=\"/a\"} 3\n"), text);
+        assertTrue(text.contains("latency_seconds_sum{route=\"/a\"} 20.0032\n"), text);
+        assertTrue(text.contains("latency_seconds_bucket{route=\"/b\",le=\"0.0005\"} 1\n"), text);
+    }
+}
@@ -0,0 +1,83 @@
+package com.timeline.rate;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimiterTest {
+    @Test
+    void burstsToLimitThenRefillsAtTheSteadyRate() {
+        AtomicLong now = new AtomicLong(1_000_000_000L);
+        RateLimiter rl = new RateLimiter(4, 1000, new LocalRateLimitBackend(64), now::get);
+        for (int i = 0; i < 4; i++) assertTrue(rl.allow("a"));
+        assertEquals(250, rl.acquire("a", 1));
+        assertTrue(rl.allow("b"));
+
+        now.addAndGet(250_000);
+        assertTrue(rl.allow("a"));
+        assertFalse(rl.allow("a"));
+
+        now.addAndGet(10_000_000);
+        assertEquals(0, rl.acquire("a", 4));
+        assertEquals(500, rl.acquire("a", 2));
+        // a cost above the limit is clamped to one window rather than refused forever
+        now.addAndGet(10_000_000);
+        assertEquals(0, rl.acquire("a", 100));
+    }
+
+    @Test
+    void limitersSharingABackendShareTheQuota() {
+        AtomicLong now = new AtomicLong(1_000_000_000L);
+        LocalRateLimitBackend store = new LocalRateLimitBackend(64);
+        RateLimiter first = new RateLimiter(3, 60_000, store, now::get);
+        RateLimiter second = new RateLimiter(3, 60_000, store, now::get);
+        assertTrue(first.allow("10.0.0.1"));
+        assertTrue(second.allow("10.0.0.1"));
+        assertTrue(first.allow("10.0.0.1"));
+        assertFalse(second.allow("10.0.0.1"));
+        assertFalse(first.allow("10.0.0.1"));
+    }
+
+    @Test
+    void manyClientsStayWithinAFixedTable() {
+        AtomicLong now = new AtomicLong(1_000_000_000L);
+        LocalRateLimitBackend store = new LocalRateLimitBackend(1024);
+        RateLimiter rl = new RateLimiter(2, 60_000, store, now::get);
+        for (int i = 0; i < 100_000; i++) assertTrue(rl.allow("client-" + i));
+        assertEquals(1024, store.capacity());
+        assertTrue(store.evictions() > 0);
+
+        // the most recent, most constrained clients survive eviction
+        assertTrue(rl.allow("hot"));
+        assertTrue(rl.allow("hot"));
+        for (int i = 0; i < 100; i++) rl.allow("client-x" + i);
+        assertFalse(rl.allow("hot"));
+    }
+
+    @Test
+    void concurrentCallersAdmitExactlyTheBurst() throws Exception {
+        RateLimiter rl = new RateLimiter(500, 3_600_000, new LocalRateLimitBackend(64), () -> 1_000_000_000L);
+        AtomicInteger admitted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 200; i++) {
+                    if (rl.allow("shared")) admitted.incrementAndGet();
+                }
+            });
+        }
+        start.countDown();
+        for (Thread t : threads) t.join();
+        assertEquals(500, admitted.get());
+    }
+}
@@ -0,0 +1,105 @@
+package com.timeline.repository;
+
+import com.timeline.config.Database;
+import com.timeline.model.Fact;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndexedFactRepositoryTest {
+    private static Fact fact(LocalDate date, String title) {
+        Fact f = new Fact();
+        f.setEventDate(date);
+        f.setTitle(title);
+        f.setSummary("Summary of " + title);
+        f.setCategory(title.length() % 2 == 0 ? "history" : null);
+        return f;
+    }
+
+    private static List<Long> ids(List<Fact> facts) {
+        List<Fact> sorted = new ArrayList<>(facts);
+        sorted.sort(Comparator.comparing(Fact::getEventDate).thenComparing(Fact::getId));
+        List<Long> ids = new ArrayList<>();
+        for (Fact f : sorted) ids.add(f.getId());
+        return ids;
+    }
+
+    @Test
+    void servesReadsFromIndexAndTracksWrites() {
+        Database db = new Database("jdbc:sqlite:file:indexdb1?mode=memory&cache=shared");
+        db.init();
+        SqliteFactRepository sqlite = new SqliteFactRepository(db);
+        sqlite.add(fact(LocalDate.of(2024, 3, 10), "Loaded"));
+        sqlite.add(fact(LocalDate.of(2024, 3, 1), "Early"));
+        IndexedFactRepository repo = IndexedFactRepository.load(sqlite);
+
+        Fact added = repo.add(fact(LocalDate.of(2024, 3, 5), "Added"));
+        List<Fact> march = repo.getByMonth(YearMonth.of(2024, 3));
+        assertEquals(List.of("Early", "Added", "Loaded"), march.stream().map(Fact::getTitle).toList());
+        assertEquals(ids(sqlite.getByMonth(YearMonth.of(2024, 3))), march.stream().map(Fact::getId).toList());
+        assertEquals("Summary of Loaded", march.get(2).getSummary());
+        assertNotNull(march.get(2).getCreatedAt());
+        assertTrue(repo.existsByDateAndTitle(LocalDate.of(2024, 3, 10), "Loaded"));
+        assertTrue(repo.existsByDateAndTitle(LocalDate.of(2024, 3, 5), "Added"));
+        assertFalse(repo.existsByDateAndTitle(LocalDate.of(2024, 3, 5), "Loaded"));
+
+        assertTrue(repo.update(march.get(2).getId(), fact(LocalDate.of(2024, 4, 1), "Moved")).isPresent());
+        assertEquals(2, repo.getByMonth(YearMonth.of(2024, 3)).size());
+        assertEquals("Moved", repo.getByDate(LocalDate.of(2024, 4, 1)).get(0).getTitle());
+
+        assertTrue(repo.delete(added.getId()).isPresent());
+        assertEquals(List.of("Early"), repo.getByMonth(YearMonth.of(2024, 3)).stream().map(Fact::getTitle).toList());
+        assertEquals(2, repo.count());
+        assertTrue(repo.getRandom(YearMonth.of(2024, 3)).isPresent());
+        assertTrue(repo.getRandom(YearMonth.of(2024, 5)).isEmpty());
+    }
+
+    @Test
+    void compactsDeltaIntoSortedSegment() {
+        Database db = new Database("jdbc:sqlite:file:indexdb2?mode=memory&cache=shared");
+        db.init();
+        SqliteFactRepository sqlite = new SqliteFactRepository(db);
+        IndexedFactRepository repo = IndexedFactRepository.load(sqlite);
+        List<Fact> batch = new ArrayList<>();
+        for (int i = 0; i < 600; i++) batch.add(fact(LocalDate.of(2020, 1, 1).plusDays(i % 90), "Fact " + i));
+        repo.addAll(batch);
+        for (int i = 0; i < 600; i += 3) repo.delete(batch.get(i).getId());
+        for (int m = 1; m <= 4; m++) {
+            YearMonth ym = YearMonth.of(2020, m);
+            assertEquals(ids(sqlite.getByMonth(ym)), repo.getByMonth(ym).stream().map(Fact::getId).toList(), "month " + ym);
+        }
+        assertEquals(sqlite.count(), repo.count());
+        for (int i = 0; i < 50; i++) {
+            Fact r = repo.getRandom(YearMonth.of(2020, 2)).orElseThrow();
+            assertNotEquals(0, batch.indexOf(batch.stream().filter(f -> f.getId().equals(r.getId())).findFirst().orElseThrow()) % 3);
+        }
+    }
+
+    @Test
+    void singleAddsLandInOrderInTheDelta() {
+        Database db = new Database("jdbc:sqlite:file:indexdb3?mode=memory&cache=shared");
+        db.init();
+        SqliteFactRepository sqlite = new SqliteFactRepository(db);
+        sqlite.add(fact(LocalDate.of(2021, 6, 15), "Loaded"));
+        IndexedFactRepository repo = IndexedFactRepository.load(sqlite);
+        Random rnd = new Random(7);
+        for (int i = 0; i < 200; i++) repo.add(fact(LocalDate.of(2021, 5, 1).plusDays(rnd.nextInt(75)), "Fact " + i));
+        for (int m = 5; m <= 7; m++) {
+            YearMonth ym = YearMonth.of(2021, m);
+            List<Fact> month = repo.getByMonth(ym);
+            assertEquals(ids(sqlite.getByMonth(ym)), month.stream().map(Fact::getId).toList(), "month " + ym);
+            for (int i = 1; i < month.size(); i++) {
+                Fact a = month.get(i - 1), b = month.get(i);
+                assertTrue(a.getEventDate().isBefore(b.getEventDate()) || (a.getEventDate().equals(b.getEventDate()) && a.getId() < b.getId()));
+            }
+        }
+        assertEquals(201, repo.count());
+    }
+}
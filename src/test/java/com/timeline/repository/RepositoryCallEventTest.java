@@ -0,0 +1,41 @@
+package com.timeline.repository;
+
+import com.timeline.config.Database;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RepositoryCallEventTest {
+    @Test
+    void failedCallsAreRecordedWithTheirError(@TempDir Path dir) throws Exception {
+        Database db = new Database("jdbc:sqlite:file:calleventdb?mode=memory&cache=shared");
+        db.init();
+        CachingFactRepository repo = new CachingFactRepository(new SqliteFactRepository(db));
+        Path file = dir.resolve("calls.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("timeline.RepositoryCall");
+            recording.start();
+            assertEquals(0, repo.getByMonth(YearMonth.of(1969, 7)).size());
+            db.close();
+            assertThrows(DataAccessException.class, () -> repo.getById(1));
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> calls = RecordingFile.readAllEvents(file);
+        RecordedEvent month = calls.stream().filter(e -> "getByMonth".equals(e.getString("method"))).findFirst().orElseThrow();
+        assertEquals(0, month.getLong("rows"));
+        assertEquals("miss", month.getString("cache"));
+        assertNull(month.getString("error"));
+        RecordedEvent failed = calls.stream().filter(e -> "getById".equals(e.getString("method"))).findFirst().orElseThrow();
+        assertEquals(-1, failed.getLong("rows"));
+        assertEquals(DataAccessException.class.getName(), failed.getString("error"));
+    }
+}
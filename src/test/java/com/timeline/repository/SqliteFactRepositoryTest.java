@@ -5,8 +5,11 @@ import com.timeline.model.Fact;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.time.YearMonth;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -27,4 +30,86 @@ public class SqliteFactRepositoryTest {
         List<Fact> feb = repo.getByMonth(YearMonth.of(2024, 2));
         assertEquals(0, feb.size());
     }
-}
\ No newline at end of file
+
+    @Test
+    void randomTracksWritesAfterTableIsLoaded() {
+        Database db = new Database("jdbc:sqlite:file:memdb-random?mode=memory&cache=shared");
+        db.init();
+        FactRepository repo = new SqliteFactRepository(db);
+        YearMonth march = YearMonth.of(2024, 3);
+        assertTrue(repo.getRandom(march).isEmpty());
+        Fact a = repo.add(fact(LocalDate.of(2024, 3, 1), "A"));
+        Fact b = repo.add(fact(LocalDate.of(2024, 3, 9), "B"));
+        repo.addAll(List.of(fact(LocalDate.of(2024, 3, 20), "C"), fact(LocalDate.of(2024, 4, 2), "D")));
+
+        List<Fact> all = repo.getRandom(march, 10);
+        assertEquals(3, all.size());
+        Set<Long> ids = new HashSet<>();
+        for (Fact f : all) ids.add(f.getId());
+        assertEquals(3, ids.size());
+        assertEquals(2, repo.getRandom(march, 2).size());
+
+        repo.delete(a.getId());
+        repo.update(b.getId(), fact(LocalDate.of(2024, 4, 9), "B"));
+        for (int i = 0; i < 20; i++) {
+            assertEquals("C", repo.getRandom(march).orElseThrow().getTitle());
+        }
+        assertEquals(1, repo.getRandom(march, 5).size());
+        assertEquals(2, repo.getRandom(YearMonth.of(2024, 4), 5).size());
+    }
+
+    @Test
+    void rowMappingRoundTripsDatesAndTimestamps() {
+        Database db = new Database("jdbc:sqlite:file:memdb-dates?mode=memory&cache=shared");
+        db.init();
+        FactRepository repo = new SqliteFactRepository(db);
+        String[] created = {"2024-01-02T03:04Z", "2024-01-02T03:04:05Z", "2024-01-02T03:04:05.120Z", "2024-01-02T03:04:05.123456789Z", "2024-01-02T03:04:05+02:00"};
+        LocalDate[] dates = {LocalDate.of(999, 12, 31), LocalDate.of(2024, 2, 29), LocalDate.of(1, 1, 1), LocalDate.of(9999, 12, 31), LocalDate.of(1969, 7, 20)};
+        for (int i = 0; i < created.length; i++) {
+            Fact f = fact(dates[i], "T" + i);
+            f.setCreatedAt(OffsetDateTime.parse(created[i]));
+            long id = repo.add(f).getId();
+            Fact back = repo.getById(id).orElseThrow();
+            assertEquals(dates[i], back.getEventDate());
+            assertEquals(OffsetDateTime.parse(created[i]), back.getCreatedAt());
+        }
+    }
+
+    @Test
+    void fullTextSearchRanksMatchesPrefixesAndSeesWrites() {
+        Database db = new Database("jdbc:sqlite:file:memdb-fts?mode=memory&cache=shared");
+        db.init();
+        FactRepository repo = new SqliteFactRepository(db);
+        Fact inSummary = fact(LocalDate.of(1961, 4, 12), "First human in space");
+        inSummary.setSummary("Vostok carried Gagarin around the planet on a rocket");
+        repo.add(inSummary);
+        Fact inTitle = repo.add(fact(LocalDate.of(1969, 7, 16), "Rocket launch to the Moon"));
+        repo.add(fact(LocalDate.of(1970, 1, 1), "Unrelated"));
+
+        List<Fact> ranked = repo.search(null, null, null, "Rocket", 0, 10, "relevance", true);
+        assertEquals(List.of("Rocket launch to the Moon", "First human in space"), ranked.stream().map(Fact::getTitle).toList());
+        assertEquals("<mark>Rocket</mark> launch to the Moon", ranked.get(0).getSnippet());
+        assertTrue(ranked.get(1).getSnippet().contains("<mark>rocket</mark>"));
+        assertEquals(2, repo.search(null, null, null, "roc*", 0, 10, "event_date", true).size());
+        assertEquals(0, repo.search(null, null, null, "roc", 0, 10, "event_date", true).size());
+        assertEquals(0, repo.search(null, null, null, "*", 0, 10, "event_date", true).size());
+        assertEquals(0, repo.search(null, null, null, "\" **", 0, 10, "relevance", true).size());
+        assertEquals(0, repo.searchAfter(null, null, null, "\"", null, 10, "event_date", true).size());
+        assertEquals(3, repo.search(null, null, null, " ", 0, 10, "event_date", true).size());
+
+        repo.update(inTitle.getId(), fact(LocalDate.of(1969, 7, 16), "Apollo 11 lifts off"));
+        assertEquals(List.of("First human in space"), repo.search(null, null, null, "rocket", 0, 10, "relevance", true).stream().map(Fact::getTitle).toList());
+        assertEquals(1, repo.search(null, null, null, "apollo", 0, 10, "relevance", true).size());
+        repo.delete(inTitle.getId());
+        assertEquals(0, repo.search(null, null, null, "apollo", 0, 10, "relevance", true).size());
+        assertNull(repo.getById(inSummary.getId()).orElseThrow().getSnippet());
+    }
+
+    private static Fact fact(LocalDate date, String title) {
+        Fact f = new Fact();
+        f.setEventDate(date);
+        f.setTitle(title);
+        f.setSummary("Summary");
+        return f;
+    }
+}
@@ -0,0 +1,28 @@
+package com.timeline.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatementCacheTest {
+    @Test
+    void reusesStatementsAndDropsThoseOfClosedConnections() throws Exception {
+        StatementCache cache = new StatementCache(2);
+        Connection first = DriverManager.getConnection("jdbc:sqlite::memory:");
+        PreparedStatement one = cache.prepare(first, "SELECT 1");
+        assertSame(one, cache.prepare(first, "SELECT 1"));
+        cache.prepare(first, "SELECT 2");
+        cache.prepare(first, "SELECT 3");
+        assertTrue(one.isClosed());
+        first.close();
+
+        try (Connection second = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+            cache.prepare(second, "SELECT 1");
+            assertEquals(1, cache.connections());
+        }
+    }
+}
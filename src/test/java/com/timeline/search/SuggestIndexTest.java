@@ -0,0 +1,109 @@
+package com.timeline.search;
+
+import com.timeline.config.Database;
+import com.timeline.model.Fact;
+import com.timeline.repository.CachingFactRepository;
+import com.timeline.repository.SqliteFactRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SuggestIndexTest {
+    @Test
+    void suggestsByWordPrefixRankedByFactCountAndTracksWrites() {
+        Database db = new Database("jdbc:sqlite:file:suggestdb?mode=memory&cache=shared");
+        db.init();
+        CachingFactRepository repo = new CachingFactRepository(new SqliteFactRepository(db));
+        repo.add(fact("Apollo 11 lands"));
+        repo.add(fact("Apollo 11 lands"));
+        repo.add(fact("Apollo 13 returns"));
+        Fact apogee = repo.add(fact("Comet reaches apogee"));
+        SuggestIndex index = SuggestIndex.load(repo);
+        repo.addListener(index);
+
+        assertEquals(List.of("Apollo 11 lands", "Apollo 13 returns", "Comet reaches apogee"), index.suggest("Apo", 10));
+        assertEquals(List.of("Apollo 11 lands"), index.suggest("apo", 1));
+        assertEquals(List.of("Apollo 13 returns"), index.suggest("apollo 13 ret", 10));
+        assertEquals(List.of("Apollo 13 returns"), index.suggest("13 apo", 10));
+        assertEquals(List.of(), index.suggest("11", 10));
+        assertEquals(List.of(), index.suggest("zebra", 10));
+
+        repo.update(apogee.getId(), fact("Comet reaches perihelion"));
+        assertEquals(List.of("Comet reaches perihelion"), index.suggest("peri", 10));
+        assertEquals(List.of("Apollo 11 lands", "Apollo 13 returns"), index.suggest("apo", 10));
+        repo.add(fact("Apollo 13 returns"));
+        repo.add(fact("Apollo 13 returns"));
+        assertEquals(List.of("Apollo 13 returns", "Apollo 11 lands"), index.suggest("apo", 10));
+        repo.delete(apogee.getId());
+        assertEquals(List.of(), index.suggest("peri", 10));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void concurrentUpdatesOfOneFactLeaveOnlyItsFinalTitle() throws Exception {
+        Database db = new Database("jdbc:sqlite:file:suggestracedb?mode=memory&cache=shared");
+        db.init();
+        CachingFactRepository repo = new CachingFactRepository(new SqliteFactRepository(db));
+        Fact target = repo.add(fact("Title start"));
+        SuggestIndex index = SuggestIndex.load(repo);
+        repo.addListener(index);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int n = t;
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 25; i++) repo.update(target.getId(), fact("Title " + n + "-" + i));
+            }));
+        }
+        for (Thread t : threads) t.join();
+        String finalTitle = repo.getById(target.getId()).orElseThrow().getTitle();
+        assertEquals(1, index.size());
+        assertEquals(List.of(finalTitle), index.suggest("title", 10));
+    }
+
+    @Test
+    void incrementalUpdatesMatchBulkLoad() {
+        String[] words = {"alpha", "alps", "altitude", "beta", "bet", "better", "gamma", "game", "gam"};
+        Random rnd = new Random(7);
+        SuggestIndex index = new SuggestIndex();
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            String title = words[rnd.nextInt(words.length)] + " " + words[rnd.nextInt(words.length)];
+            if (rnd.nextInt(3) == 0 && counts.getOrDefault(title, 0) > 0) {
+                index.onChange(fact(title), null);
+                counts.merge(title, -1, Integer::sum);
+            } else {
+                index.onChange(null, fact(title));
+                counts.merge(title, 1, Integer::sum);
+            }
+        }
+        counts.values().removeIf(c -> c == 0);
+        for (String prefix : List.of("a", "al", "alp", "b", "bet", "g", "gam", "game", "x")) {
+            List<String> expected = new ArrayList<>();
+            counts.entrySet().stream()
+                    .filter(e -> SuggestIndex.words(e.getKey()).stream().anyMatch(w -> w.startsWith(prefix)))
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .forEach(e -> expected.add(e.getKey()));
+            List<String> got = index.suggest(prefix, 100);
+            assertEquals(expected.size(), got.size(), prefix);
+            assertEquals(new java.util.HashSet<>(expected), new java.util.HashSet<>(got), prefix);
+            for (int i = 1; i < got.size(); i++) {
+                assertTrue(counts.get(got.get(i - 1)) >= counts.get(got.get(i)), prefix);
+            }
+        }
+    }
+
+    private static Fact fact(String title) {
+        Fact f = new Fact();
+        f.setEventDate(LocalDate.of(1969, 7, 20));
+        f.setTitle(title);
+        f.setSummary("Summary");
+        return f;
+    }
+}